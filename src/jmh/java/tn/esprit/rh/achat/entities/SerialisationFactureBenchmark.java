@@ -0,0 +1,71 @@
+package tn.esprit.rh.achat.entities;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Sérialisation JSON d'une facture et de ses lignes, avec l'ObjectMapper
+ * configuré comme celui des contrôleurs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerialisationFactureBenchmark {
+
+    @Param({"5", "50"})
+    int lignes;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private Facture facture;
+
+    @Setup
+    public void preparer() {
+        Set<DetailFacture> details = new HashSet<>();
+        for (long i = 1; i <= lignes; i++) {
+            Produit produit = new Produit();
+            produit.setIdProduit(i);
+            produit.setCodeProduit("P" + i);
+            produit.setLibelleProduit("Produit de référence " + i);
+            produit.setPrix(10f + i);
+            produit.setDateCreation(new Date());
+            DetailFacture detail = new DetailFacture();
+            detail.setIdDetailFacture(i);
+            detail.setProduit(produit);
+            detail.setQteCommandee((int) i);
+            detail.setPourcentageRemise(5);
+            detail.setPrixTotalDetail(produit.getPrix() * i);
+            details.add(detail);
+        }
+        facture = new Facture();
+        facture.setIdFacture(1L);
+        facture.setDateCreationFacture(new Date());
+        facture.setArchivee(false);
+        facture.setDetailsFacture(details);
+    }
+
+    @Benchmark
+    public byte[] serialiser() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(facture);
+    }
+
+}
@@ -0,0 +1,82 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.rh.achat.AchatApplication;
+import tn.esprit.rh.achat.util.GenerateurDonnees;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Agrégats de FactureRepository sur H2 embarqué (mode MySQL), avec un jeu de
+ * factures généré sur une année (GenerateurDonnees) et un contexte Spring
+ * sans couche web
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgregatsFactureBenchmark {
+
+    private static final int FOURNISSEURS = 500;
+
+    @Param({"100000"})
+    int factures;
+
+    private ConfigurableApplicationContext contexte;
+    private FactureRepository factureRepository;
+    private final java.util.Date debut = Date.valueOf(LocalDate.of(2023, 3, 1));
+    private final java.util.Date fin = Date.valueOf(LocalDate.of(2023, 5, 31));
+
+    @Setup
+    public void preparer() {
+        contexte = new SpringApplicationBuilder(AchatApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:jmh;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+                .run();
+        factureRepository = contexte.getBean(FactureRepository.class);
+        new GenerateurDonnees(42).fournisseurs(FOURNISSEURS).factures(factures).lignesParFacture(1)
+                .periode(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31))
+                .generer(contexte.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void fermer() {
+        contexte.close();
+    }
+
+    @Benchmark
+    public float totalFacturesTrimestre() {
+        return factureRepository.getTotalFacturesEntreDeuxDates(debut, fin);
+    }
+
+    @Benchmark
+    public double revenusParFournisseurTrimestre() {
+        double[] total = {0};
+        factureRepository.parcourirRevenusFournisseurs(debut, fin, (id, revenu) -> total[0] += revenu);
+        return total[0];
+    }
+
+}
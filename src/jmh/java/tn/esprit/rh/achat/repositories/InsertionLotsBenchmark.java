@@ -0,0 +1,118 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.rh.achat.AchatApplication;
+import tn.esprit.rh.achat.entities.DetailFacture;
+import tn.esprit.rh.achat.entities.Facture;
+import tn.esprit.rh.achat.entities.Produit;
+import tn.esprit.rh.achat.entities.Reglement;
+import tn.esprit.rh.achat.util.GenerateurDonnees;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Insertions JPA d'une facture, de ses lignes et de ses règlements en une
+ * transaction, identifiants par blocs (pooled-lo) : lots JDBC de 50
+ * (configuration de l'application) contre batch_size=1, une instruction par
+ * ligne comme avec GenerationType.IDENTITY. Score en lignes insérées par
+ * seconde ; H2 embarqué n'a pas d'aller-retour réseau, le gain sur MySQL
+ * est plus élevé.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertionLotsBenchmark {
+
+    private static final int LIGNES = 100;
+    private static final int REGLEMENTS = 20;
+    private static final int PRODUITS = 500;
+
+    @Param({"1", "50"})
+    int tailleLot;
+
+    private ConfigurableApplicationContext contexte;
+    private EntityManagerFactory entityManagerFactory;
+    private TransactionTemplate transaction;
+    private long premierProduit;
+    private int rang;
+
+    @Setup
+    public void preparer() {
+        contexte = new SpringApplicationBuilder(AchatApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:jmh-lots;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + tailleLot,
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+                .run();
+        JdbcTemplate jdbcTemplate = contexte.getBean(JdbcTemplate.class);
+        new GenerateurDonnees(42).fournisseurs(10).produits(PRODUITS).factures(0).generer(jdbcTemplate);
+        premierProduit = jdbcTemplate.queryForObject("SELECT MIN(id_produit) FROM produit", Long.class);
+        entityManagerFactory = contexte.getBean(EntityManagerFactory.class);
+        transaction = new TransactionTemplate(contexte.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown
+    public void fermer() {
+        contexte.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1 + LIGNES + REGLEMENTS)
+    public Long insererFacture() {
+        return transaction.execute(statut -> {
+            EntityManager em = entityManagerFactory.createEntityManager();
+            em.joinTransaction();
+            Facture facture = new Facture();
+            facture.setDateCreationFacture(new Date());
+            facture.setArchivee(false);
+            em.persist(facture);
+            for (int i = 0; i < LIGNES; i++) {
+                DetailFacture ligne = new DetailFacture();
+                ligne.setQteCommandee(1 + i % 5);
+                ligne.setPourcentageRemise(0);
+                ligne.setPrixTotalDetail(10f * ligne.getQteCommandee());
+                ligne.setProduit(em.getReference(Produit.class, premierProduit + rang++ % PRODUITS));
+                ligne.setFacture(facture);
+                em.persist(ligne);
+            }
+            for (int i = 0; i < REGLEMENTS; i++) {
+                Reglement reglement = new Reglement();
+                reglement.setMontantPaye(1f);
+                reglement.setDateReglement(new Date());
+                reglement.setFacture(facture);
+                em.persist(reglement);
+            }
+            em.flush();
+            em.close();
+            return facture.getIdFacture();
+        });
+    }
+
+}
@@ -0,0 +1,71 @@
+package tn.esprit.rh.achat.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tn.esprit.rh.achat.entities.DetailFacture;
+import tn.esprit.rh.achat.entities.Facture;
+import tn.esprit.rh.achat.entities.Produit;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Calcul des montants d'une facture (FactureServiceImpl.addDetailsFacture),
+ * produits déjà chargés : le coût propre au service, hors base
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculFactureBenchmark {
+
+    @Param({"5", "50", "500"})
+    int lignes;
+
+    private final FactureServiceImpl factureService = new FactureServiceImpl();
+    private Facture facture;
+    private Set<DetailFacture> details;
+    private Map<Long, Produit> produits;
+
+    @Setup
+    public void preparer() {
+        produits = new HashMap<>();
+        details = new HashSet<>();
+        for (long i = 1; i <= lignes; i++) {
+            Produit produit = new Produit();
+            produit.setIdProduit(i);
+            produit.setCodeProduit("P" + i);
+            produit.setPrix(10f + i % 90);
+            produits.put(i, produit);
+            Produit reference = new Produit();
+            reference.setIdProduit(i);
+            DetailFacture detail = new DetailFacture();
+            detail.setProduit(reference);
+            detail.setQteCommandee((int) (1 + i % 20));
+            detail.setPourcentageRemise((int) (i % 15));
+            details.add(detail);
+        }
+        facture = new Facture();
+        facture.setDetailsFacture(details);
+    }
+
+    @Benchmark
+    public Facture calculerMontants() {
+        return factureService.addDetailsFacture(facture, details, produits);
+    }
+
+}
@@ -0,0 +1,61 @@
+package tn.esprit.rh.achat.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tn.esprit.rh.achat.entities.Stock;
+import tn.esprit.rh.achat.repositories.StockRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Rapport des stocks en rouge (StockServiceImpl.retrieveStatusStock) : la
+ * construction du message seule, le dépôt renvoyant une liste préparée
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatutStockBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int stocksEnRouge;
+
+    private final StockServiceImpl stockService = new StockServiceImpl();
+
+    @Setup
+    public void preparer() {
+        List<Stock> stocks = new ArrayList<>();
+        for (int i = 0; i < stocksEnRouge; i++) {
+            stocks.add(new Stock("Stock " + i, i % 10, 10 + i % 50));
+        }
+        // Seule retrieveStatusStock est appelée : un proxy suffit, sans surcoût de mock
+        stockService.stockRepository = (StockRepository) Proxy.newProxyInstance(
+                StockRepository.class.getClassLoader(), new Class<?>[]{StockRepository.class},
+                (proxy, methode, args) -> {
+                    if ("retrieveStatusStock".equals(methode.getName())) {
+                        return stocks;
+                    }
+                    throw new UnsupportedOperationException(methode.getName());
+                });
+    }
+
+    @Benchmark
+    public String genererRapport() {
+        return stockService.retrieveStatusStock();
+    }
+
+}
@@ -0,0 +1,110 @@
+package tn.esprit.rh.achat.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+ * Coût d'un événement pour le thread appelant, avec la configuration de
+ * logback-spring.xml (limiteur 20/s puis 1 sur 100, file asynchrone sans
+ * blocage) et une sortie sans écriture réelle : à rapporter à la durée d'une
+ * requête (ChargeApiBenchmarkTest) pour vérifier la part des journaux
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalisationBenchmark {
+
+    private final LoggerContext contexte = new LoggerContext();
+    private Logger service;
+    private Logger autre;
+    private int stocks;
+
+    @Setup
+    public void preparer() {
+        LimiteurJournaux limiteur = new LimiteurJournaux();
+        limiteur.addCategorie("tn.esprit.rh.achat.services");
+        limiteur.setContext(contexte);
+        limiteur.start();
+        contexte.addTurboFilter(limiteur);
+
+        PatternLayoutEncoder encodeur = new PatternLayoutEncoder();
+        encodeur.setPattern("%d{yyyy-MM-dd HH:mm:ss} - %-5level - %logger{60} - %msg%n");
+        encodeur.setContext(contexte);
+        encodeur.start();
+        OutputStreamAppender<ILoggingEvent> sortie = new OutputStreamAppender<>();
+        sortie.setContext(contexte);
+        sortie.setEncoder(encodeur);
+        sortie.setOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                // sortie ignorée
+            }
+
+            @Override
+            public void write(byte[] b, int debut, int longueur) {
+                // sortie ignorée
+            }
+        });
+        sortie.start();
+        AsyncAppender asynchrone = new AsyncAppender();
+        asynchrone.setContext(contexte);
+        asynchrone.setQueueSize(8192);
+        asynchrone.setNeverBlock(true);
+        asynchrone.addAppender(sortie);
+        asynchrone.start();
+
+        Logger racine = contexte.getLogger(Logger.ROOT_LOGGER_NAME);
+        racine.setLevel(Level.INFO);
+        racine.addAppender(asynchrone);
+        service = contexte.getLogger("tn.esprit.rh.achat.services.StockServiceImpl");
+        autre = contexte.getLogger("tn.esprit.rh.achat.util.SurveillanceReplica");
+    }
+
+    @TearDown
+    public void arreter() {
+        contexte.stop();
+    }
+
+    // Résumé d'un chemin chaud : au-delà de 20/s, limité puis échantillonné
+    @Benchmark
+    public void resumeLimite() {
+        service.info("Stocks lus {}", kv("stocks", stocks++));
+    }
+
+    // Catégorie non limitée : mise en file asynchrone (écartée si la file est pleine)
+    @Benchmark
+    public void evenementAsynchrone() {
+        autre.info("Réplique utilisée pour les lectures ({})", stocks++);
+    }
+
+    // Niveau désactivé : test de niveau et filtre seulement
+    @Benchmark
+    public void niveauDesactive() {
+        service.debug("Produit lu {}", kv("idProduit", stocks++));
+    }
+
+}
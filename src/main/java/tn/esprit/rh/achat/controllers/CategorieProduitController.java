@@ -2,9 +2,13 @@ package tn.esprit.rh.achat.controllers;
 
 import io.swagger.annotations.Api;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import tn.esprit.rh.achat.entities.CategorieProduit;
 import tn.esprit.rh.achat.services.ICategorieProduitService;
+import tn.esprit.rh.achat.services.VersionsTables;
 
 import java.util.List;
 
@@ -15,13 +19,20 @@ public class CategorieProduitController {
 
 	@Autowired
 	ICategorieProduitService categorieProduitService;
+	@Autowired
+	VersionsTables versionsTables;
 	
+	// Réponse 304 sans requête SQL si l'ETag du client correspond à la version de la table
 	// http://localhost:8089/SpringMVC/categorieProduit/retrieve-all-categorieProduit
 	@GetMapping("/retrieve-all-categorieProduit")
 	@ResponseBody
-	public List<CategorieProduit> getCategorieProduit() {
+	public ResponseEntity<List<CategorieProduit>> getCategorieProduit(WebRequest request) {
+		String etag = versionsTables.etag(VersionsTables.CATEGORIE_PRODUIT);
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
 		List<CategorieProduit> list = categorieProduitService.retrieveAllCategorieProduits();
-		return list;
+		return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(list);
 	}
 
 	// http://localhost:8089/SpringMVC/categorieProduit/retrieve-categorieProduit/8
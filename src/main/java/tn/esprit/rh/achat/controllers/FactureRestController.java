@@ -3,9 +3,14 @@ package tn.esprit.rh.achat.controllers;
 import io.swagger.annotations.Api;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import tn.esprit.rh.achat.entities.Facture;
 import tn.esprit.rh.achat.services.IFactureService;
+import tn.esprit.rh.achat.services.StockInsuffisantException;
+import tn.esprit.rh.achat.util.ExecuteurRapports;
 
 import java.util.Date;
 import java.util.List;
@@ -19,6 +24,8 @@ public class FactureRestController {
 
     @Autowired
     IFactureService factureService;
+    @Autowired
+    ExecuteurRapports executeurRapports;
 
     // http://localhost:8089/SpringMVC/facture/retrieve-all-factures
     @GetMapping("/retrieve-all-factures")
@@ -35,14 +42,25 @@ public class FactureRestController {
         return factureService.retrieveFacture(factureId);
     }
 
-    // http://localhost:8089/SpringMVC/facture/add-facture/{fournisseur-id}
+    // http://localhost:8089/SpringMVC/facture/add-facture?deduireStock=true
     @PostMapping("/add-facture")
     @ResponseBody
-    public Facture addFacture(@RequestBody Facture f) {
-        Facture facture = factureService.addFacture(f);
+    public Facture addFacture(@RequestBody Facture f,
+                              @RequestParam(name = "deduireStock", defaultValue = "false") boolean deduireStock) {
+        Facture facture = deduireStock ? factureService.addFacture(f, true) : factureService.addFacture(f);
         return facture;
     }
 
+    @ExceptionHandler(StockInsuffisantException.class)
+    public ResponseEntity<String> stockInsuffisant(StockInsuffisantException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> requeteInvalide(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
     /*
      * une facture peut etre annulé si elle a été saisie par erreur Pour ce
      * faire, il suffit de mettre le champs active à false
@@ -69,14 +87,11 @@ public class FactureRestController {
 
     // http://localhost:8089/SpringMVC/facture/pourcentageRecouvrement/{startDate}/{endDate}
     @GetMapping(value = "/pourcentageRecouvrement/{startDate}/{endDate}")
-    public float pourcentageRecouvrement(
+    public DeferredResult<Float> pourcentageRecouvrement(
             @PathVariable(name = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date startDate,
             @PathVariable(name = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date endDate) {
-        try {
-            return factureService.pourcentageRecouvrement(startDate, endDate);
-        } catch (Exception e) {
-            return 0;
-        }
+        return executeurRapports.executer("pourcentageRecouvrement",
+                () -> factureService.pourcentageRecouvrement(startDate, endDate));
     }
 
 }
@@ -2,11 +2,23 @@ package tn.esprit.rh.achat.controllers;
 
 import io.swagger.annotations.Api;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import tn.esprit.rh.achat.entities.AffectationSecteurFournisseur;
+import tn.esprit.rh.achat.entities.BilanFournisseur;
 import tn.esprit.rh.achat.entities.Fournisseur;
+import tn.esprit.rh.achat.entities.FournisseurResume;
+import tn.esprit.rh.achat.entities.LigneClassement;
+import tn.esprit.rh.achat.entities.ResultatImportFournisseurs;
 import tn.esprit.rh.achat.services.IFournisseurService;
+import tn.esprit.rh.achat.util.ExecuteurRapports;
 
+import java.util.Date;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 
 @RestController
@@ -16,6 +28,8 @@ public class FournisseurRestController {
 
 	@Autowired
 	IFournisseurService fournisseurService;
+	@Autowired
+	ExecuteurRapports executeurRapports;
 
 	// http://localhost:8089/SpringMVC/fournisseur/retrieve-all-fournisseurs
 	@GetMapping("/retrieve-all-fournisseurs")
@@ -25,6 +39,14 @@ public class FournisseurRestController {
 		return fournisseurs;
 	}
 
+	// Liste légère (sans détail) pour les écrans de sélection
+	// http://localhost:8089/SpringMVC/fournisseur/retrieve-all-fournisseurs-resume
+	@GetMapping("/retrieve-all-fournisseurs-resume")
+	@ResponseBody
+	public List<FournisseurResume> getResumesFournisseurs() {
+		return fournisseurService.retrieveResumesFournisseurs();
+	}
+
 	// http://localhost:8089/SpringMVC/fournisseur/retrieve-fournisseur/8
 	@GetMapping("/retrieve-fournisseur/{fournisseur-id}")
 	@ResponseBody
@@ -54,10 +76,86 @@ public class FournisseurRestController {
 		return fournisseurService.updateFournisseur(fournisseur);
 	}
 
+	// Seuls les champs présents (non nuls) sont modifiés
+	// http://localhost:8089/SpringMVC/fournisseur/modify-fournisseur
+	@PatchMapping("/modify-fournisseur")
+	@ResponseBody
+	public Fournisseur patchFournisseur(@RequestBody Fournisseur fournisseur) {
+		return fournisseurService.patchFournisseur(fournisseur);
+	}
+
+	/*
+	 * Import en masse par code : les fournisseurs existants sont modifiés
+	 * (champs non nuls), les autres créés, en une seule transaction
+	 */
+	// http://localhost:8089/SpringMVC/fournisseur/upsert-fournisseurs
+	@PutMapping("/upsert-fournisseurs")
+	@ResponseBody
+	public ResultatImportFournisseurs upsertFournisseurs(@RequestBody List<Fournisseur> fournisseurs) {
+		return fournisseurService.upsertFournisseurs(fournisseurs);
+	}
+
 	// http://localhost:8089/SpringMVC/fournisseur/assignSecteurActiviteToFournisseur/1/5
 		@PutMapping(value = "/assignSecteurActiviteToFournisseur/{idSecteurActivite}/{idFournisseur}")
 		public void assignProduitToStock(@PathVariable("idSecteurActivite") Long idSecteurActivite, @PathVariable("idFournisseur") Long idFournisseur) {
 			fournisseurService.assignSecteurActiviteToFournisseur(idSecteurActivite, idFournisseur);
 		}
 
+	/*
+	 * Liste de (idSecteurActivite, idFournisseur) appliquée en une transaction ;
+	 * les couples déjà présents sont ignorés. Retourne le nombre de couples créés.
+	 */
+	// http://localhost:8089/SpringMVC/fournisseur/assignSecteursActiviteToFournisseurs
+	@PutMapping(value = "/assignSecteursActiviteToFournisseurs")
+	@ResponseBody
+	public int assignSecteursActiviteToFournisseurs(@RequestBody List<AffectationSecteurFournisseur> affectations) {
+		return fournisseurService.assignSecteursActiviteToFournisseurs(affectations);
+	}
+
+	// Indicateurs servis depuis la mémoire (volume, remise, délai de règlement, annulations)
+	// http://localhost:8089/SpringMVC/fournisseur/8/scorecard
+	@GetMapping("/{fournisseur-id}/scorecard")
+	@ResponseBody
+	public BilanFournisseur getBilanFournisseur(@PathVariable("fournisseur-id") Long fournisseurId) {
+		return fournisseurService.getBilanFournisseur(fournisseurId);
+	}
+
+	/*
+	 * Fournisseurs rattachés à tous les secteurs "tous", à au moins un des
+	 * secteurs "auMoinsUn" et à aucun des secteurs "aucun" (index en mémoire)
+	 */
+	// http://localhost:8089/SpringMVC/fournisseur/recherche-par-secteurs?tous=1,2&aucun=3
+	@GetMapping("/recherche-par-secteurs")
+	@ResponseBody
+	public List<Long> rechercherParSecteurs(@RequestParam(name = "tous", defaultValue = "") List<Long> tous,
+			@RequestParam(name = "auMoinsUn", defaultValue = "") List<Long> auMoinsUn,
+			@RequestParam(name = "aucun", defaultValue = "") List<Long> aucun) {
+		return fournisseurService.rechercherParSecteurs(tous, auMoinsUn, aucun);
+	}
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<String> requeteInvalide(IllegalArgumentException e) {
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+	}
+
+	@ExceptionHandler(NoSuchElementException.class)
+	public ResponseEntity<String> introuvable(NoSuchElementException e) {
+		return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+	}
+
+	/*
+	 * Les n fournisseurs (50 par défaut, 500 au plus) au plus fort montant
+	 * facturé sur la période (factures non archivées)
+	 */
+	// http://localhost:8089/SpringMVC/fournisseur/top-fournisseurs/{startDate}/{endDate}?n=50
+	@GetMapping(value = "/top-fournisseurs/{startDate}/{endDate}")
+	@ResponseBody
+	public DeferredResult<List<LigneClassement>> getTopFournisseurs(
+			@PathVariable(name = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date startDate,
+			@PathVariable(name = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date endDate,
+			@RequestParam(name = "n", defaultValue = "50") int n) {
+		return executeurRapports.executer("topFournisseurs",
+				() -> fournisseurService.getTopFournisseurs(startDate, endDate, n));
+	}
+
 }
@@ -2,11 +2,25 @@ package tn.esprit.rh.achat.controllers;
 
 import io.swagger.annotations.Api;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import tn.esprit.rh.achat.entities.AffectationProduitStock;
+import tn.esprit.rh.achat.entities.LigneClassement;
+import tn.esprit.rh.achat.entities.MiseAJourPrix;
 import tn.esprit.rh.achat.entities.Produit;
+import tn.esprit.rh.achat.entities.ProduitVue;
 import tn.esprit.rh.achat.services.IProduitService;
+import tn.esprit.rh.achat.services.VersionsTables;
+import tn.esprit.rh.achat.util.ExecuteurRapports;
 
+import java.util.Date;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 
 @RestController
@@ -17,19 +31,31 @@ public class ProduitRestController {
 
 	@Autowired
 	IProduitService produitService;
+	@Autowired
+	VersionsTables versionsTables;
+	@Autowired
+	ExecuteurRapports executeurRapports;
 
+	/*
+	 * ETag fort dérivé de la version de la table : si le client a déjà la
+	 * dernière version (If-None-Match), réponse 304 sans lire le catalogue
+	 */
 	// http://localhost:8089/SpringMVC/produit/retrieve-all-produits
 	@GetMapping("/retrieve-all-produits")
 	@ResponseBody
-	public List<Produit> getProduits() {
-		List<Produit> list = produitService.retrieveAllProduits();
-		return list;
+	public ResponseEntity<List<ProduitVue>> getProduits(WebRequest request) {
+		String etag = versionsTables.etag(VersionsTables.PRODUIT);
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
+		List<ProduitVue> list = produitService.retrieveAllProduits();
+		return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(list);
 	}
 
 	// http://localhost:8089/SpringMVC/produit/retrieve-produit/8
 	@GetMapping("/retrieve-produit/{produit-id}")
 	@ResponseBody
-	public Produit retrieveRayon(@PathVariable("produit-id") Long produitId) {
+	public ProduitVue retrieveRayon(@PathVariable("produit-id") Long produitId) {
 		return produitService.retrieveProduit(produitId);
 	}
 
@@ -56,6 +82,39 @@ public class ProduitRestController {
 		return produitService.updateProduit(p);
 	}
 
+	/*
+	 * Mise à jour de tarif en masse : variations en pourcentage par catégorie
+	 * et/ou liste de (idProduit, prix). Retourne le nombre de mises à jour.
+	 */
+	// http://localhost:8089/SpringMVC/produit/modify-prix
+	@PutMapping("/modify-prix")
+	@ResponseBody
+	public int modifierPrix(@RequestBody MiseAJourPrix miseAJourPrix) {
+		return produitService.modifierPrix(miseAJourPrix);
+	}
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<String> requeteInvalide(IllegalArgumentException e) {
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+	}
+
+	@ExceptionHandler(NoSuchElementException.class)
+	public ResponseEntity<String> introuvable(NoSuchElementException e) {
+		return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+	}
+
+	/*
+	 * Recherche par préfixe puis approchée sur le code et le libellé, limitée
+	 * aux "limite" meilleurs résultats (100 au plus)
+	 */
+	// http://localhost:8089/SpringMVC/produit/search?q=vis&limite=10
+	@GetMapping("/search")
+	@ResponseBody
+	public List<ProduitVue> rechercherProduits(@RequestParam("q") String q,
+			@RequestParam(name = "limite", defaultValue = "10") int limite) {
+		return produitService.rechercherProduits(q, Math.min(limite, 100));
+	}
+
 	/*
 	 * Si le responsable magasin souhaite modifier le stock du produit il peut
 	 * le faire en l'affectant au stock en question
@@ -66,17 +125,46 @@ public class ProduitRestController {
 		produitService.assignProduitToStock(idProduit, idStock);
 	}
 
+	/*
+	 * Réorganisation d'entrepôt : liste de (idProduit, idStock) appliquée en
+	 * une transaction, idStock nul pour retirer un produit de son stock.
+	 * Retourne le nombre de produits modifiés.
+	 */
+	// http://localhost:8089/SpringMVC/produit/assignProduitsToStocks
+	@PutMapping(value = "/assignProduitsToStocks")
+	@ResponseBody
+	public int assignProduitsToStocks(@RequestBody List<AffectationProduitStock> affectations) {
+		return produitService.assignProduitsToStocks(affectations);
+	}
+
 	/*
 	 * Revenu Brut d'un produit (qte * prix unitaire de toutes les lignes du
-	 * detailFacture du produit envoyé en paramètre )
+	 * detailFacture du produit envoyé en paramètre ), lu dans l'agrégat
+	 * produit x jour
 	 */
 	// http://localhost:8089/SpringMVC/produit/getRevenuBrutProduit/1/{startDate}/{endDate}
-/*	@GetMapping(value = "/getRevenuBrutProduit/{idProduit}/{startDate}/{endDate}")
-	public float getRevenuBrutProduit(@PathVariable("idProduit") Long idProduit,
+	@GetMapping(value = "/getRevenuBrutProduit/{idProduit}/{startDate}/{endDate}")
+	@ResponseBody
+	public DeferredResult<Float> getRevenuBrutProduit(@PathVariable("idProduit") Long idProduit,
 			@PathVariable(name = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date startDate,
 			@PathVariable(name = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date endDate) {
 
-		return produitService.getRevenuBrutProduit(idProduit, startDate, endDate);
-	}*/
+		return executeurRapports.executer("revenuBrutProduit",
+				() -> produitService.getRevenuBrutProduit(idProduit, startDate, endDate));
+	}
+
+	/*
+	 * Les n produits (50 par défaut, 500 au plus) au plus fort revenu brut sur
+	 * la période
+	 */
+	// http://localhost:8089/SpringMVC/produit/top-produits/{startDate}/{endDate}?n=50
+	@GetMapping(value = "/top-produits/{startDate}/{endDate}")
+	@ResponseBody
+	public DeferredResult<List<LigneClassement>> getTopProduits(
+			@PathVariable(name = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date startDate,
+			@PathVariable(name = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date endDate,
+			@RequestParam(name = "n", defaultValue = "50") int n) {
+		return executeurRapports.executer("topProduits", () -> produitService.getTopProduits(startDate, endDate, n));
+	}
 
 }
@@ -4,8 +4,10 @@ import io.swagger.annotations.Api;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import tn.esprit.rh.achat.entities.Reglement;
 import tn.esprit.rh.achat.services.IReglementService;
+import tn.esprit.rh.achat.util.ExecuteurRapports;
 
 import java.util.Date;
 import java.util.List;
@@ -18,6 +20,8 @@ public class ReglementRestController {
 
     @Autowired
     IReglementService reglementService;
+    @Autowired
+    ExecuteurRapports executeurRapports;
 
 
     // http://localhost:8089/SpringMVC/reglement/add-reglement
@@ -50,13 +54,10 @@ public class ReglementRestController {
 
     // http://localhost:8089/SpringMVC/reglement/getChiffreAffaireEntreDeuxDate/{startDate}/{endDate}
     @GetMapping(value = "/getChiffreAffaireEntreDeuxDate/{startDate}/{endDate}")
-    public float getChiffreAffaireEntreDeuxDate(
+    public DeferredResult<Float> getChiffreAffaireEntreDeuxDate(
             @PathVariable(name = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date startDate,
             @PathVariable(name = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date endDate) {
-        try {
-            return reglementService.getChiffreAffaireEntreDeuxDate(startDate, endDate);
-        } catch (Exception e) {
-            return 0;
-        }
+        return executeurRapports.executer("chiffreAffaire",
+                () -> reglementService.getChiffreAffaireEntreDeuxDate(startDate, endDate));
     }
 }
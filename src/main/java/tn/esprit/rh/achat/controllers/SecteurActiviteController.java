@@ -2,9 +2,13 @@ package tn.esprit.rh.achat.controllers;
 
 import io.swagger.annotations.Api;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import tn.esprit.rh.achat.entities.SecteurActivite;
 import tn.esprit.rh.achat.services.ISecteurActiviteService;
+import tn.esprit.rh.achat.services.VersionsTables;
 
 import java.util.List;
 
@@ -16,13 +20,20 @@ public class SecteurActiviteController {
 
 	@Autowired
 	ISecteurActiviteService secteurActiviteService;
+	@Autowired
+	VersionsTables versionsTables;
 	
+	// Réponse 304 sans requête SQL si l'ETag du client correspond à la version de la table
 	// http://localhost:8089/SpringMVC/secteurActivite/retrieve-all-secteurActivite
 	@GetMapping("/retrieve-all-secteurActivite")
 	@ResponseBody
-	public List<SecteurActivite> getSecteurActivite() {
+	public ResponseEntity<List<SecteurActivite>> getSecteurActivite(WebRequest request) {
+		String etag = versionsTables.etag(VersionsTables.SECTEUR_ACTIVITE);
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
 		List<SecteurActivite> list = secteurActiviteService.retrieveAllSecteurActivite();
-		return list;
+		return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(list);
 	}
 
 	// http://localhost:8089/SpringMVC/secteurActivite/retrieve-secteurActivite/8
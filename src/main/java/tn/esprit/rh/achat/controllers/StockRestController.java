@@ -3,10 +3,16 @@ package tn.esprit.rh.achat.controllers;
 
 import io.swagger.annotations.Api;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tn.esprit.rh.achat.entities.HistoriqueStockAgrege;
 import tn.esprit.rh.achat.entities.Stock;
+import tn.esprit.rh.achat.services.FluxStocks;
 import tn.esprit.rh.achat.services.IStockService;
 
+import java.util.Date;
 import java.util.List;
 
 @RestController
@@ -17,6 +23,8 @@ public class StockRestController {
 
 	@Autowired
 	IStockService stockService;
+	@Autowired
+	FluxStocks fluxStocks;
 
 	// http://localhost:8089/SpringMVC/stock/retrieve-all-stocks
 	@GetMapping("/retrieve-all-stocks")
@@ -55,6 +63,29 @@ public class StockRestController {
 		return stockService.updateStock(stock);
 	}
 
+	/*
+	 * Flux SSE des stocks modifiés (événements "stock"), à la place d'un
+	 * rechargement périodique de retrieve-all-stocks
+	 */
+	// http://localhost:8089/SpringMVC/stock/flux-stocks
+	@GetMapping(value = "/flux-stocks", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter fluxStocks() {
+		return fluxStocks.abonner();
+	}
+
+	/*
+	 * Historique des quantités d'un stock : mesures brutes pour les derniers
+	 * jours, agrégats horaires puis journaliers (min / max / dernière) au-delà
+	 */
+	// http://localhost:8089/SpringMVC/stock/historique/1/{startDate}/{endDate}
+	@GetMapping("/historique/{stock-id}/{startDate}/{endDate}")
+	@ResponseBody
+	public List<HistoriqueStockAgrege> retrieveHistoriqueStock(@PathVariable("stock-id") Long stockId,
+			@PathVariable(name = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date startDate,
+			@PathVariable(name = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date endDate) {
+		return stockService.retrieveHistoriqueStock(stockId, startDate, endDate);
+	}
+
 	/*
 	 * Spring Scheduler : Comparer QteMin tolérée (à ne pa dépasser) avec
 	 * Quantité du stock et afficher sur console la liste des produits inférieur
@@ -0,0 +1,20 @@
+package tn.esprit.rh.achat.entities;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Affectation d'un produit à un stock (idStock nul : retirer le produit de son stock)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AffectationProduitStock implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long idProduit;
+	private Long idStock;
+
+}
@@ -0,0 +1,20 @@
+package tn.esprit.rh.achat.entities;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Rattachement d'un fournisseur à un secteur d'activité
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AffectationSecteurFournisseur implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long idSecteurActivite;
+	private Long idFournisseur;
+
+}
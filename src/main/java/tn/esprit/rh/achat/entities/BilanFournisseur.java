@@ -0,0 +1,25 @@
+package tn.esprit.rh.achat.entities;
+
+import java.io.Serializable;
+import lombok.Value;
+
+/*
+ * Indicateurs d'un fournisseur : volume facturé, remise moyenne, délai de
+ * règlement et taux d'annulation. Montants et remises portent sur les
+ * factures actives ; les délais (en jours) sur tous les règlements.
+ */
+@Value
+public class BilanFournisseur implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	Long idFournisseur;
+	int nbFactures;
+	int nbFacturesAnnulees;
+	double montantFactures;
+	double montantRemises;
+	double tauxRemise;
+	int nbReglements;
+	double delaiReglementMoyen;
+	double tauxAnnulation;
+
+}
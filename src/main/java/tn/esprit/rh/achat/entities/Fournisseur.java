@@ -13,13 +13,16 @@ import javax.persistence.Id;
 import javax.persistence.ManyToMany;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.SequenceGenerator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
 @Getter
 @Setter
 @AllArgsConstructor
@@ -29,7 +32,8 @@ public class Fournisseur implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fournisseur_seq")
+	@SequenceGenerator(name = "fournisseur_seq", sequenceName = "fournisseur_seq", allocationSize = 50)
 	private Long idFournisseur;
 	private String code;
 	private String libelle;
@@ -41,7 +45,8 @@ public class Fournisseur implements Serializable {
     @ManyToMany
     @JsonIgnore
     private Set<SecteurActivite> secteurActivites;
-    @OneToOne(cascade= CascadeType.ALL,fetch=FetchType.EAGER)
+    // Chargé à la demande : voir les EntityGraph de FournisseurRepository
+    @OneToOne(cascade= CascadeType.ALL,fetch=FetchType.LAZY)
     private DetailFournisseur detailFournisseur;
     
 
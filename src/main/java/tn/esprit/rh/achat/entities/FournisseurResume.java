@@ -0,0 +1,19 @@
+package tn.esprit.rh.achat.entities;
+
+import java.io.Serializable;
+import lombok.Value;
+
+/*
+ * Colonnes propres d'un fournisseur, chargées par projection pour les
+ * listes (ni détail, ni factures, ni secteurs)
+ */
+@Value
+public class FournisseurResume implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	Long idFournisseur;
+	String code;
+	String libelle;
+	CategorieFournisseur categorieFournisseur;
+
+}
@@ -0,0 +1,5 @@
+package tn.esprit.rh.achat.entities;
+
+public enum GranulariteHistorique {
+BRUT,HEURE,JOUR
+}
@@ -0,0 +1,51 @@
+package tn.esprit.rh.achat.entities;
+
+import java.io.Serializable;
+import java.util.Date;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * Mesure brute (append-only) de la quantité d'un stock. Pas de clé étrangère
+ * vers Stock : l'historique survit à la suppression du stock.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_historique_stock", columnList = "id_stock,date_mesure"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class HistoriqueStock implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "historique_stock_seq")
+	@SequenceGenerator(name = "historique_stock_seq", sequenceName = "historique_stock_seq", allocationSize = 50)
+	private Long idHistoriqueStock;
+	@Column(name = "id_stock")
+	private Long idStock;
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name = "date_mesure")
+	private Date dateMesure;
+	private Integer qte;
+
+	public HistoriqueStock(Long idStock, Date dateMesure, Integer qte) {
+		super();
+		this.idStock = idStock;
+		this.dateMesure = dateMesure;
+		this.qte = qte;
+	}
+
+}
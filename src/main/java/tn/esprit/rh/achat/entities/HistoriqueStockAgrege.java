@@ -0,0 +1,68 @@
+package tn.esprit.rh.achat.entities;
+
+import java.io.Serializable;
+import java.util.Date;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * Point compacté (min / max / dernière valeur) de l'historique d'un stock sur
+ * une heure ou une journée. Les points BRUT ne sont jamais persistés ici : ils
+ * ne servent qu'à présenter les mesures brutes sous la même forme.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_historique_stock_agrege", columnList = "id_stock,granularite,debut_periode"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class HistoriqueStockAgrege implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "historique_stock_agrege_seq")
+	@SequenceGenerator(name = "historique_stock_agrege_seq", sequenceName = "historique_stock_agrege_seq", allocationSize = 50)
+	private Long idHistoriqueStockAgrege;
+	@Column(name = "id_stock")
+	private Long idStock;
+	@Enumerated(EnumType.STRING)
+	private GranulariteHistorique granularite;
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name = "debut_periode")
+	private Date debutPeriode;
+	private Integer qteMin;
+	private Integer qteMax;
+	private Integer qteDerniere;
+
+	public HistoriqueStockAgrege(Long idStock, GranulariteHistorique granularite, Date debutPeriode, Integer qte) {
+		super();
+		this.idStock = idStock;
+		this.granularite = granularite;
+		this.debutPeriode = debutPeriode;
+		this.qteMin = qte;
+		this.qteMax = qte;
+		this.qteDerniere = qte;
+	}
+
+	// Intégrer une valeur plus récente de la même période
+	public void ajouter(Integer min, Integer max, Integer derniere) {
+		qteMin = Math.min(qteMin, min);
+		qteMax = Math.max(qteMax, max);
+		qteDerniere = derniere;
+	}
+
+}
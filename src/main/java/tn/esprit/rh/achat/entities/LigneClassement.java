@@ -0,0 +1,20 @@
+package tn.esprit.rh.achat.entities;
+
+import java.io.Serializable;
+import lombok.Value;
+
+/*
+ * Ligne d'un classement par revenu (produit ou fournisseur). code et libelle
+ * sont nuls si l'élément a été supprimé depuis la facturation.
+ */
+@Value
+public class LigneClassement implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	int rang;
+	Long id;
+	String code;
+	String libelle;
+	double revenu;
+
+}
@@ -0,0 +1,25 @@
+package tn.esprit.rh.achat.entities;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * Mise à jour de tarif en masse : variations par catégorie puis prix
+ * explicites (un prix explicite l'emporte sur la variation de sa catégorie)
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class MiseAJourPrix implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private List<VariationPrixCategorie> categories = new ArrayList<>();
+	private List<PrixProduit> prix = new ArrayList<>();
+
+}
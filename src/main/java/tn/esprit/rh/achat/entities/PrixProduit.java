@@ -0,0 +1,20 @@
+package tn.esprit.rh.achat.entities;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Nouveau prix d'un produit dans une mise à jour de tarif
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PrixProduit implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long idProduit;
+	private float prix;
+
+}
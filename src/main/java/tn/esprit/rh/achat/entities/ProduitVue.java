@@ -0,0 +1,29 @@
+package tn.esprit.rh.achat.entities;
+
+import java.io.Serializable;
+import java.util.Date;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Value;
+
+/*
+ * Vue immuable d'un produit (colonnes de Produit et identifiants de ses
+ * associations), chargée par projection sans instancier d'entité. Les
+ * instances sont partagées par le cache du catalogue : lecture seule. Le JSON
+ * est celui de Produit : les identifiants d'associations n'y figurent pas.
+ */
+@Value
+public class ProduitVue implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	Long idProduit;
+	String codeProduit;
+	String libelleProduit;
+	float prix;
+	Date dateCreation;
+	Date dateDerniereModification;
+	@JsonIgnore
+	Long idStock;
+	@JsonIgnore
+	Long idCategorieProduit;
+
+}
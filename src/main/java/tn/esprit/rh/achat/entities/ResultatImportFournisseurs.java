@@ -0,0 +1,18 @@
+package tn.esprit.rh.achat.entities;
+
+import java.io.Serializable;
+import lombok.Value;
+
+/*
+ * Bilan d'un import de fournisseurs par code : lignes créées, modifiées et
+ * laissées telles quelles (aucune écriture)
+ */
+@Value
+public class ResultatImportFournisseurs implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	int crees;
+	int modifies;
+	int inchanges;
+
+}
@@ -0,0 +1,51 @@
+package tn.esprit.rh.achat.entities;
+
+import java.io.Serializable;
+import java.util.Date;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * Revenu brut (qte * prix unitaire, avant remise) et quantité vendue d'un
+ * produit pour une journée de facturation. Tenu à jour à la création et à
+ * l'annulation des factures.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_revenu_produit_jour", columnNames = { "id_produit", "jour" }))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevenuProduitJour implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long idRevenuProduitJour;
+	@Column(name = "id_produit")
+	private Long idProduit;
+	@Temporal(TemporalType.DATE)
+	private Date jour;
+	private double revenuBrut;
+	private long qteVendue;
+
+	public RevenuProduitJour(Long idProduit, Date jour, double revenuBrut, long qteVendue) {
+		super();
+		this.idProduit = idProduit;
+		this.jour = jour;
+		this.revenuBrut = revenuBrut;
+		this.qteVendue = qteVendue;
+	}
+
+}
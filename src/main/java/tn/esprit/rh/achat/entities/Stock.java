@@ -2,11 +2,16 @@ package tn.esprit.rh.achat.entities;
 
 import java.io.Serializable;
 import java.util.Set;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.Table;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -14,6 +19,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@Table(indexes = @Index(name = "idx_stock_en_rouge", columnList = "en_rouge"))
 @Getter
 @Setter
 @AllArgsConstructor
@@ -27,6 +33,12 @@ public class Stock implements Serializable {
 	private String libelleStock;
 	private Integer qte;
 	private Integer qteMin;
+	/*
+	 * qte < qteMin, maintenu à chaque écriture : la comparaison de deux colonnes
+	 * n'est pas indexable, ce booléen l'est (voir StockRepository.retrieveStatusStock)
+	 */
+	@Column(name = "en_rouge")
+	private Boolean enRouge;
 	@OneToMany(mappedBy = "stock")
 	@JsonIgnore
 	private Set<Produit> produits;
@@ -37,4 +49,10 @@ public class Stock implements Serializable {
 		this.qteMin = qteMin;
 	}
 
+	@PrePersist
+	@PreUpdate
+	void calculerEnRouge() {
+		enRouge = qte != null && qteMin != null && qte < qteMin;
+	}
+
 }
@@ -0,0 +1,20 @@
+package tn.esprit.rh.achat.entities;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Variation en pourcentage (5 = +5 %, -10 = -10 %) du prix des produits d'une catégorie
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class VariationPrixCategorie implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long idCategorieProduit;
+	private double pourcentage;
+
+}
@@ -1,10 +1,19 @@
 package tn.esprit.rh.achat.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import tn.esprit.rh.achat.entities.CategorieProduit;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+
 @Repository
 public interface CategorieProduitRepository extends JpaRepository<CategorieProduit, Long>{
 
+	// Table de référence : résultat en cache de requêtes, entités en cache de second niveau
+	@Override
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+	List<CategorieProduit> findAll();
+
 }
@@ -12,14 +12,15 @@ import java.util.Date;
 import java.util.List;
 
 @Repository
-public interface FactureRepository extends JpaRepository<Facture, Long> {
+public interface FactureRepository extends JpaRepository<Facture, Long>, FactureRepositoryCustom {
 
 	
 	@Query("SELECT f FROM Facture f where f.fournisseur=:fournisseur and f.archivee=false")
 	public List<Facture> getFactureByFournisseur(@Param("fournisseur") Fournisseur fournisseur);
 
 	
-	@Query("SELECT sum(f.montantFacture) FROM Facture f where  f.dateCreationFacture between :startDate"
+	// 0 sur une période sans facture (sum rend null)
+	@Query("SELECT coalesce(sum(f.montantFacture), 0) FROM Facture f where  f.dateCreationFacture between :startDate"
 			+ " and :endDate and f.archivee=false")
 	float getTotalFacturesEntreDeuxDates(@Param("startDate") Date startDate, @Param("endDate") Date endDate);
 
@@ -0,0 +1,19 @@
+package tn.esprit.rh.achat.repositories;
+
+import java.util.Date;
+
+public interface FactureRepositoryCustom {
+
+	/*
+	 * Parcourir le montant facturé par fournisseur (factures non archivées de
+	 * la période) sans matérialiser le résultat
+	 */
+	void parcourirRevenusFournisseurs(Date startDate, Date endDate, RecepteurRevenu recepteur);
+
+	/*
+	 * Parcourir en une passe toutes les factures rattachées à un fournisseur,
+	 * jointes à leurs règlements et triées par facture
+	 */
+	void parcourirFacturesReglements(RecepteurFactureReglement recepteur);
+
+}
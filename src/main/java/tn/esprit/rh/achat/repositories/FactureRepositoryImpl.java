@@ -0,0 +1,38 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Date;
+
+public class FactureRepositoryImpl implements FactureRepositoryCustom {
+
+	private static final String REVENUS_FOURNISSEURS = "SELECT fournisseur_id_fournisseur, SUM(montant_facture)"
+			+ " FROM facture WHERE date_creation_facture BETWEEN ? AND ?"
+			+ " AND (archivee IS NULL OR archivee = FALSE) AND fournisseur_id_fournisseur IS NOT NULL"
+			+ " GROUP BY fournisseur_id_fournisseur";
+
+	private static final String FACTURES_REGLEMENTS = "SELECT f.fournisseur_id_fournisseur, f.id_facture, f.archivee,"
+			+ " f.montant_facture, f.montant_remise, f.date_creation_facture, r.date_reglement"
+			+ " FROM facture f LEFT JOIN reglement r ON r.facture_id_facture = f.id_facture"
+			+ " WHERE f.fournisseur_id_fournisseur IS NOT NULL ORDER BY f.id_facture";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Override
+	public void parcourirRevenusFournisseurs(Date startDate, Date endDate, RecepteurRevenu recepteur) {
+		RequetesJdbc.parcourir(jdbcTemplate, REVENUS_FOURNISSEURS, rs -> {
+			recepteur.accepter(rs.getLong(1), rs.getDouble(2));
+		}, new java.sql.Date(startDate.getTime()), new java.sql.Date(endDate.getTime()));
+	}
+
+	@Override
+	public void parcourirFacturesReglements(RecepteurFactureReglement recepteur) {
+		RequetesJdbc.parcourir(jdbcTemplate, FACTURES_REGLEMENTS, rs -> {
+			recepteur.accepter(rs.getLong(1), rs.getLong(2), rs.getBoolean(3), rs.getDouble(4), rs.getDouble(5),
+					rs.getDate(6), rs.getDate(7));
+		});
+	}
+
+}
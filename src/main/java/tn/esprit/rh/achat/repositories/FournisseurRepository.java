@@ -1,10 +1,41 @@
 package tn.esprit.rh.achat.repositories;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tn.esprit.rh.achat.entities.Fournisseur;
+import tn.esprit.rh.achat.entities.FournisseurResume;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface FournisseurRepository extends JpaRepository<Fournisseur, Long> {
+public interface FournisseurRepository extends JpaRepository<Fournisseur, Long>, FournisseurRepositoryCustom {
+
+	// Détail chargé par jointure : une seule requête pour toute la liste
+	@Override
+	@EntityGraph(attributePaths = "detailFournisseur")
+	List<Fournisseur> findAll();
+
+	@EntityGraph(attributePaths = "detailFournisseur")
+	@Query("SELECT f FROM Fournisseur f where f.idFournisseur = :id")
+	Optional<Fournisseur> retrieveFournisseurAvecDetail(@Param("id") Long id);
+
+	@EntityGraph(attributePaths = "detailFournisseur")
+	List<Fournisseur> findByCodeIn(Collection<String> codes);
+
+	@Query("SELECT new tn.esprit.rh.achat.entities.FournisseurResume(f.idFournisseur, f.code, f.libelle,"
+			+ " f.categorieFournisseur) FROM Fournisseur f")
+	List<FournisseurResume> retrieveResumes();
+
+	@Query("SELECT f.idFournisseur FROM Fournisseur f")
+	List<Long> retrieveIdsFournisseurs();
+
+	// Couples (idSecteurActivite, idFournisseur) de la table de jointure
+	@Query("SELECT s.idSecteurActivite, f.idFournisseur FROM Fournisseur f JOIN f.secteurActivites s")
+	List<Object[]> retrieveSecteursFournisseurs();
 
 }
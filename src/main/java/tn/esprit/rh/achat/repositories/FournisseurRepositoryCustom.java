@@ -0,0 +1,17 @@
+package tn.esprit.rh.achat.repositories;
+
+import tn.esprit.rh.achat.entities.AffectationSecteurFournisseur;
+
+import java.util.List;
+
+public interface FournisseurRepositoryCustom {
+
+	/*
+	 * Rattacher les fournisseurs à leurs secteurs sans charger d'entité : les
+	 * couples absents de la table de jointure sont insérés en un lot JDBC. Les
+	 * identifiants inconnus sont vérifiés avant toute écriture
+	 * (NoSuchElementException). Retourne le nombre de couples créés.
+	 */
+	int affecterSecteurs(List<AffectationSecteurFournisseur> affectations);
+
+}
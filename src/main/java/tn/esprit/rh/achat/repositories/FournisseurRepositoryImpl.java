@@ -0,0 +1,61 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import tn.esprit.rh.achat.entities.AffectationSecteurFournisseur;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class FournisseurRepositoryImpl implements FournisseurRepositoryCustom {
+
+	private static final String COUPLES_EXISTANTS = "SELECT fournisseurs_id_fournisseur, secteur_activites_id_secteur_activite"
+			+ " FROM fournisseur_secteur_activites WHERE fournisseurs_id_fournisseur IN (:ids)";
+
+	private static final String CREER_COUPLE = "INSERT INTO fournisseur_secteur_activites"
+			+ " (fournisseurs_id_fournisseur, secteur_activites_id_secteur_activite) VALUES (?, ?)";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+	@Autowired
+	NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	@Override
+	public int affecterSecteurs(List<AffectationSecteurFournisseur> affectations) {
+		// Couples (fournisseur, secteur) triés et dédoublonnés
+		Set<List<Long>> couples = new TreeSet<>((a, b) -> a.get(0).equals(b.get(0))
+				? a.get(1).compareTo(b.get(1)) : a.get(0).compareTo(b.get(0)));
+		Set<Long> idsFournisseurs = new TreeSet<>();
+		Set<Long> idsSecteurs = new TreeSet<>();
+		for (AffectationSecteurFournisseur affectation : affectations) {
+			if (affectation.getIdFournisseur() == null || affectation.getIdSecteurActivite() == null) {
+				throw new IllegalArgumentException("Affectation incomplète : fournisseur "
+						+ affectation.getIdFournisseur() + ", secteur " + affectation.getIdSecteurActivite());
+			}
+			couples.add(Arrays.asList(affectation.getIdFournisseur(), affectation.getIdSecteurActivite()));
+			idsFournisseurs.add(affectation.getIdFournisseur());
+			idsSecteurs.add(affectation.getIdSecteurActivite());
+		}
+		RequetesJdbc.verifierExistants(namedParameterJdbcTemplate, "fournisseur", "id_fournisseur", idsFournisseurs);
+		RequetesJdbc.verifierExistants(namedParameterJdbcTemplate, "secteur_activite", "id_secteur_activite",
+				idsSecteurs);
+		for (List<Long> lot : RequetesJdbc.lots(new ArrayList<>(idsFournisseurs))) {
+			namedParameterJdbcTemplate.query(COUPLES_EXISTANTS, Collections.singletonMap("ids", lot),
+					rs -> {
+						couples.remove(Arrays.asList(rs.getLong(1), rs.getLong(2)));
+					});
+		}
+		List<List<Long>> nouveaux = new ArrayList<>(couples);
+		jdbcTemplate.batchUpdate(CREER_COUPLE, nouveaux, RequetesJdbc.TAILLE_LOT, (ps, couple) -> {
+			ps.setLong(1, couple.get(0));
+			ps.setLong(2, couple.get(1));
+		});
+		return nouveaux.size();
+	}
+
+}
@@ -0,0 +1,36 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tn.esprit.rh.achat.entities.GranulariteHistorique;
+import tn.esprit.rh.achat.entities.HistoriqueStockAgrege;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface HistoriqueStockAgregeRepository extends JpaRepository<HistoriqueStockAgrege, Long> {
+
+	@Query("SELECT h FROM HistoriqueStockAgrege h where h.idStock=:idStock and h.debutPeriode >= :debut"
+			+ " and h.debutPeriode < :fin order by h.debutPeriode")
+	List<HistoriqueStockAgrege> retrieveHistorique(@Param("idStock") Long idStock, @Param("debut") Date debut,
+			@Param("fin") Date fin);
+
+	// Page suivante des agrégats antérieurs à la limite, après la clé (idStock, debutPeriode, id) donnée
+	@Query("SELECT h FROM HistoriqueStockAgrege h where h.granularite=:granularite and h.debutPeriode < :limite"
+			+ " and (h.idStock > :idStock or (h.idStock = :idStock and (h.debutPeriode > :debutPeriode"
+			+ " or (h.debutPeriode = :debutPeriode and h.idHistoriqueStockAgrege > :id))))"
+			+ " order by h.idStock, h.debutPeriode, h.idHistoriqueStockAgrege")
+	List<HistoriqueStockAgrege> pageAvant(@Param("granularite") GranulariteHistorique granularite,
+			@Param("limite") Date limite, @Param("idStock") Long idStock, @Param("debutPeriode") Date debutPeriode,
+			@Param("id") Long id, Pageable page);
+
+	@Modifying
+	@Query("delete from HistoriqueStockAgrege h where h.granularite=:granularite and h.debutPeriode < :limite")
+	int supprimerAvant(@Param("granularite") GranulariteHistorique granularite, @Param("limite") Date limite);
+
+}
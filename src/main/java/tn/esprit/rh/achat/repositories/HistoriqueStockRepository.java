@@ -0,0 +1,34 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tn.esprit.rh.achat.entities.HistoriqueStock;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface HistoriqueStockRepository extends JpaRepository<HistoriqueStock, Long> {
+
+	@Query("SELECT h FROM HistoriqueStock h where h.idStock=:idStock and h.dateMesure >= :debut and h.dateMesure < :fin"
+			+ " order by h.dateMesure")
+	List<HistoriqueStock> retrieveHistorique(@Param("idStock") Long idStock, @Param("debut") Date debut,
+			@Param("fin") Date fin);
+
+	// Page suivante des mesures antérieures à la limite, après la clé (idStock, dateMesure, id) donnée
+	@Query("SELECT h FROM HistoriqueStock h where h.dateMesure < :limite and (h.idStock > :idStock"
+			+ " or (h.idStock = :idStock and (h.dateMesure > :dateMesure"
+			+ " or (h.dateMesure = :dateMesure and h.idHistoriqueStock > :id))))"
+			+ " order by h.idStock, h.dateMesure, h.idHistoriqueStock")
+	List<HistoriqueStock> pageAvant(@Param("limite") Date limite, @Param("idStock") Long idStock,
+			@Param("dateMesure") Date dateMesure, @Param("id") Long id, Pageable page);
+
+	@Modifying
+	@Query("delete from HistoriqueStock h where h.dateMesure < :limite")
+	int supprimerAvant(@Param("limite") Date limite);
+
+}
@@ -1,10 +1,18 @@
 package tn.esprit.rh.achat.repositories;
 
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 import tn.esprit.rh.achat.entities.Operateur;
 
+import javax.persistence.QueryHint;
+
 @Repository
 public interface OperateurRepository extends CrudRepository<Operateur, Long> {
 
+	// Table de référence : résultat en cache de requêtes, entités en cache de second niveau
+	@Override
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+	Iterable<Operateur> findAll();
+
 }
@@ -1,25 +1,28 @@
 package tn.esprit.rh.achat.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tn.esprit.rh.achat.entities.Produit;
+import tn.esprit.rh.achat.entities.ProduitVue;
+
+import java.util.Collection;
+import java.util.List;
 
 @Repository
-public interface ProduitRepository extends JpaRepository<Produit, Long> {
+public interface ProduitRepository extends JpaRepository<Produit, Long>, ProduitRepositoryCustom {
+
+	@Query("SELECT p FROM Produit p LEFT JOIN FETCH p.stock LEFT JOIN FETCH p.categorieProduit where p.idProduit in :ids")
+	List<Produit> retrieveProduitsAvecStock(@Param("ids") Collection<Long> ids);
+
+	@Query("SELECT new tn.esprit.rh.achat.entities.ProduitVue(p.idProduit, p.codeProduit, p.libelleProduit, p.prix,"
+			+ " p.dateCreation, p.dateDerniereModification, s.idStock, c.idCategorieProduit)"
+			+ " FROM Produit p LEFT JOIN p.stock s LEFT JOIN p.categorieProduit c")
+	List<ProduitVue> retrieveCatalogue();
 
-	
-	
-	
-	
-	
-	
-	
-	
-	
-	
-	
-	/*@Query("SELECT sum(df.prixTotal) FROM DetailFacture df where df.produit=:produit and df.facture.dateFacture between :startDate"
-			+ " and :endDate and df.facture.active=true")
-	public float getRevenuBrutProduit(@Param("produit") Produit produit, @Param("startDate") Date startDate,
-			@Param("endDate") Date endDate);*/
+	@Query("SELECT new tn.esprit.rh.achat.entities.ProduitVue(p.idProduit, p.codeProduit, p.libelleProduit, p.prix,"
+			+ " p.dateCreation, p.dateDerniereModification, s.idStock, c.idCategorieProduit)"
+			+ " FROM Produit p LEFT JOIN p.stock s LEFT JOIN p.categorieProduit c where p.idProduit in :ids")
+	List<ProduitVue> retrieveCatalogue(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,28 @@
+package tn.esprit.rh.achat.repositories;
+
+import tn.esprit.rh.achat.entities.AffectationProduitStock;
+import tn.esprit.rh.achat.entities.PrixProduit;
+import tn.esprit.rh.achat.entities.VariationPrixCategorie;
+
+import java.util.Date;
+import java.util.List;
+
+public interface ProduitRepositoryCustom {
+
+	/*
+	 * Appliquer les prix en lots JDBC (prix et date_derniere_modification
+	 * seulement) ; retourne les identifiants des produits introuvables
+	 */
+	List<Long> modifierPrix(List<PrixProduit> prix, Date dateModification);
+
+	// Appliquer les variations par catégorie en un lot ; retourne le nombre de produits modifiés
+	int appliquerVariations(List<VariationPrixCategorie> variations, Date dateModification);
+
+	/*
+	 * Affecter les produits à leurs stocks sans charger d'entité : une requête
+	 * UPDATE ... WHERE id_produit IN (...) par stock cible. Les identifiants
+	 * inconnus sont vérifiés avant toute écriture (NoSuchElementException).
+	 */
+	int affecterStocks(List<AffectationProduitStock> affectations);
+
+}
@@ -0,0 +1,108 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import tn.esprit.rh.achat.entities.AffectationProduitStock;
+import tn.esprit.rh.achat.entities.PrixProduit;
+import tn.esprit.rh.achat.entities.VariationPrixCategorie;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+public class ProduitRepositoryImpl implements ProduitRepositoryCustom {
+
+	private static final String MODIFIER_PRIX = "UPDATE produit SET prix = ?, date_derniere_modification = ?"
+			+ " WHERE id_produit = ?";
+
+	private static final String APPLIQUER_VARIATION = "UPDATE produit SET prix = prix * ?, date_derniere_modification = ?"
+			+ " WHERE categorie_produit_id_categorie_produit = ?";
+
+	private static final String AFFECTER_STOCK = "UPDATE produit SET stock_id_stock = :idStock WHERE id_produit IN (:ids)";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+	@Autowired
+	NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	@Override
+	public List<Long> modifierPrix(List<PrixProduit> prix, java.util.Date dateModification) {
+		// Trier par id pour verrouiller les lignes toujours dans le même ordre
+		List<PrixProduit> lignes = new ArrayList<>(prix);
+		lignes.sort(Comparator.comparing(PrixProduit::getIdProduit));
+		Date date = new Date(dateModification.getTime());
+		int[][] resultats = jdbcTemplate.batchUpdate(MODIFIER_PRIX, lignes, RequetesJdbc.TAILLE_LOT,
+				(ps, ligne) -> {
+					ps.setFloat(1, ligne.getPrix());
+					ps.setDate(2, date);
+					ps.setLong(3, ligne.getIdProduit());
+				});
+		List<Long> introuvables = new ArrayList<>();
+		int i = 0;
+		for (int[] lot : resultats) {
+			for (int resultat : RequetesJdbc.comptes(lot)) {
+				if (resultat == 0) {
+					introuvables.add(lignes.get(i).getIdProduit());
+				}
+				i++;
+			}
+		}
+		return introuvables;
+	}
+
+	@Override
+	public int appliquerVariations(List<VariationPrixCategorie> variations, java.util.Date dateModification) {
+		Date date = new Date(dateModification.getTime());
+		int[][] resultats = jdbcTemplate.batchUpdate(APPLIQUER_VARIATION, variations, RequetesJdbc.TAILLE_LOT,
+				(ps, variation) -> {
+					ps.setDouble(1, 1 + variation.getPourcentage() / 100);
+					ps.setDate(2, date);
+					ps.setLong(3, variation.getIdCategorieProduit());
+				});
+		int modifies = 0;
+		for (int[] lot : resultats) {
+			for (int resultat : RequetesJdbc.comptes(lot)) {
+				modifies += resultat;
+			}
+		}
+		return modifies;
+	}
+
+	@Override
+	public int affecterStocks(List<AffectationProduitStock> affectations) {
+		// La dernière affectation d'un produit l'emporte ; TreeMap : verrous posés dans le même ordre
+		Map<Long, Long> stockParProduit = new TreeMap<>();
+		for (AffectationProduitStock affectation : affectations) {
+			stockParProduit.put(affectation.getIdProduit(), affectation.getIdStock());
+		}
+		Set<Long> idsStocks = new TreeSet<>();
+		for (Long idStock : stockParProduit.values()) {
+			if (idStock != null) {
+				idsStocks.add(idStock);
+			}
+		}
+		RequetesJdbc.verifierExistants(namedParameterJdbcTemplate, "produit", "id_produit", stockParProduit.keySet());
+		RequetesJdbc.verifierExistants(namedParameterJdbcTemplate, "stock", "id_stock", idsStocks);
+		Map<Long, List<Long>> produitsParStock = new LinkedHashMap<>();
+		for (Map.Entry<Long, Long> e : stockParProduit.entrySet()) {
+			produitsParStock.computeIfAbsent(e.getValue(), s -> new ArrayList<>()).add(e.getKey());
+		}
+		int modifies = 0;
+		for (Map.Entry<Long, List<Long>> e : produitsParStock.entrySet()) {
+			for (List<Long> lot : RequetesJdbc.lots(e.getValue())) {
+				MapSqlParameterSource parametres = new MapSqlParameterSource("idStock", e.getKey()).addValue("ids", lot);
+				modifies += namedParameterJdbcTemplate.update(AFFECTER_STOCK, parametres);
+			}
+		}
+		return modifies;
+	}
+
+}
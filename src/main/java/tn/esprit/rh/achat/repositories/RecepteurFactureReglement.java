@@ -0,0 +1,16 @@
+package tn.esprit.rh.achat.repositories;
+
+import java.util.Date;
+
+/*
+ * Reçoit une ligne facture x règlement (dateReglement nulle si la facture
+ * n'a aucun règlement) ; une facture réglée plusieurs fois revient sur des
+ * lignes consécutives
+ */
+@FunctionalInterface
+public interface RecepteurFactureReglement {
+
+	void accepter(long idFournisseur, long idFacture, boolean archivee, double montantFacture,
+			double montantRemise, Date dateFacture, Date dateReglement);
+
+}
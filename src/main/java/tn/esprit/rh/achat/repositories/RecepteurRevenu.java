@@ -0,0 +1,11 @@
+package tn.esprit.rh.achat.repositories;
+
+/*
+ * Reçoit, ligne par ligne et sans boxing, les revenus agrégés lus en JDBC
+ */
+@FunctionalInterface
+public interface RecepteurRevenu {
+
+	void accepter(long id, double revenu);
+
+}
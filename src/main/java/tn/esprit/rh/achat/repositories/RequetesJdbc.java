@@ -0,0 +1,86 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Outils communs aux fragments JDBC des repositories
+final class RequetesJdbc {
+
+	// Taille maximale d'une liste IN (...) ou d'un lot JDBC
+	static final int TAILLE_LOT = 500;
+
+	private RequetesJdbc() {
+	}
+
+	/*
+	 * Parcourir un résultat sans le charger en entier : Connector/J met tout le
+	 * ResultSet en mémoire sauf avec fetchSize Integer.MIN_VALUE (lecture ligne
+	 * à ligne, aucune autre requête sur la connexion avant la fin du parcours).
+	 * Les autres bases (H2) refusent une taille négative : blocs de TAILLE_LOT.
+	 */
+	static void parcourir(JdbcTemplate jdbc, String sql, RowCallbackHandler ligne, Object... parametres) {
+		jdbc.query(connexion -> {
+			PreparedStatement ps = connexion.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(mysql(connexion) ? Integer.MIN_VALUE : TAILLE_LOT);
+			new ArgumentPreparedStatementSetter(parametres).setValues(ps);
+			return ps;
+		}, ligne);
+	}
+
+	private static boolean mysql(Connection connexion) throws SQLException {
+		return "MySQL".equalsIgnoreCase(connexion.getMetaData().getDatabaseProductName());
+	}
+
+	/*
+	 * Nombre de lignes modifiées par chaque instruction d'un lot, pour les
+	 * appelants qui en déduisent un résultat (stock insuffisant, ligne absente).
+	 * Avec rewriteBatchedStatements, Connector/J rend les comptes des UPDATE
+	 * (requête multi-instructions) mais SUCCESS_NO_INFO pour un INSERT
+	 * réécrit : compte inconnu, on refuse de conclure.
+	 */
+	static int[] comptes(int[] resultats) {
+		for (int resultat : resultats) {
+			if (resultat == Statement.SUCCESS_NO_INFO) {
+				throw new IllegalStateException("Nombre de lignes modifiées non fourni par le pilote JDBC");
+			}
+		}
+		return resultats;
+	}
+
+	static List<List<Long>> lots(List<Long> ids) {
+		List<List<Long>> lots = new ArrayList<>();
+		for (int debut = 0; debut < ids.size(); debut += TAILLE_LOT) {
+			lots.add(ids.subList(debut, Math.min(ids.size(), debut + TAILLE_LOT)));
+		}
+		return lots;
+	}
+
+	// Vérifier en une requête par lot que tous les identifiants existent
+	static void verifierExistants(NamedParameterJdbcTemplate jdbc, String table, String colonne, Collection<Long> ids) {
+		Set<Long> manquants = new TreeSet<>(ids);
+		for (List<Long> lot : lots(new ArrayList<>(ids))) {
+			manquants.removeAll(jdbc.queryForList("SELECT " + colonne + " FROM " + table + " WHERE " + colonne
+					+ " IN (:ids)", Collections.singletonMap("ids", lot), Long.class));
+		}
+		if (!manquants.isEmpty()) {
+			throw new NoSuchElementException("Identifiants introuvables (" + table + ") : " + manquants);
+		}
+	}
+
+}
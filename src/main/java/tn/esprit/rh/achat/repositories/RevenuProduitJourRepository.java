@@ -0,0 +1,19 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tn.esprit.rh.achat.entities.RevenuProduitJour;
+
+import java.util.Date;
+
+@Repository
+public interface RevenuProduitJourRepository extends JpaRepository<RevenuProduitJour, Long>, RevenuProduitJourRepositoryCustom {
+
+	@Query("SELECT coalesce(sum(r.revenuBrut), 0) FROM RevenuProduitJour r where r.idProduit=:idProduit"
+			+ " and r.jour between :startDate and :endDate")
+	double getRevenuBrutProduit(@Param("idProduit") Long idProduit, @Param("startDate") Date startDate,
+			@Param("endDate") Date endDate);
+
+}
@@ -0,0 +1,25 @@
+package tn.esprit.rh.achat.repositories;
+
+import tn.esprit.rh.achat.entities.RevenuProduitJour;
+
+import java.util.Collection;
+import java.util.Date;
+
+public interface RevenuProduitJourRepositoryCustom {
+
+	/*
+	 * Ajouter des montants (éventuellement négatifs) aux lignes produit x jour
+	 * existantes, en un lot JDBC, puis créer les lignes manquantes
+	 */
+	void cumuler(Collection<RevenuProduitJour> increments);
+
+	/*
+	 * Recalculer tout l'agrégat depuis les lignes des factures non archivées ;
+	 * retourne le nombre de lignes produit x jour créées
+	 */
+	int reconstruire();
+
+	// Parcourir le revenu brut par produit de la période sans matérialiser le résultat
+	void parcourirRevenusProduits(Date startDate, Date endDate, RecepteurRevenu recepteur);
+
+}
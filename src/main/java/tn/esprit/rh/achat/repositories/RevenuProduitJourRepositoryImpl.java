@@ -0,0 +1,89 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.rh.achat.entities.RevenuProduitJour;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+public class RevenuProduitJourRepositoryImpl implements RevenuProduitJourRepositoryCustom {
+
+	private static final String CUMULER = "UPDATE revenu_produit_jour SET revenu_brut = revenu_brut + ?,"
+			+ " qte_vendue = qte_vendue + ? WHERE id_produit = ? AND jour = ?";
+
+	private static final String CREER = "INSERT INTO revenu_produit_jour (id_produit, jour, revenu_brut, qte_vendue)"
+			+ " VALUES (?, ?, ?, ?)";
+
+	private static final String RECONSTRUIRE = "INSERT INTO revenu_produit_jour (id_produit, jour, revenu_brut, qte_vendue)"
+			+ " SELECT df.produit_id_produit, f.date_creation_facture,"
+			+ " SUM(df.prix_total_detail + df.montant_remise), SUM(df.qte_commandee)"
+			+ " FROM detail_facture df JOIN facture f ON f.id_facture = df.facture_id_facture"
+			+ " WHERE (f.archivee IS NULL OR f.archivee = FALSE) AND f.date_creation_facture IS NOT NULL"
+			+ " AND df.produit_id_produit IS NOT NULL"
+			+ " GROUP BY df.produit_id_produit, f.date_creation_facture";
+
+	private static final String REVENUS_PRODUITS = "SELECT id_produit, SUM(revenu_brut) FROM revenu_produit_jour"
+			+ " WHERE jour BETWEEN ? AND ? GROUP BY id_produit";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Override
+	public void cumuler(Collection<RevenuProduitJour> increments) {
+		// Même ordre de verrouillage des lignes pour toutes les transactions
+		final List<RevenuProduitJour> lignes = new ArrayList<>(increments);
+		lignes.sort(Comparator.comparing(RevenuProduitJour::getIdProduit).thenComparing(RevenuProduitJour::getJour));
+		int[] resultats = RequetesJdbc.comptes(jdbcTemplate.batchUpdate(CUMULER, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				RevenuProduitJour ligne = lignes.get(i);
+				ps.setDouble(1, ligne.getRevenuBrut());
+				ps.setLong(2, ligne.getQteVendue());
+				ps.setLong(3, ligne.getIdProduit());
+				ps.setDate(4, new Date(ligne.getJour().getTime()));
+			}
+
+			@Override
+			public int getBatchSize() {
+				return lignes.size();
+			}
+		}));
+		for (int i = 0; i < resultats.length; i++) {
+			if (resultats[i] == 0) {
+				creer(lignes.get(i));
+			}
+		}
+	}
+
+	// Première vente du produit ce jour-là ; si une autre transaction l'a créée entre-temps, on cumule
+	private void creer(RevenuProduitJour ligne) {
+		Date jour = new Date(ligne.getJour().getTime());
+		try {
+			jdbcTemplate.update(CREER, ligne.getIdProduit(), jour, ligne.getRevenuBrut(), ligne.getQteVendue());
+		} catch (DuplicateKeyException e) {
+			jdbcTemplate.update(CUMULER, ligne.getRevenuBrut(), ligne.getQteVendue(), ligne.getIdProduit(), jour);
+		}
+	}
+
+	@Override
+	public int reconstruire() {
+		jdbcTemplate.update("DELETE FROM revenu_produit_jour");
+		return jdbcTemplate.update(RECONSTRUIRE);
+	}
+
+	@Override
+	public void parcourirRevenusProduits(java.util.Date startDate, java.util.Date endDate, RecepteurRevenu recepteur) {
+		RequetesJdbc.parcourir(jdbcTemplate, REVENUS_PRODUITS, rs -> {
+			recepteur.accepter(rs.getLong(1), rs.getDouble(2));
+		}, new Date(startDate.getTime()), new Date(endDate.getTime()));
+	}
+
+}
@@ -1,14 +1,16 @@
 package tn.esprit.rh.achat.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import tn.esprit.rh.achat.entities.Stock;
 
 import java.util.List;
 
 @Repository
-public interface StockRepository extends JpaRepository<Stock, Long> {
+public interface StockRepository extends JpaRepository<Stock, Long>, StockRepositoryCustom {
 	
 
 	
@@ -22,6 +24,12 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
 	
 	
 	
-	@Query("SELECT s FROM Stock s where s.qte< s.qteMin")
+	@Query("SELECT s FROM Stock s where s.enRouge = true")
 	List<Stock> retrieveStatusStock();
+
+	// Renseigner en_rouge pour les lignes antérieures à la colonne
+	@Transactional
+	@Modifying
+	@Query("update Stock s set s.enRouge = case when s.qte < s.qteMin then true else false end where s.enRouge is null")
+	int initialiserEnRouge();
 }
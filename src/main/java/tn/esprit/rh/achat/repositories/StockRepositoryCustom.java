@@ -0,0 +1,24 @@
+package tn.esprit.rh.achat.repositories;
+
+import tn.esprit.rh.achat.entities.Stock;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface StockRepositoryCustom {
+
+	/*
+	 * Retrancher en un seul lot JDBC les quantités demandées (idStock -> qte).
+	 * Chaque mise à jour est conditionnelle (qte >= quantité demandée) ; la
+	 * méthode retourne les identifiants des stocks qui n'ont pas pu être débités.
+	 */
+	List<Long> retrancherQuantites(Map<Long, Integer> quantitesParStock);
+
+	/*
+	 * Relire l'état courant de stocks modifiés en JDBC, sans passer par le
+	 * contexte de persistance (qui peut contenir des copies périmées)
+	 */
+	List<Stock> lireStocks(Collection<Long> idsStocks);
+
+}
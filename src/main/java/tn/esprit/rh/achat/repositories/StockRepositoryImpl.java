@@ -0,0 +1,74 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import tn.esprit.rh.achat.entities.Stock;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class StockRepositoryImpl implements StockRepositoryCustom {
+
+	// en_rouge est calculé avant qte : MySQL évalue les affectations de gauche à droite
+	private static final String RETRANCHER_QTE = "UPDATE stock SET en_rouge = (qte - ? < qte_min), qte = qte - ?"
+			+ " WHERE id_stock = ? AND qte >= ?";
+
+	private static final String LIRE_STOCKS = "SELECT id_stock, libelle_stock, qte, qte_min, en_rouge FROM stock"
+			+ " WHERE id_stock IN (:ids)";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+	@Autowired
+	NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	@Override
+	public List<Long> retrancherQuantites(Map<Long, Integer> quantitesParStock) {
+		// Trier par id pour verrouiller les lignes toujours dans le même ordre (pas d'interblocage)
+		final List<Map.Entry<Long, Integer>> lignes = new ArrayList<>(new TreeMap<>(quantitesParStock).entrySet());
+		int[] resultats = RequetesJdbc.comptes(jdbcTemplate.batchUpdate(RETRANCHER_QTE, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				Map.Entry<Long, Integer> ligne = lignes.get(i);
+				ps.setInt(1, ligne.getValue());
+				ps.setInt(2, ligne.getValue());
+				ps.setLong(3, ligne.getKey());
+				ps.setInt(4, ligne.getValue());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return lignes.size();
+			}
+		}));
+		List<Long> insuffisants = new ArrayList<>();
+		for (int i = 0; i < resultats.length; i++) {
+			if (resultats[i] == 0) {
+				insuffisants.add(lignes.get(i).getKey());
+			}
+		}
+		return insuffisants;
+	}
+
+	@Override
+	public List<Stock> lireStocks(Collection<Long> idsStocks) {
+		if (idsStocks.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return namedParameterJdbcTemplate.query(LIRE_STOCKS, Collections.singletonMap("ids", idsStocks), (rs, i) -> {
+			Stock stock = new Stock(rs.getString("libelle_stock"), (Integer) rs.getObject("qte"),
+					(Integer) rs.getObject("qte_min"));
+			stock.setIdStock(rs.getLong("id_stock"));
+			stock.setEnRouge((Boolean) rs.getObject("en_rouge"));
+			return stock;
+		});
+	}
+
+}
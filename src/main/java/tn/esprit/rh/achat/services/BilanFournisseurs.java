@@ -0,0 +1,172 @@
+package tn.esprit.rh.achat.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import tn.esprit.rh.achat.entities.BilanFournisseur;
+import tn.esprit.rh.achat.entities.Facture;
+import tn.esprit.rh.achat.entities.Reglement;
+import tn.esprit.rh.achat.repositories.FactureRepository;
+import tn.esprit.rh.achat.util.Transactions;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/*
+ * Indicateurs par fournisseur tenus en mémoire : un enregistrement de
+ * compteurs primitifs par fournisseur, calculé au premier appel en une seule
+ * passe sur factures et règlements, puis mis à jour après commit par
+ * FactureServiceImpl, ReglementServiceImpl et FournisseurServiceImpl.
+ */
+@Component
+public class BilanFournisseurs {
+
+	private static final double MILLIS_PAR_JOUR = 86_400_000d;
+
+	@Autowired
+	FactureRepository factureRepository;
+
+	// Lecture : mises à jour concurrentes (chaque enregistrement est synchronisé) ; écriture : chargement
+	private final ReadWriteLock verrou = new ReentrantReadWriteLock();
+	private final Map<Long, Compteurs> parFournisseur = new ConcurrentHashMap<>();
+	private volatile boolean initialise;
+
+	/*
+	 * Indicateurs du fournisseur, ou null s'il n'a encore aucune facture
+	 */
+	public BilanFournisseur bilan(Long idFournisseur) {
+		initialiser();
+		Compteurs compteurs = parFournisseur.get(idFournisseur);
+		return compteurs == null ? null : compteurs.bilan(idFournisseur);
+	}
+
+	public void ajouterFacture(Facture f) {
+		if (f.getFournisseur() == null) {
+			return;
+		}
+		Long idFournisseur = f.getFournisseur().getIdFournisseur();
+		boolean archivee = Boolean.TRUE.equals(f.getArchivee());
+		double montant = f.getMontantFacture();
+		double remise = f.getMontantRemise();
+		modifier(idFournisseur, c -> c.facture(archivee, montant, remise));
+	}
+
+	// À appeler avant l'archivage, avec les montants de la facture encore active
+	public void annulerFacture(Facture f) {
+		if (f.getFournisseur() == null || Boolean.TRUE.equals(f.getArchivee())) {
+			return;
+		}
+		Long idFournisseur = f.getFournisseur().getIdFournisseur();
+		double montant = f.getMontantFacture();
+		double remise = f.getMontantRemise();
+		modifier(idFournisseur, c -> c.annulation(montant, remise));
+	}
+
+	public void ajouterReglement(Facture f, Reglement r) {
+		if (f.getFournisseur() == null || f.getDateCreationFacture() == null || r.getDateReglement() == null) {
+			return;
+		}
+		long delai = delaiJours(f.getDateCreationFacture(), r.getDateReglement());
+		modifier(f.getFournisseur().getIdFournisseur(), c -> c.reglement(delai));
+	}
+
+	public void retirerFournisseur(Long idFournisseur) {
+		Transactions.apresCommit(() -> parFournisseur.remove(idFournisseur));
+	}
+
+	/*
+	 * Avant l'initialisation, la lecture complète de la base suffit. Pendant la
+	 * lecture (verrou d'écriture tenu), la modification est ignorée plutôt
+	 * qu'attendue : la facture déjà validée peut avoir été lue et serait
+	 * sinon comptée deux fois.
+	 */
+	private void modifier(Long idFournisseur, Consumer<Compteurs> modification) {
+		Transactions.apresCommit(() -> {
+			if (!verrou.readLock().tryLock()) {
+				return;
+			}
+			try {
+				if (initialise) {
+					modification.accept(parFournisseur.computeIfAbsent(idFournisseur, id -> new Compteurs()));
+				}
+			} finally {
+				verrou.readLock().unlock();
+			}
+		});
+	}
+
+	private void initialiser() {
+		if (initialise) {
+			return;
+		}
+		verrou.writeLock().lock();
+		try {
+			if (initialise) {
+				return;
+			}
+			long[] factureCourante = {-1};
+			factureRepository.parcourirFacturesReglements(
+					(idFournisseur, idFacture, archivee, montant, remise, dateFacture, dateReglement) -> {
+						Compteurs c = parFournisseur.computeIfAbsent(idFournisseur, id -> new Compteurs());
+						if (idFacture != factureCourante[0]) {
+							factureCourante[0] = idFacture;
+							c.facture(archivee, montant, remise);
+						}
+						if (dateFacture != null && dateReglement != null) {
+							c.reglement(delaiJours(dateFacture, dateReglement));
+						}
+					});
+			initialise = true;
+		} finally {
+			verrou.writeLock().unlock();
+		}
+	}
+
+	// Jours calendaires (arrondi : absorbe les changements d'heure)
+	static long delaiJours(Date dateFacture, Date dateReglement) {
+		return Math.round((dateReglement.getTime() - dateFacture.getTime()) / MILLIS_PAR_JOUR);
+	}
+
+	static final class Compteurs {
+		private int nbFactures;
+		private int nbAnnulees;
+		private int nbReglements;
+		private double montantFactures;
+		private double montantRemises;
+		private long sommeDelais;
+
+		synchronized void facture(boolean archivee, double montant, double remise) {
+			nbFactures++;
+			if (archivee) {
+				nbAnnulees++;
+			} else {
+				montantFactures += montant;
+				montantRemises += remise;
+			}
+		}
+
+		synchronized void annulation(double montant, double remise) {
+			nbAnnulees++;
+			montantFactures -= montant;
+			montantRemises -= remise;
+		}
+
+		synchronized void reglement(long delaiJours) {
+			nbReglements++;
+			sommeDelais += delaiJours;
+		}
+
+		synchronized BilanFournisseur bilan(Long idFournisseur) {
+			double brut = montantFactures + montantRemises;
+			return new BilanFournisseur(idFournisseur, nbFactures, nbAnnulees, montantFactures, montantRemises,
+					brut > 0 ? montantRemises / brut : 0,
+					nbReglements,
+					nbReglements > 0 ? (double) sommeDelais / nbReglements : 0,
+					nbFactures > 0 ? (double) nbAnnulees / nbFactures : 0);
+		}
+	}
+
+}
@@ -0,0 +1,163 @@
+package tn.esprit.rh.achat.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tn.esprit.rh.achat.entities.ProduitVue;
+import tn.esprit.rh.achat.repositories.ProduitRepository;
+import tn.esprit.rh.achat.util.Transactions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Cache local (near-cache) du catalogue produits.
+ *
+ * Les lectures se font sans verrou sur un instantané immuable. Chaque écriture
+ * de ProduitServiceImpl marque le produit modifié et incrémente la version ;
+ * le premier lecteur qui voit une version plus récente que l'instantané
+ * recharge uniquement les produits marqués et publie une nouvelle copie
+ * (copy-on-write). Toute invalidation change aussi l'ETag de la table produit
+ * (VersionsTables).
+ *
+ * Un rechargement complet périodique rattrape les écritures faites hors de
+ * cette JVM : il est fait tout de suite (les 304 ne lisent pas le catalogue)
+ * et ne change l'ETag que si le contenu rechargé diffère de l'instantané.
+ */
+@Component
+public class CatalogueProduit {
+
+	@Autowired
+	ProduitRepository produitRepository;
+	@Autowired
+	VersionsTables versionsTables;
+
+	private final AtomicLong version = new AtomicLong();
+	private final Set<Long> modifies = ConcurrentHashMap.newKeySet();
+	private volatile boolean toutRecharger = true;
+	private volatile Instantane instantane = new Instantane(-1, 0, Collections.<Long, ProduitVue>emptyMap());
+
+	public List<ProduitVue> produits() {
+		return courant().produits;
+	}
+
+	public ProduitVue produit(Long idProduit) {
+		return courant().parId.get(idProduit);
+	}
+
+	public long version() {
+		return version.get();
+	}
+
+	// Numéro du dernier rechargement complet qui a changé le contenu de l'instantané
+	public long chargement() {
+		return courant().chargement;
+	}
+
+	// Invalider un produit, après le commit de la transaction en cours
+	public void invalider(Long idProduit) {
+		Transactions.apresCommit(() -> {
+			modifies.add(idProduit);
+			version.incrementAndGet();
+		});
+		versionsTables.modifier(VersionsTables.PRODUIT);
+	}
+
+	// Invalider un lot de produits en une seule fois (un seul rechargement)
+	public void invalider(Collection<Long> idsProduits) {
+		Transactions.apresCommit(() -> {
+			modifies.addAll(idsProduits);
+			version.incrementAndGet();
+		});
+		versionsTables.modifier(VersionsTables.PRODUIT);
+	}
+
+	// Invalider tout le catalogue après une écriture en masse
+	public void invaliderTout() {
+		Transactions.apresCommit(() -> {
+			toutRecharger = true;
+			version.incrementAndGet();
+		});
+		versionsTables.modifier(VersionsTables.PRODUIT);
+	}
+
+	@Scheduled(fixedDelayString = "${achat.catalogue-produit.rechargement-ms:300000}")
+	public void recharger() {
+		Instantane avant = instantane;
+		toutRecharger = true;
+		version.incrementAndGet();
+		Instantane apres = courant();
+		if (avant.version >= 0 && !avant.parId.equals(apres.parId)) {
+			versionsTables.modifier(VersionsTables.PRODUIT);
+		}
+	}
+
+	private Instantane courant() {
+		Instantane i = instantane;
+		if (i.version == version.get()) {
+			return i;
+		}
+		return rafraichir();
+	}
+
+	private synchronized Instantane rafraichir() {
+		long v = version.get();
+		Instantane i = instantane;
+		if (i.version == v) {
+			return i;
+		}
+		List<Long> ids = new ArrayList<>();
+		for (Iterator<Long> it = modifies.iterator(); it.hasNext();) {
+			ids.add(it.next());
+			it.remove();
+		}
+		Map<Long, ProduitVue> parId;
+		long chargement = i.chargement;
+		if (toutRecharger) {
+			toutRecharger = false;
+			parId = new TreeMap<>();
+			for (ProduitVue vue : produitRepository.retrieveCatalogue()) {
+				parId.put(vue.getIdProduit(), vue);
+			}
+			// Rechargement périodique sans changement : les index construits sur l'instantané restent valables
+			if (!parId.equals(i.parId)) {
+				chargement++;
+			}
+		} else {
+			parId = new TreeMap<>(i.parId);
+			parId.keySet().removeAll(ids);
+			if (!ids.isEmpty()) {
+				for (ProduitVue vue : produitRepository.retrieveCatalogue(ids)) {
+					parId.put(vue.getIdProduit(), vue);
+				}
+			}
+		}
+		instantane = new Instantane(v, chargement, parId);
+		return instantane;
+	}
+
+	private static final class Instantane {
+
+		final long version;
+		final long chargement;
+		final Map<Long, ProduitVue> parId;
+		final List<ProduitVue> produits;
+
+		Instantane(long version, long chargement, Map<Long, ProduitVue> parId) {
+			this.version = version;
+			this.chargement = chargement;
+			this.parId = Collections.unmodifiableMap(parId);
+			this.produits = Collections.unmodifiableList(new ArrayList<>(parId.values()));
+		}
+
+	}
+
+}
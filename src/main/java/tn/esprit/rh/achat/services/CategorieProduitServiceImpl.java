@@ -13,6 +13,8 @@ public class CategorieProduitServiceImpl implements ICategorieProduitService {
 	
 	@Autowired
 	CategorieProduitRepository categorieProduitRepository;
+	@Autowired
+	VersionsTables versionsTables;
 	@Override
 	public List<CategorieProduit> retrieveAllCategorieProduits() {
 		
@@ -22,18 +24,21 @@ public class CategorieProduitServiceImpl implements ICategorieProduitService {
 	@Override
 	public CategorieProduit addCategorieProduit(CategorieProduit cp) {
 		categorieProduitRepository.save(cp);
+		versionsTables.modifier(VersionsTables.CATEGORIE_PRODUIT);
 		return cp;
 	}
 
 	@Override
 	public void deleteCategorieProduit(Long id) {
 		categorieProduitRepository.deleteById(id);
+		versionsTables.modifier(VersionsTables.CATEGORIE_PRODUIT);
 		
 	}
 
 	@Override
 	public CategorieProduit updateCategorieProduit(CategorieProduit cp) {
 		categorieProduitRepository.save(cp);
+		versionsTables.modifier(VersionsTables.CATEGORIE_PRODUIT);
 		return cp;
 	}
 
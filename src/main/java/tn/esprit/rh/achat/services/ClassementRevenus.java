@@ -0,0 +1,221 @@
+package tn.esprit.rh.achat.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tn.esprit.rh.achat.entities.Fournisseur;
+import tn.esprit.rh.achat.entities.LigneClassement;
+import tn.esprit.rh.achat.entities.ProduitVue;
+import tn.esprit.rh.achat.repositories.FactureRepository;
+import tn.esprit.rh.achat.repositories.FournisseurRepository;
+import tn.esprit.rh.achat.repositories.RevenuProduitJourRepository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Classements "top N" par revenu. Les revenus agrégés (un par produit ou par
+ * fournisseur) sont lus en flux (RequetesJdbc.parcourir : ResultSet lu ligne
+ * à ligne sous MySQL) et seuls les N meilleurs sont retenus dans un tas
+ * minimum borné sur tableaux primitifs : O(lignes x log N) en temps, O(N) en
+ * mémoire, sans tri de toute la période.
+ *
+ * Une période close (fin avant aujourd'hui) ne bouge plus qu'avec une facture
+ * antidatée ou annulée : son classement est gardé dans un cache LRU vidé par
+ * FactureServiceImpl dans ces deux cas. Chaque invalidation incrémente une
+ * génération : un classement calculé pendant une invalidation n'est pas mis
+ * en cache. Les libellés sont relus à chaque appel.
+ */
+@Component
+public class ClassementRevenus {
+
+	public static final int TAILLE_MAX = 500;
+
+	@Autowired
+	RevenuProduitJourRepository revenuProduitJourRepository;
+	@Autowired
+	FactureRepository factureRepository;
+	@Autowired
+	FournisseurRepository fournisseurRepository;
+	@Autowired
+	CatalogueProduit catalogueProduit;
+
+	private final Map<String, MeilleursRevenus> periodesCloses;
+	// Incrémentée par invalider(), sous le verrou de periodesCloses
+	private long generation;
+
+	public ClassementRevenus(@Value("${achat.classement.capacite-cache:256}") int capaciteCache) {
+		periodesCloses = Collections.synchronizedMap(new LinkedHashMap<String, MeilleursRevenus>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, MeilleursRevenus> eldest) {
+				return size() > capaciteCache;
+			}
+		});
+	}
+
+	public List<LigneClassement> topProduits(Date startDate, Date endDate, int n) {
+		MeilleursRevenus meilleurs = classement("produits", startDate, endDate, n);
+		List<LigneClassement> lignes = new ArrayList<>(meilleurs.taille());
+		for (int i = 0; i < meilleurs.taille(); i++) {
+			ProduitVue produit = catalogueProduit.produit(meilleurs.id(i));
+			lignes.add(new LigneClassement(i + 1, meilleurs.id(i), produit == null ? null : produit.getCodeProduit(),
+					produit == null ? null : produit.getLibelleProduit(), meilleurs.revenu(i)));
+		}
+		return lignes;
+	}
+
+	public List<LigneClassement> topFournisseurs(Date startDate, Date endDate, int n) {
+		MeilleursRevenus meilleurs = classement("fournisseurs", startDate, endDate, n);
+		List<Long> ids = new ArrayList<>(meilleurs.taille());
+		for (int i = 0; i < meilleurs.taille(); i++) {
+			ids.add(meilleurs.id(i));
+		}
+		Map<Long, Fournisseur> fournisseurs = new HashMap<>();
+		for (Fournisseur fournisseur : fournisseurRepository.findAllById(ids)) {
+			fournisseurs.put(fournisseur.getIdFournisseur(), fournisseur);
+		}
+		List<LigneClassement> lignes = new ArrayList<>(meilleurs.taille());
+		for (int i = 0; i < meilleurs.taille(); i++) {
+			Fournisseur fournisseur = fournisseurs.get(meilleurs.id(i));
+			lignes.add(new LigneClassement(i + 1, meilleurs.id(i), fournisseur == null ? null : fournisseur.getCode(),
+					fournisseur == null ? null : fournisseur.getLibelle(), meilleurs.revenu(i)));
+		}
+		return lignes;
+	}
+
+	public void invalider() {
+		synchronized (periodesCloses) {
+			generation++;
+			periodesCloses.clear();
+		}
+	}
+
+	private MeilleursRevenus classement(String type, Date startDate, Date endDate, int n) {
+		int taille = Math.max(1, Math.min(n, TAILLE_MAX));
+		boolean close = Instant.ofEpochMilli(endDate.getTime()).atZone(ZoneId.systemDefault()).toLocalDate().isBefore(LocalDate.now());
+		String cle = type + ":" + startDate.getTime() + ":" + endDate.getTime() + ":" + taille;
+		long generationLue;
+		synchronized (periodesCloses) {
+			generationLue = generation;
+			MeilleursRevenus enCache = close ? periodesCloses.get(cle) : null;
+			if (enCache != null) {
+				return enCache;
+			}
+		}
+		MeilleursRevenus meilleurs = new MeilleursRevenus(taille);
+		if ("produits".equals(type)) {
+			revenuProduitJourRepository.parcourirRevenusProduits(startDate, endDate, meilleurs::offrir);
+		} else {
+			factureRepository.parcourirRevenusFournisseurs(startDate, endDate, meilleurs::offrir);
+		}
+		meilleurs.trier();
+		if (close) {
+			synchronized (periodesCloses) {
+				// Invalidé pendant le calcul : le résultat peut être périmé
+				if (generation == generationLue) {
+					periodesCloses.put(cle, meilleurs);
+				}
+			}
+		}
+		return meilleurs;
+	}
+
+	/*
+	 * Tas minimum borné : la racine est le plus petit des N retenus, remplacée
+	 * dès qu'un revenu plus grand arrive. trier() range ensuite le tableau par
+	 * revenu décroissant (tri par tas en place) ; l'instance est alors figée.
+	 */
+	static final class MeilleursRevenus {
+
+		private final long[] ids;
+		private final double[] revenus;
+		private int taille;
+
+		MeilleursRevenus(int capacite) {
+			ids = new long[capacite];
+			revenus = new double[capacite];
+		}
+
+		void offrir(long id, double revenu) {
+			if (taille < ids.length) {
+				ids[taille] = id;
+				revenus[taille] = revenu;
+				remonter(taille++);
+			} else if (revenu > revenus[0]) {
+				ids[0] = id;
+				revenus[0] = revenu;
+				descendre(0, taille);
+			}
+		}
+
+		void trier() {
+			for (int fin = taille - 1; fin > 0; fin--) {
+				echanger(0, fin);
+				descendre(0, fin);
+			}
+		}
+
+		int taille() {
+			return taille;
+		}
+
+		long id(int rang) {
+			return ids[rang];
+		}
+
+		double revenu(int rang) {
+			return revenus[rang];
+		}
+
+		private void remonter(int i) {
+			while (i > 0) {
+				int parent = (i - 1) / 2;
+				if (revenus[parent] <= revenus[i]) {
+					return;
+				}
+				echanger(i, parent);
+				i = parent;
+			}
+		}
+
+		private void descendre(int i, int fin) {
+			while (true) {
+				int plusPetit = i;
+				int gauche = 2 * i + 1;
+				int droite = gauche + 1;
+				if (gauche < fin && revenus[gauche] < revenus[plusPetit]) {
+					plusPetit = gauche;
+				}
+				if (droite < fin && revenus[droite] < revenus[plusPetit]) {
+					plusPetit = droite;
+				}
+				if (plusPetit == i) {
+					return;
+				}
+				echanger(i, plusPetit);
+				i = plusPetit;
+			}
+		}
+
+		private void echanger(int a, int b) {
+			long id = ids[a];
+			ids[a] = ids[b];
+			ids[b] = id;
+			double revenu = revenus[a];
+			revenus[a] = revenus[b];
+			revenus[b] = revenu;
+		}
+
+	}
+
+}
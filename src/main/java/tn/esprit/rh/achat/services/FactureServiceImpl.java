@@ -2,15 +2,28 @@ package tn.esprit.rh.achat.services;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import tn.esprit.rh.achat.entities.*;
 import tn.esprit.rh.achat.repositories.*;
+import tn.esprit.rh.achat.util.ExecuteurRapports;
+import tn.esprit.rh.achat.util.Transactions;
 
-import javax.transaction.Transactional;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
 @Service
 @Slf4j
 @Transactional
@@ -28,31 +41,122 @@ public class FactureServiceImpl implements IFactureService {
 	ProduitRepository produitRepository;
     @Autowired
     ReglementServiceImpl reglementService;
+	@Autowired
+	IStockService stockService;
+	@Autowired
+	RevenuProduitJourRepository revenuProduitJourRepository;
+	@Autowired
+	ClassementRevenus classementRevenus;
+	@Autowired
+	BilanFournisseurs bilanFournisseurs;
 	
 	@Override
+	@Transactional(readOnly = true)
 	public List<Facture> retrieveAllFactures() {
 		List<Facture> factures = (List<Facture>) factureRepository.findAll();
-		for (Facture facture : factures) {
-			log.info(" facture : " + facture);
-		}
+		log.info("Factures lues {}", kv("factures", factures.size()));
 		return factures;
 	}
 
 	
 	public Facture addFacture(Facture f) {
-		return factureRepository.save(f);
+		return addFacture(f, false);
+	}
+
+	/*
+	 * Créer la facture et ses lignes ; si deduireStock est vrai, les quantités
+	 * commandées sont débitées du stock de chaque produit (tout ou rien). Une
+	 * ligne sans produit ou d'un produit inconnu est refusée
+	 * (IllegalArgumentException) avant toute écriture.
+	 */
+	@Override
+	public Facture addFacture(Facture f, boolean deduireStock) {
+		Set<DetailFacture> detailsFacture = f.getDetailsFacture();
+		invaliderClassements(f);
+		if (detailsFacture == null || detailsFacture.isEmpty()) {
+			Facture facture = factureRepository.save(f);
+			bilanFournisseurs.ajouterFacture(facture);
+			return facture;
+		}
+		Map<Long, Produit> produits = retrieveProduits(detailsFacture);
+		addDetailsFacture(f, detailsFacture, produits);
+		Facture facture = factureRepository.save(f);
+		if (deduireStock) {
+			deduireStock(detailsFacture, produits);
+		}
+		detailFactureRepository.saveAll(detailsFacture);
+		cumulerRevenus(f, detailsFacture, 1);
+		bilanFournisseurs.ajouterFacture(facture);
+		return facture;
+	}
+
+	/*
+	 * Reporter les lignes d'une facture active dans l'agrégat produit x jour
+	 * (signe -1 pour retirer celles d'une facture annulée)
+	 */
+	private void cumulerRevenus(Facture f, Set<DetailFacture> detailsFacture, int signe) {
+		if (f.getDateCreationFacture() == null || Boolean.TRUE.equals(f.getArchivee()) || detailsFacture == null) {
+			return;
+		}
+		Map<Long, RevenuProduitJour> revenus = new HashMap<>();
+		for (DetailFacture detail : detailsFacture) {
+			Long idProduit = detail.getProduit().getIdProduit();
+			double revenuBrut = signe * ((double) detail.getPrixTotalDetail() + detail.getMontantRemise());
+			long qte = (long) signe * detail.getQteCommandee();
+			revenus.merge(idProduit, new RevenuProduitJour(idProduit, f.getDateCreationFacture(), revenuBrut, qte),
+					(a, b) -> new RevenuProduitJour(idProduit, a.getJour(), a.getRevenuBrut() + b.getRevenuBrut(),
+							a.getQteVendue() + b.getQteVendue()));
+		}
+		if (!revenus.isEmpty()) {
+			revenuProduitJourRepository.cumuler(revenus.values());
+		}
+	}
+
+	// Une facture antidatée modifie des périodes closes déjà classées
+	private void invaliderClassements(Facture f) {
+		if (f.getDateCreationFacture() != null && Instant.ofEpochMilli(f.getDateCreationFacture().getTime())
+				.atZone(ZoneId.systemDefault()).toLocalDate().isBefore(LocalDate.now())) {
+			Transactions.apresCommit(classementRevenus::invalider);
+		}
+	}
+
+	/*
+	 * Valider les lignes (produit et quantité strictement positive) puis charger
+	 * en une seule requête les produits (et leur stock) de toutes les lignes
+	 */
+	private Map<Long, Produit> retrieveProduits(Set<DetailFacture> detailsFacture) {
+		Set<Long> idsProduits = new HashSet<>();
+		for (DetailFacture detail : detailsFacture) {
+			if (detail.getProduit() == null || detail.getProduit().getIdProduit() == null) {
+				throw new IllegalArgumentException("Ligne de facture sans produit");
+			}
+			if (detail.getQteCommandee() == null || detail.getQteCommandee() <= 0) {
+				throw new IllegalArgumentException("Quantité commandée invalide (" + detail.getQteCommandee()
+						+ ") pour le produit " + detail.getProduit().getIdProduit());
+			}
+			idsProduits.add(detail.getProduit().getIdProduit());
+		}
+		Map<Long, Produit> produits = new HashMap<>();
+		for (Produit produit : produitRepository.retrieveProduitsAvecStock(idsProduits)) {
+			produits.put(produit.getIdProduit(), produit);
+		}
+		idsProduits.removeAll(produits.keySet());
+		if (!idsProduits.isEmpty()) {
+			throw new IllegalArgumentException("Produit(s) introuvable(s) : " + idsProduits);
+		}
+		return produits;
 	}
 
 	/*
 	 * calculer les montants remise et le montant total d'un détail facture
-	 * ainsi que les montants d'une facture
+	 * ainsi que les montants d'une facture (visible du paquetage pour les benchmarks)
 	 */
-	private Facture addDetailsFacture(Facture f, Set<DetailFacture> detailsFacture) {
+	Facture addDetailsFacture(Facture f, Set<DetailFacture> detailsFacture, Map<Long, Produit> produits) {
 		float montantFacture = 0;
 		float montantRemise = 0;
 		for (DetailFacture detail : detailsFacture) {
 			//Récuperer le produit 
-			Produit produit = produitRepository.findById(detail.getProduit().getIdProduit()).get();
+			Produit produit = produits.get(detail.getProduit().getIdProduit());
 			//Calculer le montant total pour chaque détail Facture
 			float prixTotalDetail = detail.getQteCommandee() * produit.getPrix();
 			//Calculer le montant remise pour chaque détail Facture
@@ -60,22 +164,60 @@ public class FactureServiceImpl implements IFactureService {
 			float prixTotalDetailRemise = prixTotalDetail - montantRemiseDetail;
 			detail.setMontantRemise(montantRemiseDetail);
 			detail.setPrixTotalDetail(prixTotalDetailRemise);
+			detail.setProduit(produit);
+			detail.setFacture(f);
 			//Calculer le montant total pour la facture
 			montantFacture = montantFacture + prixTotalDetailRemise;
 			//Calculer le montant remise pour la facture
 			montantRemise = montantRemise + montantRemiseDetail;
-			detailFactureRepository.save(detail);
 		}
 		f.setMontantFacture(montantFacture);
 		f.setMontantRemise(montantRemise);
 		return f;
 	}
 
+	/*
+	 * Agréger les quantités commandées par stock puis les débiter en un seul
+	 * lot. Si une ligne manque de stock, l'exception annule toute la transaction.
+	 */
+	private void deduireStock(Set<DetailFacture> detailsFacture, Map<Long, Produit> produits) {
+		Map<Long, Integer> quantitesParStock = new HashMap<>();
+		List<String> lignesSansStock = new ArrayList<>();
+		for (DetailFacture detail : detailsFacture) {
+			Produit produit = produits.get(detail.getProduit().getIdProduit());
+			if (produit.getStock() == null) {
+				lignesSansStock.add(decrireLigne(detail, produit) + " sans stock");
+			} else {
+				quantitesParStock.merge(produit.getStock().getIdStock(), detail.getQteCommandee(), Integer::sum);
+			}
+		}
+		List<Long> stocksInsuffisants = quantitesParStock.isEmpty() ? new ArrayList<>()
+				: stockService.deduireQuantites(quantitesParStock);
+		for (DetailFacture detail : detailsFacture) {
+			Produit produit = produits.get(detail.getProduit().getIdProduit());
+			if (produit.getStock() != null && stocksInsuffisants.contains(produit.getStock().getIdStock())) {
+				lignesSansStock.add(decrireLigne(detail, produit) + " (stock " + produit.getStock().getIdStock()
+						+ " : " + produit.getStock().getQte() + " disponible(s), "
+						+ quantitesParStock.get(produit.getStock().getIdStock()) + " demandée(s))");
+			}
+		}
+		if (!lignesSansStock.isEmpty()) {
+			throw new StockInsuffisantException(lignesSansStock);
+		}
+	}
+
+	private String decrireLigne(DetailFacture detail, Produit produit) {
+		return "produit " + produit.getIdProduit() + " (" + produit.getCodeProduit() + ") x " + detail.getQteCommandee();
+	}
+
 	@Override
 	public void cancelFacture(Long factureId) {
 		// Méthode 01
 		//Facture facture = factureRepository.findById(factureId).get();
 		Facture facture = factureRepository.findById(factureId).orElse(new Facture());
+		cumulerRevenus(facture, facture.getDetailsFacture(), -1);
+		bilanFournisseurs.annulerFacture(facture);
+		Transactions.apresCommit(classementRevenus::invalider);
 		facture.setArchivee(true);
 		factureRepository.save(facture);
 		//Méthode 02 (Avec JPQL)
@@ -86,11 +228,12 @@ public class FactureServiceImpl implements IFactureService {
 	public Facture retrieveFacture(Long factureId) {
 
 		Facture facture = factureRepository.findById(factureId).orElse(null);
-		log.info("facture :" + facture);
+		log.debug("Facture lue {} {}", kv("idFacture", factureId), kv("trouvee", facture != null));
 		return facture;
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Facture> getFacturesByFournisseur(Long idFournisseur) {
 		Fournisseur fournisseur = fournisseurRepository.findById(idFournisseur).orElse(null);
 		return (List<Facture>) fournisseur.getFactures();
@@ -104,7 +247,19 @@ public class FactureServiceImpl implements IFactureService {
 		operateurRepository.save(operateur);
 	}
 
+	// Agrégat vide (première mise en service) : le calculer depuis l'historique des factures
+	@EventListener(ApplicationReadyEvent.class)
+	public void initialiserRevenusProduits() {
+		if (revenuProduitJourRepository.count() == 0) {
+			int lignes = revenuProduitJourRepository.reconstruire();
+			if (lignes > 0) {
+				log.info("Revenus par produit et par jour reconstruits {}", kv("lignes", lignes));
+			}
+		}
+	}
+
 	@Override
+	@Transactional(readOnly = true, timeoutString = ExecuteurRapports.DELAI_SQL)
 	public float pourcentageRecouvrement(Date startDate, Date endDate) {
 		float totalFacturesEntreDeuxDates = factureRepository.getTotalFacturesEntreDeuxDates(startDate,endDate);
 		float totalRecouvrementEntreDeuxDates =reglementService.getChiffreAffaireEntreDeuxDate(startDate,endDate);
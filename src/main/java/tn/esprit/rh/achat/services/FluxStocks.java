@@ -0,0 +1,203 @@
+package tn.esprit.rh.achat.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Flux SSE des niveaux de stock. Chaque abonné a un tampon borné indexé par
+ * idStock : plusieurs modifications rapprochées d'un même stock sont fusionnées
+ * et seule la dernière est envoyée. Un abonné trop lent pour son tampon reçoit
+ * un événement "resynchroniser" (recharger retrieve-all-stocks) au lieu des
+ * modifications perdues.
+ *
+ * Les envois se font sur un pool borné, un seul envoi en cours par abonné :
+ * un client lent ne retarde ni les autres abonnés ni les tâches planifiées,
+ * ses modifications continuent d'être fusionnées dans son tampon. Un abonné
+ * dont l'envoi reste bloqué plus de delai-envoi-ms est retiré du flux.
+ */
+@Component
+@Slf4j
+public class FluxStocks implements DisposableBean {
+
+	static final String EVENEMENT_STOCK = "stock";
+	static final String EVENEMENT_RESYNCHRONISER = "resynchroniser";
+
+	private final List<Abonne> abonnes = new CopyOnWriteArrayList<>();
+	private final AtomicLong sequence = new AtomicLong();
+
+	@Value("${achat.flux-stocks.capacite-abonne:1000}")
+	int capaciteAbonne = 1000;
+	@Value("${achat.flux-stocks.timeout-ms:1800000}")
+	long timeoutMs = 1800000;
+	@Value("${achat.flux-stocks.delai-envoi-ms:5000}")
+	long delaiEnvoiMs = 5000;
+
+	private final ThreadPoolExecutor envois;
+
+	public FluxStocks(@Value("${achat.flux-stocks.threads-envoi:2}") int threadsEnvoi,
+			@Value("${achat.flux-stocks.file-envois:1000}") int fileEnvois) {
+		this.envois = new ThreadPoolExecutor(threadsEnvoi, threadsEnvoi, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(fileEnvois), new CustomizableThreadFactory("flux-stocks-"));
+	}
+
+	public SseEmitter abonner() {
+		return abonner(new SseEmitter(timeoutMs));
+	}
+
+	SseEmitter abonner(SseEmitter emitter) {
+		Abonne abonne = new Abonne(emitter, capaciteAbonne);
+		abonnes.add(abonne);
+		emitter.onCompletion(() -> abonnes.remove(abonne));
+		emitter.onTimeout(() -> abonnes.remove(abonne));
+		emitter.onError(e -> abonnes.remove(abonne));
+		return emitter;
+	}
+
+	// Publié après le commit de la transaction d'écriture, ou immédiatement hors transaction
+	@TransactionalEventListener(fallbackExecution = true)
+	public void publier(StockModifieEvent event) {
+		for (Abonne abonne : abonnes) {
+			abonne.ajouter(event);
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${achat.flux-stocks.intervalle-ms:200}")
+	public void diffuser() {
+		long maintenant = System.currentTimeMillis();
+		for (Abonne abonne : abonnes) {
+			long debut = abonne.debutEnvoi;
+			if (debut != 0) {
+				if (maintenant - debut > delaiEnvoiMs) {
+					// emitter complété par le thread d'envoi, seul à pouvoir le faire sans attendre
+					log.warn("Abonné au flux des stocks retiré, envoi bloqué depuis {} ms", maintenant - debut);
+					abonnes.remove(abonne);
+					abonne.abandonne = true;
+					if (abonne.debutEnvoi == 0) {
+						abonne.fermer(null);
+					}
+				}
+				continue;
+			}
+			if (!abonne.aEnvoyer()) {
+				continue;
+			}
+			abonne.debutEnvoi = maintenant;
+			try {
+				envois.execute(() -> envoyer(abonne));
+			} catch (RejectedExecutionException e) {
+				// réessayé au prochain passage, les modifications restent fusionnées
+				abonne.debutEnvoi = 0;
+			}
+		}
+	}
+
+	private void envoyer(Abonne abonne) {
+		try {
+			if (abonne.extraireResynchronisation()) {
+				abonne.emitter.send(SseEmitter.event().name(EVENEMENT_RESYNCHRONISER)
+						.id(String.valueOf(sequence.incrementAndGet())).data(""));
+			}
+			for (StockModifieEvent event : abonne.vider()) {
+				abonne.emitter.send(SseEmitter.event().name(EVENEMENT_STOCK)
+						.id(String.valueOf(sequence.incrementAndGet())).data(event));
+			}
+		} catch (IOException | IllegalStateException e) {
+			log.debug("Abonné au flux des stocks déconnecté : {}", e.getMessage());
+			abonnes.remove(abonne);
+			abonne.fermer(e);
+		} finally {
+			abonne.debutEnvoi = 0;
+			if (abonne.abandonne) {
+				abonne.fermer(null);
+			}
+		}
+	}
+
+	@Override
+	public void destroy() {
+		envois.shutdownNow();
+	}
+
+	int nombreAbonnes() {
+		return abonnes.size();
+	}
+
+	static class Abonne {
+
+		final SseEmitter emitter;
+		private final int capacite;
+		private final Map<Long, StockModifieEvent> enAttente = new LinkedHashMap<>();
+		private boolean resynchroniser;
+		// Début de l'envoi en cours (0 : aucun), retiré du flux pendant un envoi
+		volatile long debutEnvoi;
+		volatile boolean abandonne;
+		private final AtomicBoolean ferme = new AtomicBoolean();
+
+		Abonne(SseEmitter emitter, int capacite) {
+			this.emitter = emitter;
+			this.capacite = capacite;
+		}
+
+		synchronized void ajouter(StockModifieEvent event) {
+			if (resynchroniser) {
+				return;
+			}
+			// remove puis put : l'ordre d'envoi suit la dernière modification
+			enAttente.remove(event.getIdStock());
+			enAttente.put(event.getIdStock(), event);
+			if (enAttente.size() > capacite) {
+				enAttente.clear();
+				resynchroniser = true;
+			}
+		}
+
+		// Compléter l'emitter une seule fois, quel que soit le thread qui le constate
+		void fermer(Throwable erreur) {
+			if (!ferme.compareAndSet(false, true)) {
+				return;
+			}
+			if (erreur == null) {
+				emitter.complete();
+			} else {
+				emitter.completeWithError(erreur);
+			}
+		}
+
+		synchronized boolean aEnvoyer() {
+			return resynchroniser || !enAttente.isEmpty();
+		}
+
+		synchronized boolean extraireResynchronisation() {
+			boolean r = resynchroniser;
+			resynchroniser = false;
+			return r;
+		}
+
+		synchronized List<StockModifieEvent> vider() {
+			List<StockModifieEvent> events = new ArrayList<>(enAttente.values());
+			enAttente.clear();
+			return events;
+		}
+
+	}
+
+}
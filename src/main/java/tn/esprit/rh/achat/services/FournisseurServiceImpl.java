@@ -3,21 +3,41 @@ package tn.esprit.rh.achat.services;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.rh.achat.entities.AffectationSecteurFournisseur;
+import tn.esprit.rh.achat.entities.BilanFournisseur;
 import tn.esprit.rh.achat.entities.DetailFournisseur;
 import tn.esprit.rh.achat.entities.Fournisseur;
+import tn.esprit.rh.achat.entities.FournisseurResume;
+import tn.esprit.rh.achat.entities.LigneClassement;
+import tn.esprit.rh.achat.entities.ResultatImportFournisseurs;
 import tn.esprit.rh.achat.entities.SecteurActivite;
 import tn.esprit.rh.achat.repositories.DetailFournisseurRepository;
 import tn.esprit.rh.achat.repositories.FournisseurRepository;
 import tn.esprit.rh.achat.repositories.ProduitRepository;
 import tn.esprit.rh.achat.repositories.SecteurActiviteRepository;
+import tn.esprit.rh.achat.util.ExecuteurRapports;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
 
 @Service
 @Slf4j
 public class FournisseurServiceImpl implements IFournisseurService {
 
+	private static final int TAILLE_LOT_IMPORT = 500;
+
 	@Autowired
 	FournisseurRepository fournisseurRepository;
 	@Autowired
@@ -26,49 +46,175 @@ public class FournisseurServiceImpl implements IFournisseurService {
 	ProduitRepository produitRepository;
 	@Autowired
 	SecteurActiviteRepository secteurActiviteRepository;
+	@Autowired
+	ClassementRevenus classementRevenus;
+	@Autowired
+	IndexSecteursFournisseurs indexSecteursFournisseurs;
+	@Autowired
+	BilanFournisseurs bilanFournisseurs;
+	@PersistenceContext
+	EntityManager entityManager;
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Fournisseur> retrieveAllFournisseurs() {
 		List<Fournisseur> fournisseurs = (List<Fournisseur>) fournisseurRepository.findAll();
-		for (Fournisseur fournisseur : fournisseurs) {
-			log.info(" fournisseur : " + fournisseur);
-		}
+		log.info("Fournisseurs lus {}", kv("fournisseurs", fournisseurs.size()));
 		return fournisseurs;
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public List<FournisseurResume> retrieveResumesFournisseurs() {
+		return fournisseurRepository.retrieveResumes();
+	}
+
 
+	/*
+	 * Le détail fourni est conservé (sinon un détail vide est créé) : une
+	 * seule sauvegarde, le détail suit par cascade
+	 */
+	@Override
+	@Transactional
 	public Fournisseur addFournisseur(Fournisseur f /*Master*/) {
-		DetailFournisseur df= new DetailFournisseur();//Slave
-		df.setDateDebutCollaboration(new Date()); //util
+		DetailFournisseur df = f.getDetailFournisseur() != null ? f.getDetailFournisseur() : new DetailFournisseur();//Slave
+		df.setIdDetailFournisseur(null);
+		if (df.getDateDebutCollaboration() == null) {
+			df.setDateDebutCollaboration(new Date()); //util
+		}
 		//On affecte le "Slave" au "Master"
 		f.setDetailFournisseur(df);	
 		fournisseurRepository.save(f);
+		indexSecteursFournisseurs.ajouterFournisseur(f.getIdFournisseur());
 		return f;
 	}
-	
-	private DetailFournisseur  saveDetailFournisseur(Fournisseur f){
-		DetailFournisseur df = f.getDetailFournisseur();
-		detailFournisseurRepository.save(df);
-		return df;
-	}
 
+	/*
+	 * PUT : toutes les colonnes du fournisseur sont remplacées, ainsi que
+	 * celles de son détail lorsqu'il est fourni. Un corps sans détail laisse
+	 * le détail existant inchangé : il n'est jamais supprimé par un PUT.
+	 */
+	@Override
+	@Transactional
 	public Fournisseur updateFournisseur(Fournisseur f) {
-		DetailFournisseur df = saveDetailFournisseur(f);
-		f.setDetailFournisseur(df);	
-		fournisseurRepository.save(f);
-		return f;
+		Fournisseur fournisseur = retrieveFournisseurAModifier(f);
+		appliquer(fournisseur, f, false);
+		return fournisseur;
+	}
+
+	// PATCH : seuls les champs non nuls sont reportés
+	@Override
+	@Transactional
+	public Fournisseur patchFournisseur(Fournisseur f) {
+		Fournisseur fournisseur = retrieveFournisseurAModifier(f);
+		appliquer(fournisseur, f, true);
+		return fournisseur;
+	}
+
+	/*
+	 * L'entité est chargée puis modifiée dans la transaction : la détection
+	 * des changements (avec @DynamicUpdate) n'écrit au commit que les lignes
+	 * et les colonnes réellement modifiées. Secteurs et factures ne sont jamais
+	 * touchés.
+	 */
+	private Fournisseur retrieveFournisseurAModifier(Fournisseur f) {
+		if (f.getIdFournisseur() == null) {
+			throw new IllegalArgumentException("idFournisseur obligatoire");
+		}
+		return fournisseurRepository.retrieveFournisseurAvecDetail(f.getIdFournisseur())
+				.orElseThrow(() -> new NoSuchElementException("Fournisseur introuvable : " + f.getIdFournisseur()));
+	}
+
+	/*
+	 * Import par code : en une transaction, les fournisseurs existants sont
+	 * modifiés (champs non nuls, comme PATCH) et les autres créés. Les
+	 * existants sont chargés par lots de codes ; une ligne inchangée ne
+	 * provoque aucune écriture. Chaque lot est écrit puis détaché du contexte
+	 * de persistance, pour que la détection des changements ne reparcoure pas
+	 * les lots précédents.
+	 */
+	@Override
+	@Transactional
+	public ResultatImportFournisseurs upsertFournisseurs(List<Fournisseur> fournisseurs) {
+		Map<String, Fournisseur> parCode = new LinkedHashMap<>();
+		for (Fournisseur f : fournisseurs) {
+			if (f.getCode() == null || f.getCode().trim().isEmpty()) {
+				throw new IllegalArgumentException("code obligatoire pour chaque fournisseur");
+			}
+			if (parCode.put(f.getCode(), f) != null) {
+				throw new IllegalArgumentException("code en double : " + f.getCode());
+			}
+		}
+		List<String> codes = new ArrayList<>(parCode.keySet());
+		int crees = 0;
+		int modifies = 0;
+		for (int debut = 0; debut < codes.size(); debut += TAILLE_LOT_IMPORT) {
+			List<String> lot = codes.subList(debut, Math.min(debut + TAILLE_LOT_IMPORT, codes.size()));
+			Map<String, Fournisseur> existants = new HashMap<>();
+			for (Fournisseur existant : fournisseurRepository.findByCodeIn(lot)) {
+				existants.putIfAbsent(existant.getCode(), existant);
+			}
+			for (String code : lot) {
+				Fournisseur f = parCode.get(code);
+				Fournisseur existant = existants.get(code);
+				if (existant == null) {
+					f.setIdFournisseur(null);
+					addFournisseur(f);
+					crees++;
+				} else if (appliquer(existant, f, true)) {
+					modifies++;
+				}
+			}
+			fournisseurRepository.flush();
+			entityManager.clear();
+		}
+		log.info("Import fournisseurs {} {}", kv("crees", crees), kv("modifies", modifies));
+		return new ResultatImportFournisseurs(crees, modifies, parCode.size() - crees - modifies);
+	}
+
+	// Reporter les champs de source sur l'entité gérée ; retourne vrai si une valeur a changé
+	private boolean appliquer(Fournisseur cible, Fournisseur source, boolean partiel) {
+		boolean modifie = changer(cible.getCode(), source.getCode(), cible::setCode, partiel);
+		modifie |= changer(cible.getLibelle(), source.getLibelle(), cible::setLibelle, partiel);
+		modifie |= changer(cible.getCategorieFournisseur(), source.getCategorieFournisseur(),
+				cible::setCategorieFournisseur, partiel);
+		DetailFournisseur detail = source.getDetailFournisseur();
+		if (detail == null) {
+			return modifie;
+		}
+		DetailFournisseur df = cible.getDetailFournisseur();
+		if (df == null) {
+			detail.setIdDetailFournisseur(null);
+			cible.setDetailFournisseur(detail);
+			return true;
+		}
+		modifie |= changer(df.getEmail(), detail.getEmail(), df::setEmail, partiel);
+		modifie |= changer(df.getAdresse(), detail.getAdresse(), df::setAdresse, partiel);
+		modifie |= changer(df.getMatricule(), detail.getMatricule(), df::setMatricule, partiel);
+		modifie |= changer(df.getDateDebutCollaboration(), detail.getDateDebutCollaboration(),
+				df::setDateDebutCollaboration, partiel);
+		return modifie;
+	}
+
+	private static <T> boolean changer(T actuel, T nouveau, Consumer<T> setter, boolean partiel) {
+		if ((partiel && nouveau == null) || Objects.equals(actuel, nouveau)) {
+			return false;
+		}
+		setter.accept(nouveau);
+		return true;
 	}
 
 	@Override
 	public void deleteFournisseur(Long fournisseurId) {
 		fournisseurRepository.deleteById(fournisseurId);
-
+		indexSecteursFournisseurs.retirerFournisseur(fournisseurId);
+		bilanFournisseurs.retirerFournisseur(fournisseurId);
 	}
 
 	@Override
 	public Fournisseur retrieveFournisseur(Long fournisseurId) {
 
-		Fournisseur fournisseur = fournisseurRepository.findById(fournisseurId).orElse(null);
+		Fournisseur fournisseur = fournisseurRepository.retrieveFournisseurAvecDetail(fournisseurId).orElse(null);
 		return fournisseur;
 	}
 
@@ -78,8 +224,44 @@ public class FournisseurServiceImpl implements IFournisseurService {
 		SecteurActivite secteurActivite = secteurActiviteRepository.findById(idSecteurActivite).orElse(null);
         fournisseur.getSecteurActivites().add(secteurActivite);
         fournisseurRepository.save(fournisseur);
+		indexSecteursFournisseurs.affecter(idSecteurActivite, idFournisseur);
 		
-		
+	}
+
+	// Rattachement en masse, sans charger les fournisseurs ni les secteurs
+	@Override
+	@Transactional
+	public int assignSecteursActiviteToFournisseurs(List<AffectationSecteurFournisseur> affectations) {
+		if (affectations.isEmpty()) {
+			return 0;
+		}
+		int crees = fournisseurRepository.affecterSecteurs(affectations);
+		indexSecteursFournisseurs.affecter(affectations);
+		log.info("Rattachement de fournisseurs à des secteurs {}", kv("couplesCrees", crees));
+		return crees;
+	}
+
+	@Override
+	public BilanFournisseur getBilanFournisseur(Long idFournisseur) {
+		BilanFournisseur bilan = bilanFournisseurs.bilan(idFournisseur);
+		if (bilan != null) {
+			return bilan;
+		}
+		if (!fournisseurRepository.existsById(idFournisseur)) {
+			throw new NoSuchElementException("Fournisseur introuvable : " + idFournisseur);
+		}
+		return new BilanFournisseur(idFournisseur, 0, 0, 0, 0, 0, 0, 0, 0);
+	}
+
+	@Override
+	public List<Long> rechercherParSecteurs(List<Long> tous, List<Long> auMoinsUn, List<Long> aucun) {
+		return indexSecteursFournisseurs.rechercher(tous, auMoinsUn, aucun);
+	}
+
+	@Override
+	@Transactional(readOnly = true, timeoutString = ExecuteurRapports.DELAI_SQL)
+	public List<LigneClassement> getTopFournisseurs(Date startDate, Date endDate, int n) {
+		return classementRevenus.topFournisseurs(startDate, endDate, n);
 	}
 
 	
@@ -0,0 +1,222 @@
+package tn.esprit.rh.achat.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.rh.achat.entities.GranulariteHistorique;
+import tn.esprit.rh.achat.entities.HistoriqueStock;
+import tn.esprit.rh.achat.entities.HistoriqueStockAgrege;
+import tn.esprit.rh.achat.entities.Stock;
+import tn.esprit.rh.achat.repositories.HistoriqueStockAgregeRepository;
+import tn.esprit.rh.achat.repositories.HistoriqueStockRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+ * Historique des quantités de stock en trois niveaux :
+ * - mesures brutes, conservées retention-brute-jours ;
+ * - agrégats horaires (min / max / dernière), conservés retention-horaire-jours ;
+ * - agrégats journaliers, conservés indéfiniment.
+ * La compaction ne traite que des périodes complètes : une période donnée
+ * n'existe donc jamais à deux niveaux à la fois. Les points à compacter sont
+ * lus par pages de LOT, de clé en clé sur (idStock, date, id), et les agrégats
+ * écrits par lots de LOT, le contexte de persistance vidé après chaque page et
+ * chaque lot : la mémoire ne dépend pas du nombre de points de la fenêtre
+ * compactée, et aucun résultat de requête ne reste ouvert pendant les écritures.
+ */
+@Service
+@Slf4j
+public class HistoriqueStockServiceImpl implements IHistoriqueStockService {
+
+	static final int LOT = 1000;
+	private static final Pageable PAGE = PageRequest.of(0, LOT);
+
+	@PersistenceContext
+	EntityManager entityManager;
+	@Autowired
+	HistoriqueStockRepository historiqueStockRepository;
+	@Autowired
+	HistoriqueStockAgregeRepository historiqueStockAgregeRepository;
+
+	@Value("${achat.historique-stock.retention-brute-jours:7}")
+	int retentionBruteJours;
+	@Value("${achat.historique-stock.retention-horaire-jours:90}")
+	int retentionHoraireJours;
+
+	@Override
+	public void enregistrer(Stock s) {
+		if (s.getIdStock() != null && s.getQte() != null) {
+			historiqueStockRepository.save(new HistoriqueStock(s.getIdStock(), new Date(), s.getQte()));
+		}
+	}
+
+	@Override
+	public void enregistrer(Collection<Stock> stocks) {
+		Date maintenant = new Date();
+		List<HistoriqueStock> mesures = new ArrayList<>();
+		for (Stock s : stocks) {
+			if (s.getIdStock() != null && s.getQte() != null) {
+				mesures.add(new HistoriqueStock(s.getIdStock(), maintenant, s.getQte()));
+			}
+		}
+		historiqueStockRepository.saveAll(mesures);
+	}
+
+	/*
+	 * Historique d'un stock entre deux dates (incluses) : agrégats journaliers et
+	 * horaires pour le passé, mesures brutes pour la période récente
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<HistoriqueStockAgrege> retrieveHistorique(Long idStock, Date startDate, Date endDate) {
+		Date fin = ajouter(tronquer(endDate, Calendar.DAY_OF_MONTH), Calendar.DAY_OF_MONTH, 1);
+		List<HistoriqueStockAgrege> points = new ArrayList<>(
+				historiqueStockAgregeRepository.retrieveHistorique(idStock, startDate, fin));
+		for (HistoriqueStock mesure : historiqueStockRepository.retrieveHistorique(idStock, startDate, fin)) {
+			points.add(new HistoriqueStockAgrege(mesure.getIdStock(), GranulariteHistorique.BRUT,
+					mesure.getDateMesure(), mesure.getQte()));
+		}
+		points.sort(Comparator.comparing(HistoriqueStockAgrege::getDebutPeriode));
+		return points;
+	}
+
+	@Override
+	@Transactional
+	@Scheduled(cron = "${achat.historique-stock.compaction-cron:0 5 * * * *}")
+	public void compacter() {
+		Date maintenant = new Date();
+		Date limiteBrute = tronquer(ajouter(maintenant, Calendar.DAY_OF_MONTH, -retentionBruteJours),
+				Calendar.HOUR_OF_DAY);
+		Date limiteHoraire = tronquer(ajouter(maintenant, Calendar.DAY_OF_MONTH, -retentionHoraireJours),
+				Calendar.DAY_OF_MONTH);
+		int heures = compacterMesures(limiteBrute);
+		int jours = compacterHeures(limiteHoraire);
+		log.info("Compaction historique stock {} {}", kv("agregatsHoraires", heures), kv("agregatsJournaliers", jours));
+	}
+
+	// Mesures brutes antérieures à la limite -> agrégats horaires
+	private int compacterMesures(Date limite) {
+		List<HistoriqueStockAgrege> lot = new ArrayList<>(LOT);
+		int agregats = 0;
+		HistoriqueStockAgrege courant = null;
+		List<HistoriqueStock> page = historiqueStockRepository.pageAvant(limite, Long.MIN_VALUE, new Date(0), 0L,
+				PAGE);
+		while (!page.isEmpty()) {
+			for (HistoriqueStock mesure : page) {
+				Date debut = tronquer(mesure.getDateMesure(), Calendar.HOUR_OF_DAY);
+				if (memePeriode(courant, mesure.getIdStock(), debut)) {
+					courant.ajouter(mesure.getQte(), mesure.getQte(), mesure.getQte());
+				} else {
+					agregats += terminer(lot, courant);
+					courant = new HistoriqueStockAgrege(mesure.getIdStock(), GranulariteHistorique.HEURE, debut,
+							mesure.getQte());
+				}
+			}
+			HistoriqueStock dernier = page.get(page.size() - 1);
+			entityManager.clear();
+			page = page.size() < LOT ? Collections.emptyList()
+					: historiqueStockRepository.pageAvant(limite, dernier.getIdStock(), dernier.getDateMesure(),
+							dernier.getIdHistoriqueStock(), PAGE);
+		}
+		agregats += terminer(lot, courant);
+		ecrire(lot);
+		historiqueStockRepository.supprimerAvant(limite);
+		return agregats;
+	}
+
+	// Agrégats horaires antérieurs à la limite -> agrégats journaliers
+	private int compacterHeures(Date limite) {
+		List<HistoriqueStockAgrege> lot = new ArrayList<>(LOT);
+		int agregats = 0;
+		HistoriqueStockAgrege courant = null;
+		List<HistoriqueStockAgrege> page = historiqueStockAgregeRepository.pageAvant(GranulariteHistorique.HEURE,
+				limite, Long.MIN_VALUE, new Date(0), 0L, PAGE);
+		while (!page.isEmpty()) {
+			for (HistoriqueStockAgrege heure : page) {
+				Date debut = tronquer(heure.getDebutPeriode(), Calendar.DAY_OF_MONTH);
+				if (memePeriode(courant, heure.getIdStock(), debut)) {
+					courant.ajouter(heure.getQteMin(), heure.getQteMax(), heure.getQteDerniere());
+				} else {
+					agregats += terminer(lot, courant);
+					courant = new HistoriqueStockAgrege(heure.getIdStock(), GranulariteHistorique.JOUR, debut,
+							heure.getQteDerniere());
+					courant.setQteMin(heure.getQteMin());
+					courant.setQteMax(heure.getQteMax());
+				}
+			}
+			HistoriqueStockAgrege dernier = page.get(page.size() - 1);
+			entityManager.clear();
+			page = page.size() < LOT ? Collections.emptyList()
+					: historiqueStockAgregeRepository.pageAvant(GranulariteHistorique.HEURE, limite,
+							dernier.getIdStock(), dernier.getDebutPeriode(), dernier.getIdHistoriqueStockAgrege(),
+							PAGE);
+		}
+		agregats += terminer(lot, courant);
+		ecrire(lot);
+		historiqueStockAgregeRepository.supprimerAvant(GranulariteHistorique.HEURE, limite);
+		return agregats;
+	}
+
+	// Ajouter un agrégat complet au lot, écrit dès qu'il atteint LOT agrégats
+	private int terminer(List<HistoriqueStockAgrege> lot, HistoriqueStockAgrege agrege) {
+		if (agrege == null) {
+			return 0;
+		}
+		lot.add(agrege);
+		if (lot.size() >= LOT) {
+			ecrire(lot);
+		}
+		return 1;
+	}
+
+	// Insérer le lot puis détacher les agrégats et les mesures déjà lues
+	private void ecrire(List<HistoriqueStockAgrege> lot) {
+		if (lot.isEmpty()) {
+			return;
+		}
+		historiqueStockAgregeRepository.saveAll(lot);
+		entityManager.flush();
+		entityManager.clear();
+		lot.clear();
+	}
+
+	private boolean memePeriode(HistoriqueStockAgrege courant, Long idStock, Date debut) {
+		return courant != null && courant.getIdStock().equals(idStock)
+				&& courant.getDebutPeriode().getTime() == debut.getTime();
+	}
+
+	private static Date tronquer(Date date, int champ) {
+		Calendar cal = Calendar.getInstance();
+		cal.setTime(date);
+		cal.set(Calendar.MILLISECOND, 0);
+		cal.set(Calendar.SECOND, 0);
+		cal.set(Calendar.MINUTE, 0);
+		if (champ == Calendar.DAY_OF_MONTH) {
+			cal.set(Calendar.HOUR_OF_DAY, 0);
+		}
+		return cal.getTime();
+	}
+
+	private static Date ajouter(Date date, int champ, int quantite) {
+		Calendar cal = Calendar.getInstance();
+		cal.setTime(date);
+		cal.add(champ, quantite);
+		return cal.getTime();
+	}
+
+}
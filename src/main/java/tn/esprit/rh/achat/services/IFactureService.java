@@ -12,6 +12,8 @@ public interface IFactureService {
 
 	Facture addFacture(Facture f);
 
+	Facture addFacture(Facture f, boolean deduireStock);
+
 	void cancelFacture(Long id);
 
 	Facture retrieveFacture(Long id);
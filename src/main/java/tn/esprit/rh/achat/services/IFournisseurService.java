@@ -1,21 +1,41 @@
 package tn.esprit.rh.achat.services;
 
+import tn.esprit.rh.achat.entities.AffectationSecteurFournisseur;
+import tn.esprit.rh.achat.entities.BilanFournisseur;
 import tn.esprit.rh.achat.entities.Fournisseur;
+import tn.esprit.rh.achat.entities.FournisseurResume;
+import tn.esprit.rh.achat.entities.LigneClassement;
+import tn.esprit.rh.achat.entities.ResultatImportFournisseurs;
 
+import java.util.Date;
 import java.util.List;
 
 public interface IFournisseurService {
 
 	List<Fournisseur> retrieveAllFournisseurs();
 
+	List<FournisseurResume> retrieveResumesFournisseurs();
+
 	Fournisseur addFournisseur(Fournisseur f);
 
 	void deleteFournisseur(Long id);
 
 	Fournisseur updateFournisseur(Fournisseur f);
 
+	Fournisseur patchFournisseur(Fournisseur f);
+
+	ResultatImportFournisseurs upsertFournisseurs(List<Fournisseur> fournisseurs);
+
 	Fournisseur retrieveFournisseur(Long id);
 	
 	void assignSecteurActiviteToFournisseur(Long idSecteurActivite, Long idFournisseur);
 
+	List<LigneClassement> getTopFournisseurs(Date startDate, Date endDate, int n);
+
+	int assignSecteursActiviteToFournisseurs(List<AffectationSecteurFournisseur> affectations);
+
+	BilanFournisseur getBilanFournisseur(Long idFournisseur);
+
+	List<Long> rechercherParSecteurs(List<Long> tous, List<Long> auMoinsUn, List<Long> aucun);
+
 }
@@ -0,0 +1,20 @@
+package tn.esprit.rh.achat.services;
+
+import tn.esprit.rh.achat.entities.HistoriqueStockAgrege;
+import tn.esprit.rh.achat.entities.Stock;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface IHistoriqueStockService {
+
+	void enregistrer(Stock s);
+
+	void enregistrer(Collection<Stock> stocks);
+
+	List<HistoriqueStockAgrege> retrieveHistorique(Long idStock, Date startDate, Date endDate);
+
+	void compacter();
+
+}
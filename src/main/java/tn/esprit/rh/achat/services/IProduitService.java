@@ -1,12 +1,17 @@
 package tn.esprit.rh.achat.services;
 
+import tn.esprit.rh.achat.entities.AffectationProduitStock;
+import tn.esprit.rh.achat.entities.LigneClassement;
+import tn.esprit.rh.achat.entities.MiseAJourPrix;
 import tn.esprit.rh.achat.entities.Produit;
+import tn.esprit.rh.achat.entities.ProduitVue;
 
+import java.util.Date;
 import java.util.List;
 
 public interface IProduitService {
 
-	List<Produit> retrieveAllProduits();
+	List<ProduitVue> retrieveAllProduits();
 
 	Produit addProduit(Produit p);
 
@@ -14,8 +19,18 @@ public interface IProduitService {
 
 	Produit updateProduit(Produit p);
 
-	Produit retrieveProduit(Long id);
+	ProduitVue retrieveProduit(Long id);
 
 	void assignProduitToStock(Long idProduit, Long idStock);
 
+	List<ProduitVue> rechercherProduits(String requete, int limite);
+
+	float getRevenuBrutProduit(Long idProduit, Date startDate, Date endDate);
+
+	List<LigneClassement> getTopProduits(Date startDate, Date endDate, int n);
+
+	int modifierPrix(MiseAJourPrix miseAJourPrix);
+
+	int assignProduitsToStocks(List<AffectationProduitStock> affectations);
+
 }
@@ -1,8 +1,11 @@
 package tn.esprit.rh.achat.services;
 
+import tn.esprit.rh.achat.entities.HistoriqueStockAgrege;
 import tn.esprit.rh.achat.entities.Stock;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 public interface IStockService {
 
@@ -17,4 +20,8 @@ public interface IStockService {
 	Stock retrieveStock(Long id);
 
 	String retrieveStatusStock();
+
+	List<Long> deduireQuantites(Map<Long, Integer> quantitesParStock);
+
+	List<HistoriqueStockAgrege> retrieveHistoriqueStock(Long idStock, Date startDate, Date endDate);
 }
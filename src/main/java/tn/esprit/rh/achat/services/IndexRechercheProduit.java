@@ -0,0 +1,349 @@
+package tn.esprit.rh.achat.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import tn.esprit.rh.achat.entities.ProduitVue;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/*
+ * Index de recherche en mémoire sur codeProduit et libelleProduit.
+ *
+ * - Préfixe : dictionnaire trié des termes normalisés (code, libellé complet et
+ *   mots du libellé) -> identifiants produits en long[] trié. Une recherche par
+ *   préfixe est un parcours de sous-arbre de la skip list.
+ * - Approché : index des trigrammes vers les mots des libellés ; les mots
+ *   candidats sont classés par coefficient de Dice puis développés en
+ *   produits. Les codes, uniques par produit, n'y figurent pas.
+ *
+ * Les listes sont remplacées (copy-on-write) sous le verrou d'écriture ; les
+ * recherches lisent sans verrou. L'index est construit au premier appel depuis
+ * le catalogue puis tenu à jour par ProduitServiceImpl ; il est reconstruit
+ * quand un rechargement complet du catalogue en change le contenu (écritures
+ * d'autres JVM), pas à chaque rechargement périodique.
+ */
+@Component
+public class IndexRechercheProduit {
+
+	private static final Pattern SEPARATEURS = Pattern.compile("[^\\p{Alnum}]+");
+	private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+	private static final long[] AUCUN = new long[0];
+	private static final double SIMILARITE_MIN = 0.4;
+	private static final int CANDIDATS_MAX = 10_000;
+
+	@Autowired
+	CatalogueProduit catalogueProduit;
+
+	private volatile ConcurrentSkipListMap<String, long[]> termes = new ConcurrentSkipListMap<>();
+	private volatile ConcurrentHashMap<String, String[]> trigrammes = new ConcurrentHashMap<>();
+	private volatile ConcurrentHashMap<Long, String[]> termesParProduit = new ConcurrentHashMap<>();
+	// Mots de libellés présents dans trigrammes -> nombre de produits les portant (sous le verrou)
+	private Map<String, Integer> motsIndexes = new HashMap<>();
+	private Map<Long, String[]> motsParProduit = new HashMap<>();
+	// Rechargement complet du catalogue dont l'index est issu, -1 avant la construction
+	private volatile long chargement = -1;
+
+	public List<ProduitVue> rechercher(String requete, int limite) {
+		initialiser();
+		String q = normaliser(requete);
+		if (q.isEmpty() || limite <= 0) {
+			return Collections.emptyList();
+		}
+		Set<Long> ids = new LinkedHashSet<>();
+		ajouter(ids, termes.get(q), limite);
+		NavigableMap<String, long[]> prefixes = termes.subMap(q, false, q + Character.MAX_VALUE, false);
+		for (long[] produits : prefixes.values()) {
+			if (ids.size() >= limite) {
+				break;
+			}
+			ajouter(ids, produits, limite);
+		}
+		if (ids.size() < limite) {
+			for (Long id : rechercherApproche(q)) {
+				if (ids.size() >= limite) {
+					break;
+				}
+				ids.add(id);
+			}
+		}
+		List<ProduitVue> resultats = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			ProduitVue vue = catalogueProduit.produit(id);
+			if (vue != null) {
+				resultats.add(vue);
+			}
+		}
+		return resultats;
+	}
+
+	public synchronized void indexer(Long idProduit, String codeProduit, String libelleProduit) {
+		if (chargement < 0) {
+			return;
+		}
+		retirerTermes(idProduit);
+		Set<String> mots = mots(libelleProduit);
+		Set<String> aIndexer = termes(codeProduit, libelleProduit, mots);
+		for (String terme : aIndexer) {
+			long[] ancien = termes.get(terme);
+			termes.put(terme, inserer(ancien == null ? AUCUN : ancien, idProduit));
+		}
+		// Un mot déjà présent comme code d'un autre produit n'a pas encore de trigrammes
+		for (String mot : mots) {
+			if (motsIndexes.merge(mot, 1, Integer::sum) == 1) {
+				for (String trigramme : trigrammes(mot)) {
+					String[] t = trigrammes.getOrDefault(trigramme, new String[0]);
+					String[] nouveau = Arrays.copyOf(t, t.length + 1);
+					nouveau[t.length] = mot;
+					trigrammes.put(trigramme, nouveau);
+				}
+			}
+		}
+		termesParProduit.put(idProduit, aIndexer.toArray(new String[0]));
+		motsParProduit.put(idProduit, mots.toArray(new String[0]));
+	}
+
+	public synchronized void retirer(Long idProduit) {
+		if (chargement >= 0) {
+			retirerTermes(idProduit);
+		}
+	}
+
+	/*
+	 * Construction en une passe : les listes sont accumulées puis triées une
+	 * seule fois, au lieu d'une copie par insertion. Les nouvelles structures
+	 * remplacent les anciennes une fois complètes.
+	 */
+	private void initialiser() {
+		long c = catalogueProduit.chargement();
+		if (c == chargement) {
+			return;
+		}
+		synchronized (this) {
+			if (c == chargement) {
+				return;
+			}
+			Map<String, Postings> construction = new HashMap<>();
+			Map<String, Integer> usages = new HashMap<>();
+			ConcurrentHashMap<Long, String[]> parProduit = new ConcurrentHashMap<>();
+			Map<Long, String[]> motsDesProduits = new HashMap<>();
+			for (ProduitVue vue : catalogueProduit.produits()) {
+				Set<String> mots = mots(vue.getLibelleProduit());
+				Set<String> aIndexer = termes(vue.getCodeProduit(), vue.getLibelleProduit(), mots);
+				for (String terme : aIndexer) {
+					construction.computeIfAbsent(terme, t -> new Postings()).ajouter(vue.getIdProduit());
+				}
+				for (String mot : mots) {
+					usages.merge(mot, 1, Integer::sum);
+				}
+				parProduit.put(vue.getIdProduit(), aIndexer.toArray(new String[0]));
+				motsDesProduits.put(vue.getIdProduit(), mots.toArray(new String[0]));
+			}
+			ConcurrentSkipListMap<String, long[]> nouveauxTermes = new ConcurrentSkipListMap<>();
+			for (Map.Entry<String, Postings> e : construction.entrySet()) {
+				nouveauxTermes.put(e.getKey(), e.getValue().trier());
+			}
+			Map<String, List<String>> parTrigramme = new HashMap<>();
+			for (String mot : usages.keySet()) {
+				for (String trigramme : trigrammes(mot)) {
+					parTrigramme.computeIfAbsent(trigramme, t -> new ArrayList<>()).add(mot);
+				}
+			}
+			ConcurrentHashMap<String, String[]> nouveauxTrigrammes = new ConcurrentHashMap<>();
+			parTrigramme.forEach((trigramme, mots) -> nouveauxTrigrammes.put(trigramme, mots.toArray(new String[0])));
+			termes = nouveauxTermes;
+			trigrammes = nouveauxTrigrammes;
+			termesParProduit = parProduit;
+			motsIndexes = usages;
+			motsParProduit = motsDesProduits;
+			chargement = c;
+		}
+	}
+
+	private void retirerTermes(Long idProduit) {
+		String[] anciens = termesParProduit.remove(idProduit);
+		if (anciens == null) {
+			return;
+		}
+		for (String terme : anciens) {
+			long[] produits = supprimer(termes.get(terme), idProduit);
+			if (produits.length > 0) {
+				termes.put(terme, produits);
+			} else {
+				termes.remove(terme);
+			}
+		}
+		for (String terme : motsParProduit.remove(idProduit)) {
+			Integer usages = motsIndexes.get(terme);
+			if (usages == null) {
+				continue;
+			}
+			if (usages > 1) {
+				motsIndexes.put(terme, usages - 1);
+				continue;
+			}
+			motsIndexes.remove(terme);
+			for (String trigramme : trigrammes(terme)) {
+				String[] t = trigrammes.get(trigramme);
+				if (t == null || !Arrays.asList(t).contains(terme)) {
+					continue;
+				}
+				List<String> restants = new ArrayList<>(Arrays.asList(t));
+				restants.remove(terme);
+				if (restants.isEmpty()) {
+					trigrammes.remove(trigramme);
+				} else {
+					trigrammes.put(trigramme, restants.toArray(new String[0]));
+				}
+			}
+		}
+	}
+
+	/*
+	 * Chaque mot de la requête est rapproché des mots des libellés ; un
+	 * produit doit correspondre à tous les mots. Les produits sont rendus du
+	 * mot le plus similaire au moins similaire.
+	 */
+	private Set<Long> rechercherApproche(String q) {
+		Set<Long> resultat = null;
+		for (String mot : SEPARATEURS.split(q)) {
+			if (mot.isEmpty()) {
+				continue;
+			}
+			Set<Long> candidats = new LinkedHashSet<>();
+			for (String terme : motsApproches(mot)) {
+				if (candidats.size() >= CANDIDATS_MAX) {
+					break;
+				}
+				ajouter(candidats, termes.get(terme), CANDIDATS_MAX);
+			}
+			if (resultat == null) {
+				resultat = candidats;
+			} else {
+				resultat.retainAll(candidats);
+			}
+		}
+		return resultat == null ? Collections.emptySet() : resultat;
+	}
+
+	private List<String> motsApproches(String mot) {
+		Set<String> trigrammesMot = trigrammes(mot);
+		Map<String, Integer> communs = new HashMap<>();
+		for (String trigramme : trigrammesMot) {
+			String[] candidats = trigrammes.get(trigramme);
+			if (candidats != null) {
+				for (String terme : candidats) {
+					communs.merge(terme, 1, Integer::sum);
+				}
+			}
+		}
+		Map<String, Double> similarites = new HashMap<>();
+		for (Map.Entry<String, Integer> e : communs.entrySet()) {
+			double dice = 2.0 * e.getValue() / (trigrammesMot.size() + trigrammes(e.getKey()).size());
+			if (dice >= SIMILARITE_MIN) {
+				similarites.put(e.getKey(), dice);
+			}
+		}
+		List<String> resultat = new ArrayList<>(similarites.keySet());
+		resultat.sort((a, b) -> Double.compare(similarites.get(b), similarites.get(a)));
+		return resultat;
+	}
+
+	private static Set<String> mots(String libelleProduit) {
+		Set<String> mots = new LinkedHashSet<>(Arrays.asList(SEPARATEURS.split(normaliser(libelleProduit))));
+		mots.remove("");
+		return mots;
+	}
+
+	private static Set<String> termes(String codeProduit, String libelleProduit, Set<String> mots) {
+		Set<String> termes = new LinkedHashSet<>();
+		termes.add(normaliser(codeProduit));
+		termes.add(normaliser(libelleProduit));
+		termes.addAll(mots);
+		termes.remove("");
+		return termes;
+	}
+
+	private static void ajouter(Set<Long> ids, long[] produits, int limite) {
+		if (produits == null) {
+			return;
+		}
+		for (int i = 0; i < produits.length && ids.size() < limite; i++) {
+			ids.add(produits[i]);
+		}
+	}
+
+	private static long[] inserer(long[] produits, long id) {
+		int position = Arrays.binarySearch(produits, id);
+		if (position >= 0) {
+			return produits;
+		}
+		position = -position - 1;
+		long[] nouveau = new long[produits.length + 1];
+		System.arraycopy(produits, 0, nouveau, 0, position);
+		nouveau[position] = id;
+		System.arraycopy(produits, position, nouveau, position + 1, produits.length - position);
+		return nouveau;
+	}
+
+	private static long[] supprimer(long[] produits, long id) {
+		int position = produits == null ? -1 : Arrays.binarySearch(produits, id);
+		if (position < 0) {
+			return produits == null ? AUCUN : produits;
+		}
+		long[] nouveau = new long[produits.length - 1];
+		System.arraycopy(produits, 0, nouveau, 0, position);
+		System.arraycopy(produits, position + 1, nouveau, position, produits.length - position - 1);
+		return nouveau;
+	}
+
+	static Set<String> trigrammes(String terme) {
+		String t = " " + terme + " ";
+		Set<String> resultat = new LinkedHashSet<>();
+		for (int i = 0; i + 3 <= t.length(); i++) {
+			resultat.add(t.substring(i, i + 3));
+		}
+		return resultat;
+	}
+
+	static String normaliser(String texte) {
+		if (texte == null) {
+			return "";
+		}
+		String sansAccents = DIACRITIQUES.matcher(Normalizer.normalize(texte, Normalizer.Form.NFD)).replaceAll("");
+		return sansAccents.toLowerCase(Locale.ROOT).trim();
+	}
+
+	private static final class Postings {
+
+		private long[] ids = new long[1];
+		private int taille;
+
+		void ajouter(long id) {
+			if (taille == ids.length) {
+				ids = Arrays.copyOf(ids, taille * 2);
+			}
+			ids[taille++] = id;
+		}
+
+		long[] trier() {
+			long[] resultat = Arrays.copyOf(ids, taille);
+			Arrays.sort(resultat);
+			return resultat;
+		}
+
+	}
+
+}
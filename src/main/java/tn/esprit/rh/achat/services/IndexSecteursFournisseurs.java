@@ -0,0 +1,157 @@
+package tn.esprit.rh.achat.services;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import tn.esprit.rh.achat.entities.AffectationSecteurFournisseur;
+import tn.esprit.rh.achat.repositories.FournisseurRepository;
+import tn.esprit.rh.achat.util.Transactions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Index en mémoire de l'appartenance fournisseur <-> secteur d'activité : un
+ * bitmap compressé (Roaring) par secteur, indexé par l'identifiant du
+ * fournisseur, plus le bitmap de tous les fournisseurs pour les exclusions.
+ * Les requêtes ensemblistes (tous / au moins un / aucun) se font par
+ * ET / OU / ET NON de bitmaps sans toucher la base.
+ *
+ * Construit au premier appel puis tenu à jour, après commit, par
+ * FournisseurServiceImpl et SecteurActiviteServiceImpl.
+ */
+@Component
+public class IndexSecteursFournisseurs {
+
+	@Autowired
+	FournisseurRepository fournisseurRepository;
+
+	private final ReadWriteLock verrou = new ReentrantReadWriteLock();
+	private final Map<Long, RoaringBitmap> parSecteur = new HashMap<>();
+	private final RoaringBitmap fournisseurs = new RoaringBitmap();
+	private volatile boolean initialise;
+
+	/*
+	 * Fournisseurs rattachés à tous les secteurs "tous", à au moins un des
+	 * secteurs "auMoinsUn" (si la liste n'est pas vide) et à aucun des
+	 * secteurs "aucun"
+	 */
+	public List<Long> rechercher(Collection<Long> tous, Collection<Long> auMoinsUn, Collection<Long> aucun) {
+		initialiser();
+		RoaringBitmap resultat;
+		verrou.readLock().lock();
+		try {
+			resultat = fournisseurs.clone();
+			for (Long idSecteur : tous) {
+				resultat.and(secteur(idSecteur));
+			}
+			if (!auMoinsUn.isEmpty()) {
+				RoaringBitmap union = new RoaringBitmap();
+				for (Long idSecteur : auMoinsUn) {
+					union.or(secteur(idSecteur));
+				}
+				resultat.and(union);
+			}
+			for (Long idSecteur : aucun) {
+				resultat.andNot(secteur(idSecteur));
+			}
+		} finally {
+			verrou.readLock().unlock();
+		}
+		List<Long> ids = new ArrayList<>(resultat.getCardinality());
+		resultat.forEach((int id) -> ids.add((long) id));
+		return ids;
+	}
+
+	public void ajouterFournisseur(Long idFournisseur) {
+		Transactions.apresCommit(() -> ecrire(() -> fournisseurs.add(ordinal(idFournisseur))));
+	}
+
+	public void affecter(Long idSecteur, Long idFournisseur) {
+		Transactions.apresCommit(() -> ecrire(() -> {
+			fournisseurs.add(ordinal(idFournisseur));
+			parSecteur.computeIfAbsent(idSecteur, s -> new RoaringBitmap()).add(ordinal(idFournisseur));
+		}));
+	}
+
+	public void affecter(Collection<AffectationSecteurFournisseur> affectations) {
+		Transactions.apresCommit(() -> ecrire(() -> {
+			for (AffectationSecteurFournisseur affectation : affectations) {
+				int ordinal = ordinal(affectation.getIdFournisseur());
+				fournisseurs.add(ordinal);
+				parSecteur.computeIfAbsent(affectation.getIdSecteurActivite(), s -> new RoaringBitmap()).add(ordinal);
+			}
+		}));
+	}
+
+	public void retirerFournisseur(Long idFournisseur) {
+		Transactions.apresCommit(() -> ecrire(() -> {
+			fournisseurs.remove(ordinal(idFournisseur));
+			for (RoaringBitmap membres : parSecteur.values()) {
+				membres.remove(ordinal(idFournisseur));
+			}
+		}));
+	}
+
+	public void retirerSecteur(Long idSecteur) {
+		Transactions.apresCommit(() -> ecrire(() -> parSecteur.remove(idSecteur)));
+	}
+
+	private RoaringBitmap secteur(Long idSecteur) {
+		RoaringBitmap membres = parSecteur.get(idSecteur);
+		return membres == null ? new RoaringBitmap() : membres;
+	}
+
+	// Avant l'initialisation, la lecture complète de la base suffit
+	private void ecrire(Runnable modification) {
+		verrou.writeLock().lock();
+		try {
+			if (initialise) {
+				modification.run();
+			}
+		} finally {
+			verrou.writeLock().unlock();
+		}
+	}
+
+	private void initialiser() {
+		if (initialise) {
+			return;
+		}
+		verrou.writeLock().lock();
+		try {
+			if (initialise) {
+				return;
+			}
+			for (Long idFournisseur : fournisseurRepository.retrieveIdsFournisseurs()) {
+				fournisseurs.add(ordinal(idFournisseur));
+			}
+			for (Object[] couple : fournisseurRepository.retrieveSecteursFournisseurs()) {
+				parSecteur.computeIfAbsent((Long) couple[0], s -> new RoaringBitmap()).add(ordinal((Long) couple[1]));
+			}
+			fournisseurs.runOptimize();
+			for (RoaringBitmap membres : parSecteur.values()) {
+				membres.runOptimize();
+			}
+			initialise = true;
+		} finally {
+			verrou.writeLock().unlock();
+		}
+	}
+
+	/*
+	 * Les identifiants servent directement d'ordinaux dans les bitmaps 32 bits.
+	 * Séquence pooled-lo (blocs de 50) : chaque démarrage abandonne au plus
+	 * deux blocs, des trous sans effet notable sur des bitmaps compressés. Un
+	 * identifiant au-delà d'Integer.MAX_VALUE lève une ArithmeticException.
+	 */
+	private static int ordinal(Long idFournisseur) {
+		return Math.toIntExact(idFournisseur);
+	}
+
+}
@@ -3,14 +3,28 @@ package tn.esprit.rh.achat.services;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.rh.achat.entities.AffectationProduitStock;
+import tn.esprit.rh.achat.entities.LigneClassement;
+import tn.esprit.rh.achat.entities.MiseAJourPrix;
+import tn.esprit.rh.achat.entities.PrixProduit;
 import tn.esprit.rh.achat.entities.Produit;
+import tn.esprit.rh.achat.entities.ProduitVue;
 import tn.esprit.rh.achat.entities.Stock;
+import tn.esprit.rh.achat.entities.VariationPrixCategorie;
 import tn.esprit.rh.achat.repositories.CategorieProduitRepository;
 import tn.esprit.rh.achat.repositories.ProduitRepository;
+import tn.esprit.rh.achat.repositories.RevenuProduitJourRepository;
 import tn.esprit.rh.achat.repositories.StockRepository;
+import tn.esprit.rh.achat.util.ExecuteurRapports;
+import tn.esprit.rh.achat.util.Transactions;
 
-import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.NoSuchElementException;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
 
 @Service
 @Slf4j
@@ -22,19 +36,27 @@ public class ProduitServiceImpl implements IProduitService {
 	StockRepository stockRepository;
 	@Autowired
 	CategorieProduitRepository categorieProduitRepository;
+	@Autowired
+	CatalogueProduit catalogueProduit;
+	@Autowired
+	IndexRechercheProduit indexRechercheProduit;
+	@Autowired
+	RevenuProduitJourRepository revenuProduitJourRepository;
+	@Autowired
+	ClassementRevenus classementRevenus;
 
 	@Override
-	public List<Produit> retrieveAllProduits() {
-		List<Produit> produits = (List<Produit>) produitRepository.findAll();
-		for (Produit produit : produits) {
-			log.info(" Produit : " + produit);
-		}
+	public List<ProduitVue> retrieveAllProduits() {
+		List<ProduitVue> produits = catalogueProduit.produits();
+		log.info("Produits lus {}", kv("produits", produits.size()));
 		return produits;
 	}
 
 	@Transactional
 	public Produit addProduit(Produit p) {
 		produitRepository.save(p);
+		catalogueProduit.invalider(p.getIdProduit());
+		indexer(p);
 		return p;
 	}
 
@@ -43,17 +65,22 @@ public class ProduitServiceImpl implements IProduitService {
 	@Override
 	public void deleteProduit(Long produitId) {
 		produitRepository.deleteById(produitId);
+		catalogueProduit.invalider(produitId);
+		Transactions.apresCommit(() -> indexRechercheProduit.retirer(produitId));
 	}
 
 	@Override
 	public Produit updateProduit(Produit p) {
-		return produitRepository.save(p);
+		Produit produit = produitRepository.save(p);
+		catalogueProduit.invalider(produit.getIdProduit());
+		indexer(produit);
+		return produit;
 	}
 
 	@Override
-	public Produit retrieveProduit(Long produitId) {
-		Produit produit = produitRepository.findById(produitId).orElse(null);
-		log.info("produit :" + produit);
+	public ProduitVue retrieveProduit(Long produitId) {
+		ProduitVue produit = catalogueProduit.produit(produitId);
+		log.debug("Produit lu {}", kv("idProduit", produitId));
 		return produit;
 	}
 
@@ -63,8 +90,91 @@ public class ProduitServiceImpl implements IProduitService {
 		Stock stock = stockRepository.findById(idStock).orElse(null);
 		produit.setStock(stock);
 		produitRepository.save(produit);
+		catalogueProduit.invalider(idProduit);
+
+	}
+
+	@Override
+	public List<ProduitVue> rechercherProduits(String requete, int limite) {
+		return indexRechercheProduit.rechercher(requete, limite);
+	}
 
+	@Override
+	@Transactional(readOnly = true, timeoutString = ExecuteurRapports.DELAI_SQL)
+	public float getRevenuBrutProduit(Long idProduit, Date startDate, Date endDate) {
+		return (float) revenuProduitJourRepository.getRevenuBrutProduit(idProduit, startDate, endDate);
+	}
+
+	@Override
+	@Transactional(readOnly = true, timeoutString = ExecuteurRapports.DELAI_SQL)
+	public List<LigneClassement> getTopProduits(Date startDate, Date endDate, int n) {
+		return classementRevenus.topProduits(startDate, endDate, n);
 	}
 
+	/*
+	 * Variations par catégorie puis prix explicites, en lots JDBC. Tout est
+	 * annulé si un produit est introuvable ; le cache du catalogue n'est
+	 * invalidé qu'une fois pour tout le lot.
+	 */
+	@Override
+	@Transactional
+	public int modifierPrix(MiseAJourPrix miseAJourPrix) {
+		List<VariationPrixCategorie> variations = miseAJourPrix.getCategories() == null ? new ArrayList<>()
+				: miseAJourPrix.getCategories();
+		List<PrixProduit> prix = miseAJourPrix.getPrix() == null ? new ArrayList<>() : miseAJourPrix.getPrix();
+		for (VariationPrixCategorie variation : variations) {
+			if (variation.getIdCategorieProduit() == null || variation.getPourcentage() <= -100) {
+				throw new IllegalArgumentException("Variation invalide pour la catégorie "
+						+ variation.getIdCategorieProduit() + " : " + variation.getPourcentage() + " %");
+			}
+		}
+		List<Long> idsProduits = new ArrayList<>();
+		for (PrixProduit p : prix) {
+			if (p.getIdProduit() == null || p.getPrix() < 0) {
+				throw new IllegalArgumentException("Prix invalide pour le produit " + p.getIdProduit() + " : " + p.getPrix());
+			}
+			idsProduits.add(p.getIdProduit());
+		}
+		Date maintenant = new Date();
+		int modifies = variations.isEmpty() ? 0 : produitRepository.appliquerVariations(variations, maintenant);
+		if (!prix.isEmpty()) {
+			List<Long> introuvables = produitRepository.modifierPrix(prix, maintenant);
+			if (!introuvables.isEmpty()) {
+				throw new NoSuchElementException("Produits introuvables : " + introuvables);
+			}
+			modifies += prix.size();
+		}
+		if (!variations.isEmpty()) {
+			catalogueProduit.invaliderTout();
+		} else if (!idsProduits.isEmpty()) {
+			catalogueProduit.invalider(idsProduits);
+		}
+		log.info("Mise à jour des prix {}", kv("produits", modifies));
+		return modifies;
+	}
+
+	// Affectation en masse, sans charger les produits ni les stocks
+	@Override
+	@Transactional
+	public int assignProduitsToStocks(List<AffectationProduitStock> affectations) {
+		if (affectations.isEmpty()) {
+			return 0;
+		}
+		int modifies = produitRepository.affecterStocks(affectations);
+		List<Long> idsProduits = new ArrayList<>();
+		for (AffectationProduitStock affectation : affectations) {
+			idsProduits.add(affectation.getIdProduit());
+		}
+		catalogueProduit.invalider(idsProduits);
+		log.info("Affectation des produits à leur stock {}", kv("produits", modifies));
+		return modifies;
+	}
+
+	private void indexer(Produit p) {
+		Long idProduit = p.getIdProduit();
+		String codeProduit = p.getCodeProduit();
+		String libelleProduit = p.getLibelleProduit();
+		Transactions.apresCommit(() -> indexRechercheProduit.indexer(idProduit, codeProduit, libelleProduit));
+	}
 
 }
\ No newline at end of file
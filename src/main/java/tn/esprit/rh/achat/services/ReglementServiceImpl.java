@@ -2,9 +2,11 @@ package tn.esprit.rh.achat.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import tn.esprit.rh.achat.entities.Reglement;
 import tn.esprit.rh.achat.repositories.FactureRepository;
 import tn.esprit.rh.achat.repositories.ReglementRepository;
+import tn.esprit.rh.achat.util.ExecuteurRapports;
 
 import java.util.Date;
 import java.util.List;
@@ -16,7 +18,11 @@ public class ReglementServiceImpl implements IReglementService {
 	FactureRepository factureRepository;
 	@Autowired
 	ReglementRepository reglementRepository;
+	@Autowired
+	BilanFournisseurs bilanFournisseurs;
+
 	@Override
+	@Transactional(readOnly = true)
 	public List<Reglement> retrieveAllReglements() {
 		return (List<Reglement>) reglementRepository.findAll();
 	}
@@ -24,6 +30,10 @@ public class ReglementServiceImpl implements IReglementService {
 	@Override
 	public Reglement addReglement(Reglement r) {
         reglementRepository.save(r);
+		if (r.getFacture() != null && r.getFacture().getIdFacture() != null) {
+			factureRepository.findById(r.getFacture().getIdFacture())
+					.ifPresent(facture -> bilanFournisseurs.ajouterReglement(facture, r));
+		}
 		return r;
 	}
 
@@ -35,6 +45,7 @@ public class ReglementServiceImpl implements IReglementService {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Reglement> retrieveReglementByFacture(Long idFacture) {
 		List<Reglement> reglements= reglementRepository.retrieveReglementByFacture(idFacture);
 		return reglements;
@@ -45,6 +56,7 @@ public class ReglementServiceImpl implements IReglementService {
 	}
 
 	@Override
+	@Transactional(readOnly = true, timeoutString = ExecuteurRapports.DELAI_SQL)
 	public float getChiffreAffaireEntreDeuxDate(Date startDate, Date endDate) {
 		return reglementRepository.getChiffreAffaireEntreDeuxDate( startDate, endDate);
 	}
@@ -12,6 +12,10 @@ public class SecteurActiviteServiceImpl implements ISecteurActiviteService{
 
 	@Autowired
 	SecteurActiviteRepository secteurActiviteRepository;
+	@Autowired
+	VersionsTables versionsTables;
+	@Autowired
+	IndexSecteursFournisseurs indexSecteursFournisseurs;
 	@Override
 	public List<SecteurActivite> retrieveAllSecteurActivite() {
 		return (List<SecteurActivite>) secteurActiviteRepository.findAll();
@@ -20,18 +24,22 @@ public class SecteurActiviteServiceImpl implements ISecteurActiviteService{
 	@Override
 	public SecteurActivite addSecteurActivite(SecteurActivite sa) {
 		secteurActiviteRepository.save(sa);
+		versionsTables.modifier(VersionsTables.SECTEUR_ACTIVITE);
 		return sa;
 	}
 
 	@Override
 	public void deleteSecteurActivite(Long id) {
 		secteurActiviteRepository.deleteById(id);
+		versionsTables.modifier(VersionsTables.SECTEUR_ACTIVITE);
+		indexSecteursFournisseurs.retirerSecteur(id);
 		
 	}
 
 	@Override
 	public SecteurActivite updateSecteurActivite(SecteurActivite sa) {
 		secteurActiviteRepository.save(sa);
+		versionsTables.modifier(VersionsTables.SECTEUR_ACTIVITE);
 		return sa;
 	}
 
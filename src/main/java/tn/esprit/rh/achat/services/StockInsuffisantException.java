@@ -0,0 +1,24 @@
+package tn.esprit.rh.achat.services;
+
+import java.util.List;
+
+/*
+ * Levée lorsqu'une facture ne peut pas être créée faute de stock : la
+ * transaction est annulée et aucune quantité n'est débitée.
+ */
+public class StockInsuffisantException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<String> lignes;
+
+	public StockInsuffisantException(List<String> lignes) {
+		super("Stock insuffisant pour les lignes : " + String.join(", ", lignes));
+		this.lignes = lignes;
+	}
+
+	public List<String> getLignes() {
+		return lignes;
+	}
+
+}
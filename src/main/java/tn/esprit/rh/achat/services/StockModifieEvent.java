@@ -0,0 +1,31 @@
+package tn.esprit.rh.achat.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import tn.esprit.rh.achat.entities.Stock;
+
+/*
+ * Changement de niveau d'un stock, publié par StockServiceImpl après chaque
+ * écriture et diffusé aux abonnés de /stock/flux-stocks
+ */
+@Getter
+@AllArgsConstructor
+public class StockModifieEvent {
+
+	private final Long idStock;
+	private final String libelleStock;
+	private final Integer qte;
+	private final Integer qteMin;
+	private final Boolean enRouge;
+	private final boolean supprime;
+
+	public static StockModifieEvent modifie(Stock s) {
+		return new StockModifieEvent(s.getIdStock(), s.getLibelleStock(), s.getQte(), s.getQteMin(), s.getEnRouge(),
+				false);
+	}
+
+	public static StockModifieEvent supprime(Long idStock) {
+		return new StockModifieEvent(idStock, null, null, null, null, true);
+	}
+
+}
@@ -2,13 +2,23 @@ package tn.esprit.rh.achat.services;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.rh.achat.entities.HistoriqueStockAgrege;
 import tn.esprit.rh.achat.entities.Stock;
 import tn.esprit.rh.achat.repositories.StockRepository;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
 
 @Service
 @Slf4j
@@ -16,53 +26,48 @@ public class StockServiceImpl implements IStockService {
 
 	@Autowired
 	StockRepository stockRepository;
+	@Autowired
+	IHistoriqueStockService historiqueStockService;
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
 
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Stock> retrieveAllStocks() {
-		// récuperer la date à l'instant t1
-		log.info("In method retrieveAllStocks");
 		List<Stock> stocks = (List<Stock>) stockRepository.findAll();
-		for (Stock stock : stocks) {
-			log.info(" Stock : " + stock);
-		}
-		log.info("out of method retrieveAllStocks");
-		// récuperer la date à l'instant t2
-		// temps execution = t2 - t1
+		log.info("Stocks lus {}", kv("stocks", stocks.size()));
 		return stocks;
 	}
 
 	@Override
 	public Stock addStock(Stock s) {
-		// récuperer la date à l'instant t1
-		log.info("In method addStock");
-		return stockRepository.save(s);
+		Stock stock = stockRepository.save(s);
+		historiqueStockService.enregistrer(stock);
+		eventPublisher.publishEvent(StockModifieEvent.modifie(stock));
+		return stock;
 		
 	}
 
 	@Override
 	public void deleteStock(Long stockId) {
-		log.info("In method deleteStock");
 		stockRepository.deleteById(stockId);
+		eventPublisher.publishEvent(StockModifieEvent.supprime(stockId));
 
 	}
 
 	@Override
 	public Stock updateStock(Stock s) {
-		log.info("In method updateStock");
-		return stockRepository.save(s);
+		Stock stock = stockRepository.save(s);
+		historiqueStockService.enregistrer(stock);
+		eventPublisher.publishEvent(StockModifieEvent.modifie(stock));
+		return stock;
 	}
 
 	@Override
 	public Stock retrieveStock(Long stockId) {
-		long start = System.currentTimeMillis();
-		log.info("In method retrieveStock");
-		Stock stock = stockRepository.findById(stockId).orElse(null);
-		log.info("out of method retrieveStock");
-		 long elapsedTime = System.currentTimeMillis() - start;
-		log.info("Method execution time: " + elapsedTime + " milliseconds.");
-
-		return stock;
+		// Durée, appels et erreurs : timer achat.methode (util/MesuresAspect)
+		return stockRepository.findById(stockId).orElse(null);
 	}
 
 	@Override
@@ -80,8 +85,42 @@ public class StockServiceImpl implements IStockService {
 					+ newLine;
 
 		}
-		log.info(finalMessage);
+		log.info("Stocks en rouge {}", kv("stocks", stocksEnRouge.size()));
 		return finalMessage;
 	}
 
-}
\ No newline at end of file
+	/*
+	 * Débiter les stocks en un seul lot : une mise à jour conditionnelle par
+	 * stock. Les stocks insuffisants ne sont pas modifiés et sont retournés à
+	 * l'appelant, qui décide d'annuler (rollback) ou non sa transaction.
+	 */
+	@Override
+	public List<Long> deduireQuantites(Map<Long, Integer> quantitesParStock) {
+		List<Long> insuffisants = stockRepository.retrancherQuantites(quantitesParStock);
+		Set<Long> debites = new HashSet<>(quantitesParStock.keySet());
+		debites.removeAll(insuffisants);
+		if (!debites.isEmpty()) {
+			List<Stock> stocks = stockRepository.lireStocks(debites);
+			historiqueStockService.enregistrer(stocks);
+			for (Stock stock : stocks) {
+				eventPublisher.publishEvent(StockModifieEvent.modifie(stock));
+			}
+		}
+		return insuffisants;
+	}
+
+	@Override
+	public List<HistoriqueStockAgrege> retrieveHistoriqueStock(Long idStock, Date startDate, Date endDate) {
+		return historiqueStockService.retrieveHistorique(idStock, startDate, endDate);
+	}
+
+	// Les stocks créés avant la colonne en_rouge n'ont pas encore d'indicateur
+	@EventListener(ApplicationReadyEvent.class)
+	public void initialiserEnRouge() {
+		int stocks = stockRepository.initialiserEnRouge();
+		if (stocks > 0) {
+			log.info("Indicateur en_rouge initialisé {}", kv("stocks", stocks));
+		}
+	}
+
+}
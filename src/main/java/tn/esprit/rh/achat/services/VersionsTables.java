@@ -0,0 +1,44 @@
+package tn.esprit.rh.achat.services;
+
+import org.springframework.stereotype.Component;
+import tn.esprit.rh.achat.util.Transactions;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Version de modification par table de référence, incrémentée par les
+ * services après le commit de chaque écriture. Les contrôleurs en dérivent
+ * des ETags forts : un If-None-Match à jour est servi en 304 sans requête SQL.
+ *
+ * Les compteurs sont propres à la JVM ; l'instant de démarrage fait partie de
+ * l'ETag pour qu'un redémarrage ne réutilise jamais une ancienne valeur.
+ */
+@Component
+public class VersionsTables {
+
+	public static final String PRODUIT = "produit";
+	public static final String CATEGORIE_PRODUIT = "categorie_produit";
+	public static final String SECTEUR_ACTIVITE = "secteur_activite";
+
+	private final String demarrage = Long.toString(System.currentTimeMillis(), 36);
+	private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+	public long version(String table) {
+		return compteur(table).get();
+	}
+
+	// Marquer la table modifiée, après le commit de la transaction en cours
+	public void modifier(String table) {
+		Transactions.apresCommit(() -> compteur(table).incrementAndGet());
+	}
+
+	public String etag(String table) {
+		return "\"" + table + "-" + demarrage + "-" + version(table) + "\"";
+	}
+
+	private AtomicLong compteur(String table) {
+		return versions.computeIfAbsent(table, t -> new AtomicLong());
+	}
+
+}
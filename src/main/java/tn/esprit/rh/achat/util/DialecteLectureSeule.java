@@ -0,0 +1,61 @@
+package tn.esprit.rh.achat.util;
+
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+
+/*
+ * Une transaction readOnly peut être servie par la réplique, éventuellement en
+ * retard : elle lit le cache de second niveau mais n'y ajoute rien (storeMode
+ * BYPASS), qu'elle soit routée vers la réplique ou repliée sur le primaire.
+ * Seules les transactions en écriture, toujours sur le primaire, remplissent le
+ * cache. Propriété de l'EntityManager et non CacheMode de la session : find()
+ * recalcule le CacheMode à partir de ces propriétés. La valeur précédente est
+ * rétablie en fin de transaction : avec open-in-view, l'EntityManager sert aux
+ * transactions suivantes de la requête.
+ */
+public class DialecteLectureSeule extends HibernateJpaDialect {
+
+	private static final String STORE_MODE = "javax.persistence.cache.storeMode";
+
+	@Override
+	public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+			throws SQLException {
+		Object donnees = super.beginTransaction(entityManager, definition);
+		if (!definition.isReadOnly()) {
+			return donnees;
+		}
+		Object precedent = entityManager.getProperties().getOrDefault(STORE_MODE, CacheStoreMode.USE);
+		entityManager.setProperty(STORE_MODE, CacheStoreMode.BYPASS);
+		return new LectureSeule(donnees, entityManager, precedent);
+	}
+
+	@Override
+	public void cleanupTransaction(Object transactionData) {
+		Object donnees = transactionData;
+		if (transactionData instanceof LectureSeule) {
+			LectureSeule lecture = (LectureSeule) transactionData;
+			if (lecture.entityManager.isOpen()) {
+				lecture.entityManager.setProperty(STORE_MODE, lecture.precedent);
+			}
+			donnees = lecture.donnees;
+		}
+		super.cleanupTransaction(donnees);
+	}
+
+	private static final class LectureSeule {
+		private final Object donnees;
+		private final EntityManager entityManager;
+		private final Object precedent;
+
+		private LectureSeule(Object donnees, EntityManager entityManager, Object precedent) {
+			this.donnees = donnees;
+			this.entityManager = entityManager;
+			this.precedent = precedent;
+		}
+	}
+
+}
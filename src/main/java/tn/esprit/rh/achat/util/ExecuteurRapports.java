@@ -0,0 +1,113 @@
+package tn.esprit.rh.achat.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+ * Exécution des rapports (agrégats sur une période) hors des threads Tomcat :
+ * le contrôleur rend un DeferredResult et libère son thread, le calcul passe
+ * par un pool borné avec une file bornée. File pleine ou délai dépassé : 503
+ * (RapportIndisponibleException), un calcul encore en file à l'expiration
+ * n'est pas lancé, un calcul commencé est interrompu. L'interruption ne coupe
+ * pas une requête SQL en cours : les méthodes de service des rapports portent
+ * un délai de transaction (DELAI_SQL) qui borne leurs requêtes et libère le
+ * thread ; ce délai dépassé donne aussi un 503, toute autre erreur du calcul
+ * est rendue telle quelle. Les requêtes SQL des rapports, faites sur les threads du pool, ne
+ * sont pas comptées dans le profil SQL de la requête HTTP.
+ *
+ * Mesures : executor.* {name=achat.rapports} (actifs, en file, durées),
+ * achat.rapports.rejets et achat.rapports.expirations par rapport.
+ */
+@Slf4j
+@Component
+public class ExecuteurRapports implements DisposableBean {
+
+	static final String NOM = "achat.rapports";
+
+	/*
+	 * Délai de transaction (secondes, arrondi au-dessus) des méthodes de
+	 * service appelées par les rapports : achat.rapports.delai-ms, appliqué
+	 * comme query timeout JDBC à chaque requête de la transaction
+	 */
+	public static final String DELAI_SQL = "#{(${achat.rapports.delai-ms:30000} + 999) / 1000}";
+
+	private final ThreadPoolExecutor pool;
+	private final ExecutorService executeur;
+	private final MeterRegistry registry;
+	private final long delaiMs;
+
+	public ExecuteurRapports(MeterRegistry registry,
+			@Value("${achat.rapports.taille-pool:4}") int taillePool,
+			@Value("${achat.rapports.capacite-file:50}") int capaciteFile,
+			@Value("${achat.rapports.delai-ms:30000}") long delaiMs) {
+		this.registry = registry;
+		this.delaiMs = delaiMs;
+		this.pool = new ThreadPoolExecutor(taillePool, taillePool, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(capaciteFile), new CustomizableThreadFactory("rapport-"));
+		this.executeur = ExecutorServiceMetrics.monitor(registry, pool, NOM, Tags.empty());
+	}
+
+	/*
+	 * Calcul du rapport sur le pool ; RapportIndisponibleException immédiate
+	 * si la file est pleine
+	 */
+	public <T> DeferredResult<T> executer(String rapport, Supplier<T> calcul) {
+		DeferredResult<T> resultat = new DeferredResult<>(delaiMs);
+		Future<?> tache;
+		try {
+			tache = executeur.submit(() -> {
+				try {
+					resultat.setResult(calcul.get());
+				} catch (QueryTimeoutException | TransactionTimedOutException e) {
+					compteur("achat.rapports.expirations", rapport).increment();
+					log.warn("Rapport interrompu, délai SQL dépassé {} {}", kv("rapport", rapport), kv("delaiMs", delaiMs));
+					resultat.setErrorResult(new RapportIndisponibleException("Rapport non calculé en " + delaiMs + " ms"));
+				} catch (Throwable e) {
+					resultat.setErrorResult(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			compteur("achat.rapports.rejets", rapport).increment();
+			log.warn("Rapport refusé, file pleine {} {}", kv("rapport", rapport), kv("enFile", pool.getQueue().size()));
+			throw new RapportIndisponibleException("Trop de rapports en cours, réessayer plus tard");
+		}
+		// Réponse 503 fixée avant l'interruption : le calcul interrompu ne peut plus la remplacer
+		resultat.onTimeout(() -> {
+			compteur("achat.rapports.expirations", rapport).increment();
+			log.warn("Rapport expiré {} {}", kv("rapport", rapport), kv("delaiMs", delaiMs));
+			resultat.setErrorResult(new RapportIndisponibleException("Rapport non calculé en " + delaiMs + " ms"));
+			tache.cancel(true);
+		});
+		return resultat;
+	}
+
+	private Counter compteur(String nom, String rapport) {
+		return Counter.builder(nom).tag("rapport", rapport).register(registry);
+	}
+
+	@Override
+	public void destroy() {
+		pool.shutdownNow();
+	}
+
+}
@@ -0,0 +1,106 @@
+package tn.esprit.rh.achat.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+ * Filtre Logback des chemins chauds (logback-spring.xml) : pour chaque
+ * catégorie (préfixe de nom de logger), au plus evenementsParSeconde
+ * événements INFO ou moins par seconde, puis un sur echantillon (0 : aucun)
+ * jusqu'à la seconde suivante. Le nombre d'événements écartés est journalisé
+ * au premier événement de la seconde suivante ; WARN et ERROR passent
+ * toujours, les niveaux désactivés ne sont pas comptés.
+ */
+public class LimiteurJournaux extends TurboFilter {
+
+	private final LongSupplier horloge;
+	private final List<Fenetre> fenetres = new ArrayList<>();
+	private int evenementsParSeconde = 20;
+	private int echantillon = 100;
+
+	public LimiteurJournaux() {
+		this(System::nanoTime);
+	}
+
+	LimiteurJournaux(LongSupplier horloge) {
+		this.horloge = horloge;
+	}
+
+	// Répétable dans logback-spring.xml : <categorie>tn.esprit.rh.achat.services</categorie>
+	public void addCategorie(String categorie) {
+		fenetres.add(new Fenetre(categorie.trim()));
+	}
+
+	public void setEvenementsParSeconde(int evenementsParSeconde) {
+		this.evenementsParSeconde = evenementsParSeconde;
+	}
+
+	public void setEchantillon(int echantillon) {
+		this.echantillon = echantillon;
+	}
+
+	@Override
+	public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+		// format null : simple test isXxxEnabled(), sans événement à compter
+		if (format == null || level.isGreaterOrEqual(Level.WARN)
+				|| !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+			return FilterReply.NEUTRAL;
+		}
+		for (Fenetre fenetre : fenetres) {
+			if (logger.getName().startsWith(fenetre.categorie)) {
+				return fenetre.accepter(horloge.getAsLong()) ? FilterReply.NEUTRAL : FilterReply.DENY;
+			}
+		}
+		return FilterReply.NEUTRAL;
+	}
+
+	private final class Fenetre {
+		private final String categorie;
+		private long debut = Long.MIN_VALUE;
+		private int acceptes;
+		private long ecartes;
+
+		Fenetre(String categorie) {
+			this.categorie = categorie;
+		}
+
+		boolean accepter(long maintenant) {
+			long ecartesFenetrePrecedente = 0;
+			boolean accepte;
+			synchronized (this) {
+				if (debut == Long.MIN_VALUE || maintenant - debut >= TimeUnit.SECONDS.toNanos(1)) {
+					ecartesFenetrePrecedente = ecartes;
+					debut = maintenant;
+					acceptes = 0;
+					ecartes = 0;
+				}
+				int rang = acceptes + (int) ecartes;
+				accepte = acceptes < evenementsParSeconde
+						|| (echantillon > 0 && (rang - evenementsParSeconde) % echantillon == 0);
+				if (accepte) {
+					acceptes++;
+				} else {
+					ecartes++;
+				}
+			}
+			// Hors verrou et dans le contexte Logback du filtre : le compte rendu repasse lui-même par le filtre
+			if (ecartesFenetrePrecedente > 0) {
+				((LoggerContext) getContext()).getLogger(LimiteurJournaux.class)
+						.info("Journaux limités {} {}", kv("categorie", categorie), kv("ecartes", ecartesFenetrePrecedente));
+			}
+			return accepte;
+		}
+	}
+
+}
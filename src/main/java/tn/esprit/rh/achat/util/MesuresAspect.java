@@ -0,0 +1,113 @@
+package tn.esprit.rh.achat.util;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Mesures de chaque méthode publique des services et des dépôts Spring Data :
+ * timer "achat.methode" (latence, nombre d'appels, tag exception pour les
+ * erreurs) et, pour les résultats de type collection, "achat.methode.taille".
+ * Percentiles et histogrammes se règlent dans application.properties
+ * (management.metrics.distribution.*), l'exposition par /actuator/prometheus.
+ */
+@Aspect
+@Component
+public class MesuresAspect {
+
+	static final String TIMER = "achat.methode";
+	static final String TAILLE = "achat.methode.taille";
+	private static final String PAQUET_DEPOTS = "tn.esprit.rh.achat.repositories.";
+	private static final String AUCUNE = "none";
+
+	private final MeterRegistry registry;
+	// Par classe du bean (proxy) puis par méthode : pas de recherche de compteur à chaque appel
+	private final Map<Class<?>, Map<Method, Mesures>> mesures = new ConcurrentHashMap<>();
+
+	public MesuresAspect(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Around("within(tn.esprit.rh.achat.services..*) || target(org.springframework.data.repository.Repository)")
+	public Object mesurer(ProceedingJoinPoint point) throws Throwable {
+		Mesures m = mesures.computeIfAbsent(point.getThis().getClass(), c -> new ConcurrentHashMap<>())
+				.computeIfAbsent(((MethodSignature) point.getSignature()).getMethod(), methode -> creer(point, methode));
+		long debut = System.nanoTime();
+		try {
+			Object resultat = point.proceed();
+			m.succes.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+			int taille = taille(resultat);
+			if (taille >= 0) {
+				m.taille().record(taille);
+			}
+			return resultat;
+		} catch (Throwable e) {
+			Timer.builder(TIMER).tags(m.tags).tag("exception", e.getClass().getSimpleName()).register(registry)
+					.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+			throw e;
+		}
+	}
+
+	private Mesures creer(ProceedingJoinPoint point, Method methode) {
+		String couche = "service";
+		String classe = point.getSignature().getDeclaringType().getSimpleName();
+		// Méthodes héritées (findById...) : rattachées à l'interface du dépôt et non à CrudRepository
+		for (Class<?> interfaceDepot : point.getThis().getClass().getInterfaces()) {
+			if (interfaceDepot.getName().startsWith(PAQUET_DEPOTS)) {
+				couche = "repository";
+				classe = interfaceDepot.getSimpleName();
+			}
+		}
+		Tags tags = Tags.of("couche", couche, "classe", classe, "methode", methode.getName());
+		return new Mesures(registry, tags, Timer.builder(TIMER).tags(tags).tag("exception", AUCUNE).register(registry));
+	}
+
+	// Nombre d'éléments d'un résultat collection / map / tableau, -1 sinon
+	private static int taille(Object resultat) {
+		if (resultat instanceof Collection) {
+			return ((Collection<?>) resultat).size();
+		}
+		if (resultat instanceof Map) {
+			return ((Map<?, ?>) resultat).size();
+		}
+		if (resultat != null && resultat.getClass().isArray()) {
+			return Array.getLength(resultat);
+		}
+		return -1;
+	}
+
+	private static final class Mesures {
+		private final MeterRegistry registry;
+		private final Tags tags;
+		private final Timer succes;
+		private volatile DistributionSummary taille;
+
+		Mesures(MeterRegistry registry, Tags tags, Timer succes) {
+			this.registry = registry;
+			this.tags = tags;
+			this.succes = succes;
+		}
+
+		// Créé au premier résultat collection : les méthodes scalaires n'ont pas de distribution vide
+		DistributionSummary taille() {
+			if (taille == null) {
+				taille = DistributionSummary.builder(TAILLE).tags(tags).register(registry);
+			}
+			return taille;
+		}
+	}
+
+}
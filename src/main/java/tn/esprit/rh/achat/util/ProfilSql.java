@@ -0,0 +1,92 @@
+package tn.esprit.rh.achat.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Compteurs SQL du thread courant (une requête HTTP, ou un bloc mesuré en
+ * test) : instructions préparées par Hibernate, entités chargées et durée
+ * JDBC. Alimentés par ProfilSqlInspecteur, ProfilSqlEvenements et
+ * ProfilSqlIntercepteur ; rien n'est compté hors d'un profil démarré.
+ * Les accès JdbcTemplate ne passent pas par Hibernate et ne sont pas comptés.
+ */
+public final class ProfilSql {
+
+	// Au-delà, les instructions distinctes ne sont plus suivies (détection N+1)
+	private static final int INSTRUCTIONS_SUIVIES = 200;
+
+	private static final ThreadLocal<Compteurs> COURANT = new ThreadLocal<>();
+
+	private ProfilSql() {
+	}
+
+	public static Compteurs demarrer() {
+		Compteurs compteurs = new Compteurs();
+		COURANT.set(compteurs);
+		return compteurs;
+	}
+
+	// Profil du thread courant, null s'il n'a pas été démarré
+	public static Compteurs courant() {
+		return COURANT.get();
+	}
+
+	public static void terminer() {
+		COURANT.remove();
+	}
+
+	static void instruction(String sql) {
+		Compteurs compteurs = COURANT.get();
+		if (compteurs != null) {
+			compteurs.requetes++;
+			if (compteurs.parInstruction.size() < INSTRUCTIONS_SUIVIES || compteurs.parInstruction.containsKey(sql)) {
+				compteurs.parInstruction.merge(sql, 1, Integer::sum);
+			}
+		}
+	}
+
+	static void ligne() {
+		Compteurs compteurs = COURANT.get();
+		if (compteurs != null) {
+			compteurs.lignes++;
+		}
+	}
+
+	static void dureeJdbc(long nanos) {
+		Compteurs compteurs = COURANT.get();
+		if (compteurs != null) {
+			compteurs.dureeJdbcNanos += nanos;
+		}
+	}
+
+	public static final class Compteurs {
+		private int requetes;
+		private long lignes;
+		private long dureeJdbcNanos;
+		private final Map<String, Integer> parInstruction = new HashMap<>();
+
+		public int getRequetes() {
+			return requetes;
+		}
+
+		public long getLignes() {
+			return lignes;
+		}
+
+		public long getDureeJdbcMillis() {
+			return dureeJdbcNanos / 1_000_000;
+		}
+
+		// Instruction la plus répétée et son nombre d'exécutions (signature d'un N+1)
+		public Map.Entry<String, Integer> plusRepetee() {
+			Map.Entry<String, Integer> max = null;
+			for (Map.Entry<String, Integer> entree : parInstruction.entrySet()) {
+				if (max == null || entree.getValue() > max.getValue()) {
+					max = entree;
+				}
+			}
+			return max;
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+package tn.esprit.rh.achat.util;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/*
+ * En développement (achat.profil-sql.entetes=true) : compteurs SQL de la
+ * requête en en-têtes de réponse, posés juste avant l'écriture du corps,
+ * quand le traitement du contrôleur est terminé
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "achat.profil-sql.entetes", havingValue = "true")
+public class ProfilSqlEntetes implements ResponseBodyAdvice<Object> {
+
+	static final String REQUETES = "X-Sql-Requetes";
+	static final String LIGNES = "X-Sql-Entites";
+	static final String DUREE = "X-Sql-Duree-Ms";
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return true;
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+			Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+			ServerHttpResponse response) {
+		ProfilSql.Compteurs compteurs = ProfilSql.courant();
+		if (compteurs != null) {
+			response.getHeaders().set(REQUETES, Integer.toString(compteurs.getRequetes()));
+			response.getHeaders().set(LIGNES, Long.toString(compteurs.getLignes()));
+			response.getHeaders().set(DUREE, Long.toString(compteurs.getDureeJdbcMillis()));
+		}
+		return body;
+	}
+
+}
@@ -0,0 +1,36 @@
+package tn.esprit.rh.achat.util;
+
+import org.hibernate.BaseSessionEventListener;
+
+/*
+ * Durée des exécutions JDBC (requêtes et lots) de la session
+ * (hibernate.session.events.auto : une instance par session)
+ */
+public class ProfilSqlEvenements extends BaseSessionEventListener {
+
+	private static final long serialVersionUID = 1L;
+
+	private long debutExecution;
+	private long debutLot;
+
+	@Override
+	public void jdbcExecuteStatementStart() {
+		debutExecution = System.nanoTime();
+	}
+
+	@Override
+	public void jdbcExecuteStatementEnd() {
+		ProfilSql.dureeJdbc(System.nanoTime() - debutExecution);
+	}
+
+	@Override
+	public void jdbcExecuteBatchStart() {
+		debutLot = System.nanoTime();
+	}
+
+	@Override
+	public void jdbcExecuteBatchEnd() {
+		ProfilSql.dureeJdbc(System.nanoTime() - debutLot);
+	}
+
+}
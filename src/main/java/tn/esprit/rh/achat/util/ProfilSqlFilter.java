@@ -0,0 +1,85 @@
+package tn.esprit.rh.achat.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+ * Profil SQL de chaque requête HTTP : démarré à l'entrée, comparé en sortie
+ * au budget de l'endpoint. Les dépassements et les instructions répétées
+ * (N+1 probable) sont journalisés. Les flux SSE, ouverts pour de longues
+ * durées, ne sont pas profilés.
+ */
+@Component
+@Slf4j
+@EnableConfigurationProperties(ProfilSqlProprietes.class)
+public class ProfilSqlFilter extends OncePerRequestFilter {
+
+	private final AntPathMatcher matcher = new AntPathMatcher();
+
+	@Autowired
+	ProfilSqlProprietes proprietes;
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		String accept = request.getHeader(HttpHeaders.ACCEPT);
+		return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		ProfilSql.Compteurs compteurs = ProfilSql.demarrer();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			ProfilSql.terminer();
+			verifier(request.getMethod() + " " + chemin(request), budget(chemin(request)), compteurs);
+		}
+	}
+
+	private void verifier(String requete, int budget, ProfilSql.Compteurs compteurs) {
+		Map.Entry<String, Integer> plusRepetee = compteurs.plusRepetee();
+		boolean repetition = plusRepetee != null && plusRepetee.getValue() >= proprietes.getSeuilRepetitions();
+		if (compteurs.getRequetes() <= budget && !repetition) {
+			return;
+		}
+		Object[] champs = {kv("requete", requete), kv("instructions", compteurs.getRequetes()), kv("budget", budget),
+				kv("entites", compteurs.getLignes()), kv("dureeJdbcMs", compteurs.getDureeJdbcMillis()), null, null};
+		if (repetition) {
+			champs[5] = kv("repetitions", plusRepetee.getValue());
+			champs[6] = kv("instructionRepetee", plusRepetee.getKey());
+			log.warn("Budget SQL dépassé {} {} {} {} {} ; N+1 probable {} {}", champs);
+		} else {
+			log.warn("Budget SQL dépassé {} {} {} {} {}", champs);
+		}
+	}
+
+	int budget(String chemin) {
+		for (Map.Entry<String, Integer> entree : proprietes.getBudgets().entrySet()) {
+			if (matcher.match(entree.getKey(), chemin)) {
+				return entree.getValue();
+			}
+		}
+		return proprietes.getBudgetDefaut();
+	}
+
+	private static String chemin(HttpServletRequest request) {
+		return request.getRequestURI().substring(request.getContextPath().length());
+	}
+
+}
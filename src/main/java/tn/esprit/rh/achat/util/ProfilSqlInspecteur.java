@@ -0,0 +1,19 @@
+package tn.esprit.rh.achat.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/*
+ * Compte chaque instruction préparée par Hibernate, sans la modifier
+ * (hibernate.session_factory.statement_inspector)
+ */
+public class ProfilSqlInspecteur implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public String inspect(String sql) {
+		ProfilSql.instruction(sql);
+		return sql;
+	}
+
+}
@@ -0,0 +1,22 @@
+package tn.esprit.rh.achat.util;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+
+/*
+ * Compte les entités chargées, approximation des lignes lues par Hibernate
+ * (hibernate.session_factory.interceptor)
+ */
+public class ProfilSqlIntercepteur extends EmptyInterceptor {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		ProfilSql.ligne();
+		return false;
+	}
+
+}
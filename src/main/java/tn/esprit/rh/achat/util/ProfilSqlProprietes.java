@@ -0,0 +1,27 @@
+package tn.esprit.rh.achat.util;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Budgets SQL par requête HTTP (achat.profil-sql.*) : nombre d'instructions
+ * Hibernate au-delà duquel la requête est journalisée
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "achat.profil-sql")
+public class ProfilSqlProprietes {
+
+	// En-têtes X-Sql-* sur les réponses JSON (développement)
+	private boolean entetes;
+	private int budgetDefaut = 50;
+	// Motif de chemin (Ant, hors context-path) -> budget ; le premier motif correspondant s'applique
+	private Map<String, Integer> budgets = new LinkedHashMap<>();
+	// Une même instruction répétée autant de fois signale un N+1 probable
+	private int seuilRepetitions = 10;
+
+}
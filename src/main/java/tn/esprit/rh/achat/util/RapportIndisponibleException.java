@@ -0,0 +1,19 @@
+package tn.esprit.rh.achat.util;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/*
+ * Rapport refusé (file d'ExecuteurRapports pleine) ou non calculé dans le
+ * délai : le client peut réessayer plus tard.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class RapportIndisponibleException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public RapportIndisponibleException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,79 @@
+package tn.esprit.rh.achat.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/*
+ * Migration des identifiants IDENTITY vers les séquences par blocs
+ * (pooled-lo) : au démarrage, avant la première insertion, chaque séquence
+ * d'entité est avancée au-delà du plus grand identifiant de sa table. Les
+ * lignes existantes gardent leurs identifiants ; une séquence déjà en avance
+ * n'est jamais reculée (blocs réservés par une autre instance).
+ *
+ * Séquence native (H2, MariaDB...) : ALTER SEQUENCE ... RESTART WITH ; table
+ * d'émulation (dialecte MySQL 5) : mise à jour conditionnelle de next_val.
+ */
+@Slf4j
+@Component
+public class RecalageSequences implements SmartInitializingSingleton {
+
+	private final EntityManagerFactory entityManagerFactory;
+	private final JdbcTemplate jdbcTemplate;
+
+	public RecalageSequences(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+		this.entityManagerFactory = entityManagerFactory;
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		recaler();
+	}
+
+	public void recaler() {
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+		for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+			IdentifierGenerator generateur = persister.getIdentifierGenerator();
+			if (generateur instanceof SequenceStyleGenerator && persister instanceof AbstractEntityPersister) {
+				AbstractEntityPersister entite = (AbstractEntityPersister) persister;
+				DatabaseStructure structure = ((SequenceStyleGenerator) generateur).getDatabaseStructure();
+				Long max = jdbcTemplate.queryForObject("SELECT MAX(" + entite.getIdentifierColumnNames()[0] + ") FROM "
+						+ entite.getTableName(), Long.class);
+				if (max != null && avancer(dialect, structure, max + 1)) {
+					log.info("Séquence recalée {} {}", kv("sequence", structure.getName()), kv("prochainIdentifiant", max + 1));
+				}
+			}
+		}
+	}
+
+	// Vrai si la séquence a dû être avancée jusqu'à suivant
+	private boolean avancer(Dialect dialect, DatabaseStructure structure, long suivant) {
+		String nom = structure.getName();
+		if (!structure.isPhysicalSequence()) {
+			return jdbcTemplate.update("UPDATE " + nom + " SET " + SequenceStyleGenerator.DEF_VALUE_COLUMN + " = ? WHERE "
+					+ SequenceStyleGenerator.DEF_VALUE_COLUMN + " < ?", suivant, suivant) > 0;
+		}
+		// Lire la valeur courante consomme un bloc : sans effet sur les identifiants déjà attribués
+		Long valeur = jdbcTemplate.queryForObject(dialect.getSequenceNextValString(nom), Long.class);
+		if (valeur != null && valeur >= suivant) {
+			return false;
+		}
+		jdbcTemplate.execute("ALTER SEQUENCE " + nom + " RESTART WITH " + suivant);
+		return true;
+	}
+
+}
@@ -0,0 +1,93 @@
+package tn.esprit.rh.achat.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+
+/*
+ * Active seulement si achat.datasource.replica.url est renseignée : pools
+ * primaire (spring.datasource.*) et réplique, routés selon le readOnly de la
+ * transaction. Sans réplique, la DataSource auto-configurée reste inchangée.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "achat.datasource.replica", name = "url")
+@EnableConfigurationProperties(ReplicaProprietes.class)
+public class ReplicaConfiguration {
+
+	@Bean
+	@ConfigurationProperties(prefix = "spring.datasource.hikari")
+	public HikariDataSource dataSourcePrimaire(DataSourceProperties properties) {
+		HikariDataSource primaire = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		primaire.setPoolName("primaire");
+		return primaire;
+	}
+
+	@Bean
+	public HikariDataSource dataSourceReplica(ReplicaProprietes proprietes) {
+		HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class)
+				.url(proprietes.getUrl())
+				.username(proprietes.getUsername())
+				.password(proprietes.getPassword())
+				.driverClassName(proprietes.getDriverClassName())
+				.build();
+		replica.setPoolName("replica");
+		replica.setMaximumPoolSize(proprietes.getTailleMaxPool());
+		replica.setReadOnly(true);
+		// Pas d'échec au démarrage si la réplique est injoignable : la surveillance la tient à l'écart
+		replica.setInitializationFailTimeout(-1);
+		return replica;
+	}
+
+	@Bean
+	public SurveillanceReplica surveillanceReplica(HikariDataSource dataSourceReplica, ReplicaProprietes proprietes) {
+		SurveillanceReplica surveillance = new SurveillanceReplica(dataSourceReplica, proprietes);
+		surveillance.verifier();
+		return surveillance;
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(HikariDataSource dataSourcePrimaire, HikariDataSource dataSourceReplica,
+			SurveillanceReplica surveillanceReplica) {
+		return new LazyConnectionDataSourceProxy(
+				new RoutageDataSource(dataSourcePrimaire, dataSourceReplica, surveillanceReplica::isUtilisable));
+	}
+
+	// Connexion rendue après chaque transaction : avec open-in-view, une requête HTTP
+	// garderait sinon la cible choisie par sa première transaction
+	@Bean
+	public HibernatePropertiesCustomizer liberationConnexionApresTransaction() {
+		return proprietes -> proprietes.put("hibernate.connection.handling_mode",
+				PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+	}
+
+	// Les transactions readOnly ne remplissent plus le cache de second niveau
+	// (DialecteLectureSeule) : posé avant l'initialisation de la fabrique, reporté
+	// ensuite sur le JpaTransactionManager
+	@Bean
+	public static BeanPostProcessor dialecteLectureSeule() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				if (bean instanceof AbstractEntityManagerFactoryBean) {
+					((AbstractEntityManagerFactoryBean) bean).setJpaDialect(new DialecteLectureSeule());
+				}
+				return bean;
+			}
+		};
+	}
+
+}
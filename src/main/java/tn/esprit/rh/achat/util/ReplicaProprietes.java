@@ -0,0 +1,28 @@
+package tn.esprit.rh.achat.util;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/*
+ * Réplique en lecture (achat.datasource.replica.*) : sans URL, tout passe par
+ * spring.datasource.url
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "achat.datasource.replica")
+public class ReplicaProprietes {
+
+	private String url;
+	private String username;
+	private String password;
+	private String driverClassName;
+	private int tailleMaxPool = 10;
+	// Au-delà de ce retard, les lectures repassent sur le primaire
+	private long retardMaxSecondes = 5;
+	private long intervalleVerificationMs = 5000;
+	// Retard en secondes lu sur la réplique (vide : simple test de connexion)
+	private String requeteRetard = "SHOW SLAVE STATUS";
+	private String colonneRetard = "Seconds_Behind_Master";
+
+}
@@ -0,0 +1,40 @@
+package tn.esprit.rh.achat.util;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/*
+ * Transactions readOnly vers la réplique tant qu'elle est utilisable, tout le
+ * reste (écritures, accès hors transaction) vers le primaire. À envelopper
+ * dans un LazyConnectionDataSourceProxy : le drapeau readOnly n'est posé
+ * qu'après l'ouverture de la transaction, la connexion doit être choisie à la
+ * première instruction.
+ */
+public class RoutageDataSource extends AbstractRoutingDataSource {
+
+	public enum Cible { PRIMAIRE, REPLICA }
+
+	private final BooleanSupplier replicaUtilisable;
+
+	public RoutageDataSource(DataSource primaire, DataSource replica, BooleanSupplier replicaUtilisable) {
+		this.replicaUtilisable = replicaUtilisable;
+		Map<Object, Object> cibles = new HashMap<>();
+		cibles.put(Cible.PRIMAIRE, primaire);
+		cibles.put(Cible.REPLICA, replica);
+		setTargetDataSources(cibles);
+		setDefaultTargetDataSource(primaire);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaUtilisable.getAsBoolean()
+				? Cible.REPLICA : Cible.PRIMAIRE;
+	}
+
+}
@@ -0,0 +1,70 @@
+package tn.esprit.rh.achat.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/*
+ * Vérification périodique de la réplique : injoignable, réplication arrêtée
+ * (retard inconnu) ou en retard de plus de retardMaxSecondes, elle n'est plus
+ * utilisée par RoutageDataSource jusqu'à la vérification suivante réussie.
+ * Non utilisable avant la première vérification.
+ */
+@Slf4j
+public class SurveillanceReplica {
+
+	private final JdbcTemplate jdbcTemplate;
+	private final ReplicaProprietes proprietes;
+	private volatile boolean utilisable;
+
+	public SurveillanceReplica(DataSource replica, ReplicaProprietes proprietes) {
+		this.jdbcTemplate = new JdbcTemplate(replica);
+		this.proprietes = proprietes;
+	}
+
+	public boolean isUtilisable() {
+		return utilisable;
+	}
+
+	@Scheduled(fixedDelayString = "${achat.datasource.replica.intervalle-verification-ms:5000}")
+	public void verifier() {
+		boolean etat;
+		String cause;
+		try {
+			Long retard = retardSecondes();
+			etat = retard != null && retard <= proprietes.getRetardMaxSecondes();
+			cause = retard == null ? "retard inconnu" : "retard " + retard + " s";
+		} catch (DataAccessException e) {
+			etat = false;
+			cause = e.getMostSpecificCause().getMessage();
+		}
+		if (etat != utilisable) {
+			if (etat) {
+				log.info("Réplique utilisée pour les lectures ({})", cause);
+			} else {
+				log.warn("Lectures redirigées vers le primaire : {}", cause);
+			}
+		}
+		utilisable = etat;
+	}
+
+	// Retard en secondes, null si la réplication est arrêtée ; 0 sans requête de retard configurée
+	Long retardSecondes() {
+		if (!StringUtils.hasText(proprietes.getRequeteRetard())) {
+			return jdbcTemplate.execute((ConnectionCallback<Boolean>) c -> c.isValid(1)) ? 0L : null;
+		}
+		return jdbcTemplate.query(proprietes.getRequeteRetard(), rs -> {
+			if (!rs.next()) {
+				return null;
+			}
+			Object retard = rs.getObject(proprietes.getColonneRetard());
+			return retard == null ? null : ((Number) retard).longValue();
+		});
+	}
+
+}
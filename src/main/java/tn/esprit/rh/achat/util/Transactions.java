@@ -0,0 +1,30 @@
+package tn.esprit.rh.achat.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class Transactions {
+
+	private Transactions() {
+	}
+
+	/*
+	 * Exécuter une action après le commit de la transaction courante (rien en
+	 * cas de rollback), ou immédiatement s'il n'y a pas de transaction. Sert à
+	 * invalider les caches sans qu'un lecteur concurrent recharge une donnée
+	 * pas encore visible.
+	 */
+	public static void apresCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+
+}
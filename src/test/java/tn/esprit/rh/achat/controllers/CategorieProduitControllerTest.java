@@ -0,0 +1,79 @@
+package tn.esprit.rh.achat.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.rh.achat.entities.CategorieProduit;
+import tn.esprit.rh.achat.services.ICategorieProduitService;
+import tn.esprit.rh.achat.services.VersionsTables;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CategorieProduitController.class)
+@Import(VersionsTables.class)
+class CategorieProduitControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VersionsTables versionsTables;
+
+    @MockBean
+    private ICategorieProduitService categorieProduitService;
+
+    @Test
+    void testGetCategorieProduit_ReturnsStrongETag() throws Exception {
+        // Arrange
+        when(categorieProduitService.retrieveAllCategorieProduits())
+                .thenReturn(Collections.singletonList(new CategorieProduit()));
+
+        // Act & Assert
+        mockMvc.perform(get("/categorieProduit/retrieve-all-categorieProduit"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", versionsTables.etag(VersionsTables.CATEGORIE_PRODUIT)))
+                .andExpect(header().string("ETag", not(startsWith("W/"))))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void testGetCategorieProduit_IfNoneMatch_NotModifiedWithoutServiceCall() throws Exception {
+        // Arrange
+        String etag = versionsTables.etag(VersionsTables.CATEGORIE_PRODUIT);
+
+        // Act & Assert
+        mockMvc.perform(get("/categorieProduit/retrieve-all-categorieProduit").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verifyNoInteractions(categorieProduitService);
+    }
+
+    @Test
+    void testGetCategorieProduit_AfterModification_NewETag() throws Exception {
+        // Arrange
+        String ancien = versionsTables.etag(VersionsTables.CATEGORIE_PRODUIT);
+        when(categorieProduitService.retrieveAllCategorieProduits()).thenReturn(Collections.emptyList());
+
+        // Act
+        versionsTables.modifier(VersionsTables.CATEGORIE_PRODUIT);
+
+        // Assert
+        assertNotEquals(ancien, versionsTables.etag(VersionsTables.CATEGORIE_PRODUIT));
+        mockMvc.perform(get("/categorieProduit/retrieve-all-categorieProduit").header("If-None-Match", ancien))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", versionsTables.etag(VersionsTables.CATEGORIE_PRODUIT)));
+        verify(categorieProduitService, times(1)).retrieveAllCategorieProduits();
+    }
+
+}
@@ -1,15 +1,21 @@
 package tn.esprit.rh.achat.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import tn.esprit.rh.achat.entities.Facture;
 import tn.esprit.rh.achat.services.IFactureService;
+import tn.esprit.rh.achat.services.StockInsuffisantException;
+import tn.esprit.rh.achat.util.ExecuteurRapports;
 
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
@@ -17,13 +23,16 @@ import java.util.Date;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(FactureRestController.class)
+@Import({ExecuteurRapports.class, SimpleMeterRegistry.class})
 class FactureRestControllerTest {
 
     @Autowired
@@ -136,6 +145,52 @@ class FactureRestControllerTest {
         verify(factureService, times(1)).addFacture(any(Facture.class));
     }
 
+    @Test
+    void testAddFacture_DeduireStock_Insufficient() throws Exception {
+        // Arrange
+        when(factureService.addFacture(any(Facture.class), eq(true)))
+                .thenThrow(new StockInsuffisantException(Arrays.asList("produit 1 (P1) x 3")));
+
+        // Act & Assert
+        mockMvc.perform(post("/facture/add-facture")
+                        .param("deduireStock", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(facture)))
+                .andExpect(status().isConflict())
+                .andExpect(content().string(containsString("produit 1 (P1) x 3")));
+
+        verify(factureService, never()).addFacture(any(Facture.class));
+    }
+
+    @Test
+    void testAddFacture_LineWithoutProduct_BadRequest() throws Exception {
+        // Arrange
+        when(factureService.addFacture(any(Facture.class)))
+                .thenThrow(new IllegalArgumentException("Ligne de facture sans produit"));
+
+        // Act & Assert
+        mockMvc.perform(post("/facture/add-facture")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(facture)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Ligne de facture sans produit"));
+    }
+
+    @Test
+    void testAddFacture_InvalidQuantity_BadRequest() throws Exception {
+        // Arrange
+        when(factureService.addFacture(any(Facture.class), eq(true)))
+                .thenThrow(new IllegalArgumentException("Quantité commandée invalide (-3) pour le produit 1"));
+
+        // Act & Assert
+        mockMvc.perform(post("/facture/add-facture")
+                        .param("deduireStock", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(facture)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Quantité commandée invalide (-3) pour le produit 1"));
+    }
+
     @Test
     void testCancelFacture_Success() throws Exception {
         // Arrange
@@ -202,7 +257,10 @@ class FactureRestControllerTest {
                 .thenReturn(expectedPercentage);
 
         // Act & Assert
-        mockMvc.perform(get("/facture/pourcentageRecouvrement/2024-01-01/2024-12-31"))
+        MvcResult rapport = mockMvc.perform(get("/facture/pourcentageRecouvrement/2024-01-01/2024-12-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(rapport))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(content().string(String.valueOf(expectedPercentage)));
@@ -213,17 +271,33 @@ class FactureRestControllerTest {
     @Test
     void testPourcentageRecouvrement_Exception() throws Exception {
         // Arrange
-        when(factureService.pourcentageRecouvrement(any(Date.class), any(Date.class)))
-                .thenThrow(new RuntimeException("Database error"));
+        RuntimeException erreur = new RuntimeException("Database error");
+        when(factureService.pourcentageRecouvrement(any(Date.class), any(Date.class))).thenThrow(erreur);
 
-        // Act & Assert
-        mockMvc.perform(get("/facture/pourcentageRecouvrement/2024-01-01/2024-12-31"))
-                .andExpect(status().isOk())
-                .andExpect(content().string("0.0"));
+        // Act
+        MvcResult rapport = mockMvc.perform(get("/facture/pourcentageRecouvrement/2024-01-01/2024-12-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
+        // Assert - l'erreur est rendue, pas un résultat 0
+        assertSame(erreur, rapport.getAsyncResult(5_000));
         verify(factureService, times(1)).pourcentageRecouvrement(any(Date.class), any(Date.class));
     }
 
+    @Test
+    void testPourcentageRecouvrement_SqlTimeout_ServiceUnavailable() throws Exception {
+        // Arrange
+        when(factureService.pourcentageRecouvrement(any(Date.class), any(Date.class)))
+                .thenThrow(new QueryTimeoutException("Statement cancelled due to timeout"));
+
+        // Act & Assert
+        MvcResult rapport = mockMvc.perform(get("/facture/pourcentageRecouvrement/2024-01-01/2024-12-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(rapport))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     void testPourcentageRecouvrement_InvalidDateFormat() throws Exception {
         // Act & Assert
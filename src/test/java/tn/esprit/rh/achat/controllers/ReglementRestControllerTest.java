@@ -1,16 +1,21 @@
 package tn.esprit.rh.achat.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import tn.esprit.rh.achat.entities.Facture;
 import tn.esprit.rh.achat.entities.Reglement;
 import tn.esprit.rh.achat.services.IReglementService;
+import tn.esprit.rh.achat.util.ExecuteurRapports;
 
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -19,6 +24,7 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -29,6 +35,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Tests all REST endpoints for Reglement management
  */
 @WebMvcTest(ReglementRestController.class)
+@Import({ExecuteurRapports.class, SimpleMeterRegistry.class})
 class ReglementRestControllerTest {
 
     @Autowired
@@ -205,7 +212,10 @@ class ReglementRestControllerTest {
         when(reglementService.getChiffreAffaireEntreDeuxDate(any(Date.class), any(Date.class))).thenReturn(1000f);
 
         // Act & Assert
-        mockMvc.perform(get("/reglement/getChiffreAffaireEntreDeuxDate/2024-01-01/2024-12-31"))
+        MvcResult rapport = mockMvc.perform(get("/reglement/getChiffreAffaireEntreDeuxDate/2024-01-01/2024-12-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(rapport))
                 .andExpect(status().isOk())
                 .andExpect(content().string("1000.0"));
 
@@ -215,15 +225,31 @@ class ReglementRestControllerTest {
     @Test
     void testGetChiffreAffaireEntreDeuxDate_Exception() throws Exception {
         // Arrange
-        when(reglementService.getChiffreAffaireEntreDeuxDate(any(Date.class), any(Date.class)))
-                .thenThrow(new RuntimeException("Database error"));
+        RuntimeException erreur = new RuntimeException("Database error");
+        when(reglementService.getChiffreAffaireEntreDeuxDate(any(Date.class), any(Date.class))).thenThrow(erreur);
 
-        // Act & Assert
-        mockMvc.perform(get("/reglement/getChiffreAffaireEntreDeuxDate/2024-01-01/2024-12-31"))
-                .andExpect(status().isOk())
-                .andExpect(content().string("0.0"));
+        // Act
+        MvcResult rapport = mockMvc.perform(get("/reglement/getChiffreAffaireEntreDeuxDate/2024-01-01/2024-12-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
+        // Assert - l'erreur est rendue, pas un résultat 0
+        assertSame(erreur, rapport.getAsyncResult(5_000));
         verify(reglementService, times(1)).getChiffreAffaireEntreDeuxDate(any(Date.class), any(Date.class));
     }
+
+    @Test
+    void testGetChiffreAffaireEntreDeuxDate_SqlTimeout_ServiceUnavailable() throws Exception {
+        // Arrange
+        when(reglementService.getChiffreAffaireEntreDeuxDate(any(Date.class), any(Date.class)))
+                .thenThrow(new QueryTimeoutException("Statement cancelled due to timeout"));
+
+        // Act & Assert
+        MvcResult rapport = mockMvc.perform(get("/reglement/getChiffreAffaireEntreDeuxDate/2024-01-01/2024-12-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(rapport))
+                .andExpect(status().isServiceUnavailable());
+    }
 }
 
@@ -9,6 +9,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import tn.esprit.rh.achat.entities.Stock;
+import tn.esprit.rh.achat.services.FluxStocks;
 import tn.esprit.rh.achat.services.IStockService;
 
 import java.util.ArrayList;
@@ -31,6 +32,9 @@ class StockRestControllerTest {
     @MockBean
     private IStockService stockService;
 
+    @MockBean
+    private FluxStocks fluxStocks;
+
     @Autowired
     private ObjectMapper objectMapper;
 
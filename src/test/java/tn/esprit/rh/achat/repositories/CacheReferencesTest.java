@@ -0,0 +1,136 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.rh.achat.entities.CategorieProduit;
+import tn.esprit.rh.achat.entities.DetailFournisseur;
+import tn.esprit.rh.achat.entities.Operateur;
+import tn.esprit.rh.achat.entities.SecteurActivite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tn.esprit.rh.achat.util.RequetesSql.assertNombreRequetes;
+
+/**
+ * Cache de second niveau des tables de référence : entités et retrieve-all
+ * servis sans SQL une fois chargés, statistiques par région.
+ * Une entrée n'est lisible que par les sessions ouvertes après son écriture :
+ * les lectures en cache se font hors de la transaction du test (autre thread).
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CacheReferencesTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CategorieProduitRepository categorieProduitRepository;
+
+    @Autowired
+    private SecteurActiviteRepository secteurActiviteRepository;
+
+    @Autowired
+    private OperateurRepository operateurRepository;
+
+    private Statistics statistiques;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class);
+        sessionFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        statistiques = sessionFactory.getStatistics();
+        statistiques.clear();
+    }
+
+    @Test
+    void testFindById_SecondLoadServedFromCache() {
+        // Arrange - une ligne insérée par la transaction en cours n'est jamais mise en cache
+        jdbcTemplate.update("insert into operateur (nom, prenom) values ('Slouma', 'Rayen')");
+        Long id = jdbcTemplate.queryForObject("select max(id_operateur) from operateur", Long.class);
+        operateurRepository.findById(id);
+        entityManager.clear();
+
+        // Act & Assert
+        horsTransaction(() -> assertNombreRequetes(0,
+                () -> assertEquals("Slouma", operateurRepository.findById(id).get().getNom())));
+        assertEquals(1, statistiques.getDomainDataRegionStatistics(Operateur.class.getName()).getHitCount());
+    }
+
+    @Test
+    void testFindAll_QueryResultCachedUntilTableModified() {
+        // Arrange - lignes insérées hors Hibernate : la table n'est pas marquée modifiée
+        jdbcTemplate.update("insert into secteur_activite (code_secteur_activite, libelle_secteur_activite) values ('S1', 'Secteur 1')");
+        jdbcTemplate.update("insert into secteur_activite (code_secteur_activite, libelle_secteur_activite) values ('S2', 'Secteur 2')");
+        List<SecteurActivite> premier = new ArrayList<>();
+        secteurActiviteRepository.findAll().forEach(premier::add);
+        entityManager.clear();
+
+        // Act
+        List<SecteurActivite> second = new ArrayList<>();
+        horsTransaction(() -> assertNombreRequetes(0, () -> secteurActiviteRepository.findAll().forEach(second::add)));
+        SecteurActivite secteur = new SecteurActivite();
+        secteur.setCodeSecteurActivite("S3");
+        entityManager.persistAndFlush(secteur);
+        entityManager.clear();
+
+        // Assert - l'écriture JPA invalide le résultat en cache
+        assertEquals(2, premier.size());
+        assertEquals(2, second.size());
+        assertEquals(1, statistiques.getQueryCacheHitCount());
+        assertNombreRequetes(1, () -> assertEquals(3, toList(secteurActiviteRepository.findAll()).size()));
+    }
+
+    @Test
+    void testFindAll_EntitiesResolvedFromEntityRegion() {
+        // Arrange
+        jdbcTemplate.update("insert into categorie_produit (code_categorie, libelle_categorie) values ('C1', 'Catégorie 1')");
+        categorieProduitRepository.findAll();
+        entityManager.clear();
+
+        // Act
+        List<CategorieProduit> categories = new ArrayList<>();
+        horsTransaction(() -> assertNombreRequetes(0, () -> {
+            categories.addAll(categorieProduitRepository.findAll());
+            categorieProduitRepository.findById(categories.get(0).getIdCategorieProduit());
+        }));
+
+        // Assert
+        assertEquals("C1", categories.get(0).getCodeCategorie());
+        assertEquals(2, statistiques.getDomainDataRegionStatistics(CategorieProduit.class.getName()).getHitCount());
+        assertNotNull(statistiques.getDomainDataRegionStatistics(DetailFournisseur.class.getName()));
+    }
+
+    // Nouvelle session, sans la transaction (ni les lignes non validées) du test
+    private static void horsTransaction(Runnable action) {
+        try {
+            CompletableFuture.runAsync(action).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static <T> List<T> toList(Iterable<T> elements) {
+        List<T> liste = new ArrayList<>();
+        elements.forEach(liste::add);
+        return liste;
+    }
+
+}
@@ -0,0 +1,205 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import tn.esprit.rh.achat.entities.AffectationSecteurFournisseur;
+import tn.esprit.rh.achat.entities.DetailFournisseur;
+import tn.esprit.rh.achat.entities.Fournisseur;
+import tn.esprit.rh.achat.entities.FournisseurResume;
+import tn.esprit.rh.achat.entities.SecteurActivite;
+import tn.esprit.rh.achat.util.RequetesSql;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class FournisseurRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FournisseurRepository fournisseurRepository;
+
+    private Fournisseur fournisseur1;
+    private Fournisseur fournisseur2;
+    private SecteurActivite secteur1;
+    private SecteurActivite secteur2;
+
+    private DetailFournisseur detail(String email) {
+        DetailFournisseur detail = new DetailFournisseur();
+        detail.setEmail(email);
+        return detail;
+    }
+
+    private Statistics statistiques() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    @BeforeEach
+    void setUp() {
+        secteur1 = new SecteurActivite();
+        secteur1.setCodeSecteurActivite("S1");
+        entityManager.persist(secteur1);
+        secteur2 = new SecteurActivite();
+        secteur2.setCodeSecteurActivite("S2");
+        entityManager.persist(secteur2);
+
+        fournisseur1 = new Fournisseur();
+        fournisseur1.setCode("F1");
+        fournisseur1.setSecteurActivites(new HashSet<>(Collections.singletonList(secteur1)));
+        fournisseur1.setDetailFournisseur(detail("f1@achat.tn"));
+        entityManager.persist(fournisseur1);
+        fournisseur2 = new Fournisseur();
+        fournisseur2.setCode("F2");
+        fournisseur2.setDetailFournisseur(detail("f2@achat.tn"));
+        entityManager.persist(fournisseur2);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testAffecterSecteurs_InsertsOnlyMissingPairs() {
+        // Act
+        int crees = fournisseurRepository.affecterSecteurs(Arrays.asList(
+                new AffectationSecteurFournisseur(secteur1.getIdSecteurActivite(), fournisseur1.getIdFournisseur()),
+                new AffectationSecteurFournisseur(secteur2.getIdSecteurActivite(), fournisseur1.getIdFournisseur()),
+                new AffectationSecteurFournisseur(secteur2.getIdSecteurActivite(), fournisseur2.getIdFournisseur()),
+                new AffectationSecteurFournisseur(secteur2.getIdSecteurActivite(), fournisseur2.getIdFournisseur())));
+
+        // Assert
+        assertEquals(2, crees);
+        assertEquals(2, fournisseurRepository.findById(fournisseur1.getIdFournisseur()).get().getSecteurActivites().size());
+        assertEquals(1, fournisseurRepository.findById(fournisseur2.getIdFournisseur()).get().getSecteurActivites().size());
+    }
+
+    @Test
+    void testAffecterSecteurs_UnknownSupplier_NothingWritten() {
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> fournisseurRepository.affecterSecteurs(Arrays.asList(
+                new AffectationSecteurFournisseur(secteur2.getIdSecteurActivite(), fournisseur2.getIdFournisseur()),
+                new AffectationSecteurFournisseur(secteur2.getIdSecteurActivite(), 999L))));
+        assertTrue(fournisseurRepository.findById(fournisseur2.getIdFournisseur()).get().getSecteurActivites().isEmpty());
+    }
+
+    @Test
+    void testFindAll_DetailsFetchedInOneStatement() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            Fournisseur fournisseur = new Fournisseur();
+            fournisseur.setCode("FX" + i);
+            fournisseur.setDetailFournisseur(detail("fx" + i + "@achat.tn"));
+            entityManager.persist(fournisseur);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = statistiques();
+
+        // Act
+        List<Fournisseur> fournisseurs = fournisseurRepository.findAll();
+        fournisseurs.forEach(f -> assertNotNull(f.getDetailFournisseur().getEmail()));
+
+        // Assert
+        assertEquals(12, fournisseurs.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testRetrieveResumes_OneStatementWithoutDetails() {
+        // Arrange
+        Statistics statistics = statistiques();
+
+        // Act
+        List<FournisseurResume> resumes = fournisseurRepository.retrieveResumes();
+
+        // Assert
+        assertEquals(2, resumes.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testFindById_DetailLoadedOnlyWhenAccessed() {
+        // Arrange
+        Statistics statistics = statistiques();
+
+        // Act
+        Fournisseur fournisseur = fournisseurRepository.findById(fournisseur1.getIdFournisseur()).get();
+        long avantAcces = statistics.getPrepareStatementCount();
+        String email = fournisseur.getDetailFournisseur().getEmail();
+
+        // Assert
+        assertEquals(1, avantAcces);
+        assertEquals("f1@achat.tn", email);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testRetrieveFournisseurAvecDetail_OneStatement() {
+        // Arrange
+        Statistics statistics = statistiques();
+
+        // Act
+        Fournisseur fournisseur = fournisseurRepository.retrieveFournisseurAvecDetail(fournisseur2.getIdFournisseur()).get();
+
+        // Assert
+        assertEquals("f2@achat.tn", fournisseur.getDetailFournisseur().getEmail());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindByCodeIn_LoadsDetailInSameQuery() {
+        // Arrange
+        Statistics statistics = statistiques();
+
+        // Act
+        List<Fournisseur> fournisseurs = fournisseurRepository.findByCodeIn(Arrays.asList("F2", "F3"));
+        String email = fournisseurs.get(0).getDetailFournisseur().getEmail();
+
+        // Assert
+        assertEquals(1, fournisseurs.size());
+        assertEquals("f2@achat.tn", email);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testModificationPartielle_UpdatesOnlyChangedRow() {
+        // Arrange
+        Fournisseur fournisseur = fournisseurRepository.retrieveFournisseurAvecDetail(fournisseur1.getIdFournisseur()).get();
+        Statistics statistics = statistiques();
+
+        // Act
+        fournisseur.setLibelle("Nouveau libellé");
+        fournisseur.getDetailFournisseur().setEmail("f1@achat.tn");
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert - one UPDATE for the supplier, none for the unchanged detail or the sectors
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        Fournisseur relu = fournisseurRepository.findAll().stream()
+                .filter(f -> f.getIdFournisseur().equals(fournisseur1.getIdFournisseur())).findFirst().get();
+        assertEquals("Nouveau libellé", relu.getLibelle());
+        assertEquals(1, fournisseurRepository.retrieveSecteursFournisseurs().size());
+    }
+
+    @Test
+    void testFindAll_NoStatementPerDetail() {
+        // Act & Assert
+        RequetesSql.assertNombreRequetes(1, () -> fournisseurRepository.findAll()
+                .forEach(f -> assertNotNull(f.getDetailFournisseur().getEmail())));
+    }
+}
@@ -0,0 +1,116 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import tn.esprit.rh.achat.entities.AffectationProduitStock;
+import tn.esprit.rh.achat.entities.CategorieProduit;
+import tn.esprit.rh.achat.entities.PrixProduit;
+import tn.esprit.rh.achat.entities.Produit;
+import tn.esprit.rh.achat.entities.Stock;
+import tn.esprit.rh.achat.entities.VariationPrixCategorie;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class ProduitRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProduitRepository produitRepository;
+
+    private CategorieProduit categorie;
+    private Produit produit1;
+    private Produit produit2;
+    private Produit produit3;
+
+    private Produit produit(String code, float prix, CategorieProduit categorieProduit) {
+        Produit produit = new Produit();
+        produit.setCodeProduit(code);
+        produit.setPrix(prix);
+        produit.setCategorieProduit(categorieProduit);
+        return entityManager.persist(produit);
+    }
+
+    @BeforeEach
+    void setUp() {
+        categorie = new CategorieProduit();
+        categorie.setCodeCategorie("QUIN");
+        entityManager.persist(categorie);
+        produit1 = produit("P1", 10f, categorie);
+        produit2 = produit("P2", 20f, categorie);
+        produit3 = produit("P3", 30f, null);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testModifierPrix_UpdatesPriceAndModificationDate() {
+        // Act
+        List<Long> introuvables = produitRepository.modifierPrix(Arrays.asList(
+                new PrixProduit(produit3.getIdProduit(), 35f),
+                new PrixProduit(produit1.getIdProduit(), 12f),
+                new PrixProduit(999L, 1f)), new Date());
+
+        // Assert
+        assertEquals(Collections.singletonList(999L), introuvables);
+        Produit modifie = produitRepository.findById(produit1.getIdProduit()).get();
+        assertEquals(12f, modifie.getPrix(), 0.001);
+        assertNotNull(modifie.getDateDerniereModification());
+        assertEquals(35f, produitRepository.findById(produit3.getIdProduit()).get().getPrix(), 0.001);
+        assertNull(produitRepository.findById(produit2.getIdProduit()).get().getDateDerniereModification());
+    }
+
+    @Test
+    void testAppliquerVariations_ChangesOnlyProductsOfCategory() {
+        // Act
+        int modifies = produitRepository.appliquerVariations(Collections.singletonList(
+                new VariationPrixCategorie(categorie.getIdCategorieProduit(), 10)), new Date());
+
+        // Assert
+        assertEquals(2, modifies);
+        assertEquals(11f, produitRepository.findById(produit1.getIdProduit()).get().getPrix(), 0.001);
+        assertEquals(22f, produitRepository.findById(produit2.getIdProduit()).get().getPrix(), 0.001);
+        assertEquals(30f, produitRepository.findById(produit3.getIdProduit()).get().getPrix(), 0.001);
+    }
+
+    @Test
+    void testAffecterStocks_SetBasedUpdatePerStock() {
+        // Arrange
+        Stock stockA = entityManager.persist(new Stock("Stock A", 10, 1));
+        Stock stockB = entityManager.persist(new Stock("Stock B", 10, 1));
+        entityManager.flush();
+
+        // Act
+        int modifies = produitRepository.affecterStocks(Arrays.asList(
+                new AffectationProduitStock(produit1.getIdProduit(), stockA.getIdStock()),
+                new AffectationProduitStock(produit2.getIdProduit(), stockA.getIdStock()),
+                new AffectationProduitStock(produit3.getIdProduit(), stockB.getIdStock())));
+        entityManager.clear();
+
+        // Assert
+        assertEquals(3, modifies);
+        assertEquals(stockA.getIdStock(), produitRepository.findById(produit2.getIdProduit()).get().getStock().getIdStock());
+        assertEquals(stockB.getIdStock(), produitRepository.findById(produit3.getIdProduit()).get().getStock().getIdStock());
+    }
+
+    @Test
+    void testAffecterStocks_UnknownStock_NothingWritten() {
+        // Act & Assert
+        NoSuchElementException e = assertThrows(NoSuchElementException.class, () -> produitRepository.affecterStocks(
+                Collections.singletonList(new AffectationProduitStock(produit1.getIdProduit(), 999L))));
+        assertTrue(e.getMessage().contains("999"));
+        assertNull(produitRepository.findById(produit1.getIdProduit()).get().getStock());
+    }
+
+}
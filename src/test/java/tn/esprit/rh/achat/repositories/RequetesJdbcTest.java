@@ -0,0 +1,88 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RequetesJdbcTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connexion;
+
+    @Mock
+    private DatabaseMetaData metaData;
+
+    @Mock
+    private PreparedStatement ps;
+
+    @Mock
+    private ResultSet rs;
+
+    // Connexion simulée pour les tests de parcourir()
+    @BeforeEach
+    void setUp() throws Exception {
+        lenient().when(dataSource.getConnection()).thenReturn(connexion);
+        lenient().when(connexion.getMetaData()).thenReturn(metaData);
+        lenient().when(connexion.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(ps);
+        lenient().when(ps.executeQuery()).thenReturn(rs);
+        lenient().when(rs.next()).thenReturn(true, true, false);
+    }
+
+    @Test
+    void testParcourir_MySqlStreamsRowByRow() throws Exception {
+        // Arrange
+        when(metaData.getDatabaseProductName()).thenReturn("MySQL");
+        AtomicInteger lignes = new AtomicInteger();
+
+        // Act
+        RequetesJdbc.parcourir(new JdbcTemplate(dataSource), "SELECT 1", rs -> lignes.incrementAndGet(), 42L);
+
+        // Assert
+        verify(connexion).prepareStatement("SELECT 1", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        verify(ps).setFetchSize(Integer.MIN_VALUE);
+        verify(ps).setObject(1, 42L);
+        assertEquals(2, lignes.get());
+    }
+
+    @Test
+    void testParcourir_OtherDatabasesFetchByBlocks() throws Exception {
+        // Arrange
+        when(metaData.getDatabaseProductName()).thenReturn("H2");
+
+        // Act
+        RequetesJdbc.parcourir(new JdbcTemplate(dataSource), "SELECT 1", rs -> {
+        });
+
+        // Assert
+        verify(ps).setFetchSize(RequetesJdbc.TAILLE_LOT);
+    }
+
+    @Test
+    void testComptes_UnknownCountRejected() {
+        // Act & Assert - compte par ligne rendu tel quel, compte inconnu refusé
+        assertArrayEquals(new int[]{1, 0, 1}, RequetesJdbc.comptes(new int[]{1, 0, 1}));
+        assertThrows(IllegalStateException.class,
+                () -> RequetesJdbc.comptes(new int[]{1, Statement.SUCCESS_NO_INFO}));
+    }
+
+}
@@ -0,0 +1,94 @@
+package tn.esprit.rh.achat.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import tn.esprit.rh.achat.entities.DetailFacture;
+import tn.esprit.rh.achat.entities.Facture;
+import tn.esprit.rh.achat.entities.Produit;
+import tn.esprit.rh.achat.entities.RevenuProduitJour;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class RevenuProduitJourRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RevenuProduitJourRepository revenuProduitJourRepository;
+
+    private static Date jour(String date) throws ParseException {
+        return new SimpleDateFormat("yyyy-MM-dd").parse(date);
+    }
+
+    @Test
+    void testCumuler_CreatesThenAccumulatesPerProductAndDay() throws ParseException {
+        // Act
+        revenuProduitJourRepository.cumuler(Arrays.asList(
+                new RevenuProduitJour(1L, jour("2024-03-01"), 100.0, 10),
+                new RevenuProduitJour(2L, jour("2024-03-01"), 40.0, 2)));
+        revenuProduitJourRepository.cumuler(Collections.singletonList(
+                new RevenuProduitJour(1L, jour("2024-03-01"), 50.0, 5)));
+        revenuProduitJourRepository.cumuler(Collections.singletonList(
+                new RevenuProduitJour(1L, jour("2024-03-02"), 25.0, 1)));
+        revenuProduitJourRepository.cumuler(Collections.singletonList(
+                new RevenuProduitJour(1L, jour("2024-03-02"), -25.0, -1)));
+
+        // Assert
+        assertEquals(3, revenuProduitJourRepository.count());
+        assertEquals(150.0, revenuProduitJourRepository.getRevenuBrutProduit(1L, jour("2024-03-01"), jour("2024-03-31")), 0.01);
+        assertEquals(0.0, revenuProduitJourRepository.getRevenuBrutProduit(1L, jour("2024-03-02"), jour("2024-03-31")), 0.01);
+        assertEquals(40.0, revenuProduitJourRepository.getRevenuBrutProduit(2L, jour("2024-03-01"), jour("2024-03-01")), 0.01);
+        assertEquals(0.0, revenuProduitJourRepository.getRevenuBrutProduit(3L, jour("2024-03-01"), jour("2024-03-31")), 0.01);
+    }
+
+    @Test
+    void testReconstruire_AggregatesActiveInvoiceLines() throws ParseException {
+        // Arrange
+        Produit produit = new Produit();
+        produit.setCodeProduit("P1");
+        produit.setPrix(10f);
+        entityManager.persist(produit);
+        Facture active = facture(jour("2024-03-01"), false);
+        Facture archivee = facture(jour("2024-03-01"), true);
+        ligne(active, produit, 3, 27f, 3f);
+        ligne(active, produit, 2, 20f, 0f);
+        ligne(archivee, produit, 5, 50f, 0f);
+        entityManager.flush();
+
+        // Act
+        int lignes = revenuProduitJourRepository.reconstruire();
+
+        // Assert - (27 + 3) + 20, the archived invoice is ignored
+        assertEquals(1, lignes);
+        assertEquals(50.0, revenuProduitJourRepository.getRevenuBrutProduit(produit.getIdProduit(),
+                jour("2024-03-01"), jour("2024-03-01")), 0.01);
+    }
+
+    private Facture facture(Date date, boolean archivee) {
+        Facture facture = new Facture();
+        facture.setDateCreationFacture(date);
+        facture.setArchivee(archivee);
+        return entityManager.persist(facture);
+    }
+
+    private void ligne(Facture facture, Produit produit, int qte, float prixTotal, float remise) {
+        DetailFacture detail = new DetailFacture();
+        detail.setFacture(facture);
+        detail.setProduit(produit);
+        detail.setQteCommandee(qte);
+        detail.setPrixTotalDetail(prixTotal);
+        detail.setMontantRemise(remise);
+        entityManager.persist(detail);
+    }
+
+}
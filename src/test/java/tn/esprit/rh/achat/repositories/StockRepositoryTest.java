@@ -5,9 +5,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
 import tn.esprit.rh.achat.entities.Stock;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -21,6 +24,9 @@ class StockRepositoryTest {
     @Autowired
     private StockRepository stockRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Stock stock1;
     private Stock stock2;
     private Stock stock3;
@@ -190,5 +196,84 @@ class StockRepositoryTest {
         assertEquals(1, lowStocks.size());
         assertEquals("Stock C - Low", lowStocks.get(0).getLibelleStock());
     }
-}
 
+    @Test
+    void testRetrancherQuantites_Success() {
+        // Arrange
+        Map<Long, Integer> quantites = new HashMap<>();
+        quantites.put(stock1.getIdStock(), 40);
+        quantites.put(stock2.getIdStock(), 50);
+
+        // Act
+        List<Long> insuffisants = stockRepository.retrancherQuantites(quantites);
+        entityManager.clear();
+
+        // Assert
+        assertTrue(insuffisants.isEmpty());
+        assertEquals(60, stockRepository.findById(stock1.getIdStock()).get().getQte());
+        assertEquals(0, stockRepository.findById(stock2.getIdStock()).get().getQte());
+    }
+
+    @Test
+    void testRetrancherQuantites_InsufficientStockIsUntouched() {
+        // Arrange
+        Map<Long, Integer> quantites = new HashMap<>();
+        quantites.put(stock1.getIdStock(), 10);
+        quantites.put(stock3.getIdStock(), 11);
+
+        // Act
+        List<Long> insuffisants = stockRepository.retrancherQuantites(quantites);
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, insuffisants.size());
+        assertEquals(stock3.getIdStock(), insuffisants.get(0));
+        assertEquals(90, stockRepository.findById(stock1.getIdStock()).get().getQte());
+        assertEquals(10, stockRepository.findById(stock3.getIdStock()).get().getQte());
+    }
+
+    @Test
+    void testRetrancherQuantites_UpdatesEnRouge() {
+        // Arrange
+        Map<Long, Integer> quantites = new HashMap<>();
+        quantites.put(stock1.getIdStock(), 90);
+
+        // Act
+        stockRepository.retrancherQuantites(quantites);
+        entityManager.clear();
+
+        // Assert - 10 < 20 : stock1 is now below its minimum
+        assertTrue(stockRepository.findById(stock1.getIdStock()).get().getEnRouge());
+        assertEquals(2, stockRepository.retrieveStatusStock().size());
+    }
+
+    @Test
+    void testUpdateStock_MaintainsEnRouge() {
+        // Arrange
+        stock3.setQte(80);
+
+        // Act
+        stockRepository.save(stock3);
+        entityManager.flush();
+
+        // Assert
+        assertFalse(stock3.getEnRouge());
+        assertTrue(stockRepository.retrieveStatusStock().isEmpty());
+    }
+
+    @Test
+    void testInitialiserEnRouge() {
+        // Arrange - rows written before the column existed
+        jdbcTemplate.update("UPDATE stock SET en_rouge = NULL");
+
+        // Act
+        int initialises = stockRepository.initialiserEnRouge();
+        entityManager.clear();
+
+        // Assert
+        assertEquals(3, initialises);
+        List<Stock> lowStocks = stockRepository.retrieveStatusStock();
+        assertEquals(1, lowStocks.size());
+        assertEquals("Stock C - Low", lowStocks.get(0).getLibelleStock());
+    }
+}
@@ -0,0 +1,84 @@
+package tn.esprit.rh.achat.repositories;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Benchmark opt-in (mvn test -Dbenchmark=true -Dtest=StockStatusBenchmarkTest) :
+ * génère un million de stocks dont ~0,01 % en rouge et vérifie que
+ * retrieveStatusStock passe par l'index en_rouge et reste sous la milliseconde.
+ */
+@Slf4j(topic = "mesures")
+@DataJpaTest(properties = {"spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StockStatusBenchmarkTest {
+
+    private static final int STOCKS = Integer.getInteger("benchmark.stocks", 1_000_000);
+    private static final int LOT = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    private int enRouge;
+
+    @BeforeEach
+    void genererStocks() {
+        Random random = new Random(42);
+        List<Object[]> lot = new ArrayList<>(LOT);
+        for (int i = 1; i <= STOCKS; i++) {
+            int qteMin = 10 + random.nextInt(90);
+            boolean rouge = random.nextInt(10_000) == 0;
+            int qte = rouge ? random.nextInt(qteMin) : qteMin + random.nextInt(1_000);
+            enRouge += rouge ? 1 : 0;
+            lot.add(new Object[]{"Stock " + i, qte, qteMin, rouge});
+            if (lot.size() == LOT || i == STOCKS) {
+                jdbcTemplate.batchUpdate("INSERT INTO stock (libelle_stock, qte, qte_min, en_rouge) VALUES (?, ?, ?, ?)", lot);
+                lot.clear();
+            }
+        }
+    }
+
+    @Test
+    void retrieveStatusStock_SubMillisecond() {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT * FROM stock WHERE en_rouge = TRUE", String.class);
+        assertTrue(plan.toUpperCase().contains("IDX_STOCK_EN_ROUGE"), plan);
+
+        // Chauffe du JIT avant la mesure
+        for (int i = 0; i < 2_000; i++) {
+            assertEquals(enRouge, stockRepository.retrieveStatusStock().size());
+            entityManager.clear();
+        }
+        long[] durees = new long[500];
+        for (int i = 0; i < durees.length; i++) {
+            long debut = System.nanoTime();
+            stockRepository.retrieveStatusStock();
+            durees[i] = System.nanoTime() - debut;
+            entityManager.clear();
+        }
+        Arrays.sort(durees);
+        long medianeMicros = durees[durees.length / 2] / 1_000;
+        log.info("retrieveStatusStock sur {} stocks ({} en rouge) : médiane {} µs, p99 {} µs", STOCKS, enRouge,
+                medianeMicros, durees[durees.length * 99 / 100] / 1_000);
+        assertTrue(medianeMicros < 1_000, "médiane " + medianeMicros + " µs");
+    }
+}
@@ -0,0 +1,167 @@
+package tn.esprit.rh.achat.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tn.esprit.rh.achat.entities.BilanFournisseur;
+import tn.esprit.rh.achat.entities.Facture;
+import tn.esprit.rh.achat.entities.Fournisseur;
+import tn.esprit.rh.achat.entities.Reglement;
+import tn.esprit.rh.achat.repositories.FactureRepository;
+import tn.esprit.rh.achat.repositories.RecepteurFactureReglement;
+
+import java.util.Calendar;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BilanFournisseursTest {
+
+    @Mock
+    private FactureRepository factureRepository;
+
+    @InjectMocks
+    private BilanFournisseurs bilanFournisseurs;
+
+    private Date jour(int jourDuMois) {
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(2024, Calendar.MARCH, jourDuMois);
+        return cal.getTime();
+    }
+
+    /*
+     * Fournisseur 1 : facture 10 active (90 + 10 de remise) réglée à 10 et 20
+     * jours, facture 11 annulée ; fournisseur 2 : facture 12 active sans règlement
+     */
+    private void donnees() {
+        doAnswer(invocation -> {
+            RecepteurFactureReglement recepteur = invocation.getArgument(0);
+            recepteur.accepter(1L, 10L, false, 90, 10, jour(1), jour(11));
+            recepteur.accepter(1L, 10L, false, 90, 10, jour(1), jour(21));
+            recepteur.accepter(1L, 11L, true, 50, 0, jour(2), null);
+            recepteur.accepter(2L, 12L, false, 100, 0, jour(3), null);
+            return null;
+        }).when(factureRepository).parcourirFacturesReglements(any());
+    }
+
+    private Facture facture(Long idFournisseur, float montant, float remise, Date date) {
+        Fournisseur fournisseur = new Fournisseur();
+        fournisseur.setIdFournisseur(idFournisseur);
+        Facture facture = new Facture();
+        facture.setFournisseur(fournisseur);
+        facture.setMontantFacture(montant);
+        facture.setMontantRemise(remise);
+        facture.setDateCreationFacture(date);
+        facture.setArchivee(false);
+        return facture;
+    }
+
+    @Test
+    void testBilan_ComputedInOnePass() {
+        // Arrange
+        donnees();
+
+        // Act
+        BilanFournisseur bilan = bilanFournisseurs.bilan(1L);
+        BilanFournisseur autre = bilanFournisseurs.bilan(2L);
+        BilanFournisseur inconnu = bilanFournisseurs.bilan(3L);
+
+        // Assert
+        assertEquals(2, bilan.getNbFactures());
+        assertEquals(1, bilan.getNbFacturesAnnulees());
+        assertEquals(90.0, bilan.getMontantFactures(), 0.001);
+        assertEquals(0.1, bilan.getTauxRemise(), 0.001);
+        assertEquals(2, bilan.getNbReglements());
+        assertEquals(15.0, bilan.getDelaiReglementMoyen(), 0.001);
+        assertEquals(0.5, bilan.getTauxAnnulation(), 0.001);
+        assertEquals(1, autre.getNbFactures());
+        assertEquals(0, autre.getNbReglements());
+        assertNull(inconnu);
+        verify(factureRepository, times(1)).parcourirFacturesReglements(any());
+    }
+
+    @Test
+    void testModifications_AppliedIncrementally() {
+        // Arrange
+        donnees();
+        bilanFournisseurs.bilan(1L);
+        Facture nouvelle = facture(2L, 80, 20, jour(5));
+        Reglement reglement = new Reglement();
+        reglement.setDateReglement(jour(12));
+
+        // Act
+        bilanFournisseurs.ajouterFacture(nouvelle);
+        bilanFournisseurs.ajouterReglement(nouvelle, reglement);
+        bilanFournisseurs.annulerFacture(facture(2L, 100, 0, jour(3)));
+        bilanFournisseurs.ajouterFacture(facture(4L, 10, 0, jour(6)));
+        bilanFournisseurs.retirerFournisseur(1L);
+
+        // Assert
+        BilanFournisseur bilan = bilanFournisseurs.bilan(2L);
+        assertEquals(2, bilan.getNbFactures());
+        assertEquals(1, bilan.getNbFacturesAnnulees());
+        assertEquals(80.0, bilan.getMontantFactures(), 0.001);
+        assertEquals(0.2, bilan.getTauxRemise(), 0.001);
+        assertEquals(7.0, bilan.getDelaiReglementMoyen(), 0.001);
+        assertEquals(1, bilanFournisseurs.bilan(4L).getNbFactures());
+        assertNull(bilanFournisseurs.bilan(1L));
+    }
+
+    @Test
+    void testAnnulerFacture_AlreadyArchivedIgnored() {
+        // Arrange
+        donnees();
+        bilanFournisseurs.bilan(2L);
+        Facture archivee = facture(2L, 100, 0, jour(3));
+        archivee.setArchivee(true);
+
+        // Act
+        bilanFournisseurs.annulerFacture(archivee);
+
+        // Assert
+        assertEquals(0, bilanFournisseurs.bilan(2L).getNbFacturesAnnulees());
+    }
+
+    @Test
+    void testModificationsAvantChargement_IgnoredThenLoadedFromDatabase() {
+        // Arrange
+        donnees();
+
+        // Act
+        bilanFournisseurs.ajouterFacture(facture(2L, 80, 20, jour(5)));
+        BilanFournisseur bilan = bilanFournisseurs.bilan(2L);
+
+        // Assert - only the database content counts
+        assertEquals(1, bilan.getNbFactures());
+        assertEquals(100.0, bilan.getMontantFactures(), 0.001);
+    }
+
+    @Test
+    void testModificationsPendantChargement_IgnoredNotCountedTwice() throws Exception {
+        // Arrange - une facture validée pendant la lecture, déjà présente dans la base lue
+        Thread[] pendant = new Thread[1];
+        doAnswer(invocation -> {
+            RecepteurFactureReglement recepteur = invocation.getArgument(0);
+            recepteur.accepter(2L, 12L, false, 100, 0, jour(3), null);
+            pendant[0] = new Thread(() -> bilanFournisseurs.ajouterFacture(facture(2L, 100, 0, jour(3))));
+            pendant[0].start();
+            pendant[0].join(5_000);
+            return null;
+        }).when(factureRepository).parcourirFacturesReglements(any());
+
+        // Act
+        BilanFournisseur bilan = bilanFournisseurs.bilan(2L);
+
+        // Assert - la modification n'a pas attendu la fin de la lecture et n'a rien ajouté
+        assertFalse(pendant[0].isAlive());
+        assertEquals(1, bilan.getNbFactures());
+        assertEquals(100.0, bilan.getMontantFactures(), 0.001);
+    }
+
+}
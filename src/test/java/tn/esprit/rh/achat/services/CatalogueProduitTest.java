@@ -0,0 +1,166 @@
+package tn.esprit.rh.achat.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tn.esprit.rh.achat.entities.ProduitVue;
+import tn.esprit.rh.achat.repositories.ProduitRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogueProduitTest {
+
+    @Mock
+    private ProduitRepository produitRepository;
+
+    @Mock
+    private VersionsTables versionsTables;
+
+    @InjectMocks
+    private CatalogueProduit catalogueProduit;
+
+    private ProduitVue vue(long id, String code, float prix) {
+        return new ProduitVue(id, code, "Produit " + code, prix, null, null, null, null);
+    }
+
+    @Test
+    void testProduits_LoadedOnceThenServedFromSnapshot() {
+        // Arrange
+        when(produitRepository.retrieveCatalogue()).thenReturn(Arrays.asList(vue(2L, "P2", 20f), vue(1L, "P1", 10f)));
+
+        // Act
+        List<ProduitVue> premier = catalogueProduit.produits();
+        List<ProduitVue> second = catalogueProduit.produits();
+        ProduitVue produit = catalogueProduit.produit(2L);
+
+        // Assert
+        assertEquals(2, premier.size());
+        assertEquals(1L, premier.get(0).getIdProduit());
+        assertSame(premier, second);
+        assertEquals("P2", produit.getCodeProduit());
+        verify(produitRepository, times(1)).retrieveCatalogue();
+        assertThrows(UnsupportedOperationException.class, () -> premier.add(vue(3L, "P3", 30f)));
+    }
+
+    @Test
+    void testInvalider_ReloadsOnlyModifiedProducts() {
+        // Arrange
+        when(produitRepository.retrieveCatalogue()).thenReturn(Arrays.asList(vue(1L, "P1", 10f), vue(2L, "P2", 20f)));
+        catalogueProduit.produits();
+        when(produitRepository.retrieveCatalogue(Collections.singletonList(2L)))
+                .thenReturn(Collections.singletonList(vue(2L, "P2", 25f)));
+
+        // Act
+        catalogueProduit.invalider(2L);
+        List<ProduitVue> produits = catalogueProduit.produits();
+
+        // Assert
+        assertEquals(25f, catalogueProduit.produit(2L).getPrix());
+        assertEquals(10f, produits.get(0).getPrix());
+        verify(produitRepository, times(1)).retrieveCatalogue();
+        verify(produitRepository, times(1)).retrieveCatalogue(anyCollection());
+    }
+
+    @Test
+    void testInvalider_DeletedProductDisappears() {
+        // Arrange
+        when(produitRepository.retrieveCatalogue()).thenReturn(Arrays.asList(vue(1L, "P1", 10f), vue(2L, "P2", 20f)));
+        catalogueProduit.produits();
+        when(produitRepository.retrieveCatalogue(Collections.singletonList(1L))).thenReturn(Collections.emptyList());
+
+        // Act
+        catalogueProduit.invalider(1L);
+
+        // Assert
+        assertNull(catalogueProduit.produit(1L));
+        assertEquals(1, catalogueProduit.produits().size());
+    }
+
+    @Test
+    void testInvaliderTout_FullReload() {
+        // Arrange
+        when(produitRepository.retrieveCatalogue()).thenReturn(Collections.singletonList(vue(1L, "P1", 10f)));
+        long version = catalogueProduit.version();
+        catalogueProduit.produits();
+
+        // Act
+        catalogueProduit.invaliderTout();
+        catalogueProduit.produits();
+
+        // Assert
+        assertTrue(catalogueProduit.version() > version);
+        verify(produitRepository, times(2)).retrieveCatalogue();
+    }
+
+    @Test
+    void testRecharger_UnchangedCatalogueKeepsEtag() {
+        // Arrange
+        when(produitRepository.retrieveCatalogue()).thenReturn(Collections.singletonList(vue(1L, "P1", 10f)));
+        catalogueProduit.produits();
+
+        // Act
+        catalogueProduit.recharger();
+
+        // Assert - rechargé tout de suite, sans nouvelle version de la table
+        verify(produitRepository, times(2)).retrieveCatalogue();
+        verify(versionsTables, never()).modifier(VersionsTables.PRODUIT);
+    }
+
+    @Test
+    void testRecharger_ChangeFromAnotherJvmChangesEtag() {
+        // Arrange
+        when(produitRepository.retrieveCatalogue()).thenReturn(Collections.singletonList(vue(1L, "P1", 10f)),
+                Arrays.asList(vue(1L, "P1", 10f), vue(2L, "P2", 20f)));
+        catalogueProduit.produits();
+
+        // Act
+        catalogueProduit.recharger();
+
+        // Assert
+        assertEquals(2, catalogueProduit.produits().size());
+        verify(versionsTables, times(1)).modifier(VersionsTables.PRODUIT);
+    }
+
+    @Test
+    void testChargement_ChangesOnlyOnFullReload() {
+        // Arrange
+        when(produitRepository.retrieveCatalogue()).thenReturn(Collections.singletonList(vue(1L, "P1", 10f)));
+        long initial = catalogueProduit.chargement();
+
+        // Act
+        catalogueProduit.invalider(1L);
+        long apresInvalidation = catalogueProduit.chargement();
+        catalogueProduit.invaliderTout();
+        long apresRechargement = catalogueProduit.chargement();
+
+        // Assert
+        assertEquals(initial, apresInvalidation);
+        assertEquals(initial + 1, apresRechargement);
+    }
+
+    @Test
+    void testChargement_UnchangedWhenReloadFindsSameContents() {
+        // Arrange
+        when(produitRepository.retrieveCatalogue()).thenReturn(Collections.singletonList(vue(1L, "P1", 10f)));
+        long initial = catalogueProduit.chargement();
+
+        // Act
+        catalogueProduit.recharger();
+        long identique = catalogueProduit.chargement();
+        when(produitRepository.retrieveCatalogue()).thenReturn(Collections.singletonList(vue(1L, "P1", 12f)));
+        catalogueProduit.recharger();
+
+        // Assert
+        assertEquals(initial, identique);
+        assertEquals(initial + 1, catalogueProduit.chargement());
+    }
+}
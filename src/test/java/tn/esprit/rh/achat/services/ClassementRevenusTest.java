@@ -0,0 +1,162 @@
+package tn.esprit.rh.achat.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tn.esprit.rh.achat.entities.Fournisseur;
+import tn.esprit.rh.achat.entities.LigneClassement;
+import tn.esprit.rh.achat.entities.ProduitVue;
+import tn.esprit.rh.achat.repositories.FactureRepository;
+import tn.esprit.rh.achat.repositories.FournisseurRepository;
+import tn.esprit.rh.achat.repositories.RecepteurRevenu;
+import tn.esprit.rh.achat.repositories.RevenuProduitJourRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClassementRevenusTest {
+
+    @Mock
+    private RevenuProduitJourRepository revenuProduitJourRepository;
+
+    @Mock
+    private FactureRepository factureRepository;
+
+    @Mock
+    private FournisseurRepository fournisseurRepository;
+
+    @Mock
+    private CatalogueProduit catalogueProduit;
+
+    private ClassementRevenus classementRevenus;
+
+    private final Date debut = new Date(0L);
+    private final Date finClose = new Date(86_400_000L * 365);
+
+    @BeforeEach
+    void setUp() {
+        classementRevenus = new ClassementRevenus(16);
+        classementRevenus.revenuProduitJourRepository = revenuProduitJourRepository;
+        classementRevenus.factureRepository = factureRepository;
+        classementRevenus.fournisseurRepository = fournisseurRepository;
+        classementRevenus.catalogueProduit = catalogueProduit;
+    }
+
+    private void revenusProduits(double... revenus) {
+        doAnswer(invocation -> {
+            RecepteurRevenu recepteur = invocation.getArgument(2);
+            for (int i = 0; i < revenus.length; i++) {
+                recepteur.accepter(i + 1, revenus[i]);
+            }
+            return null;
+        }).when(revenuProduitJourRepository).parcourirRevenusProduits(any(), any(), any());
+    }
+
+    @Test
+    void testMeilleursRevenus_KeepsTopNInDescendingOrder() {
+        // Arrange
+        Random random = new Random(42);
+        double[] revenus = new double[10_000];
+        ClassementRevenus.MeilleursRevenus meilleurs = new ClassementRevenus.MeilleursRevenus(50);
+
+        // Act
+        for (int i = 0; i < revenus.length; i++) {
+            revenus[i] = random.nextDouble() * 1_000;
+            meilleurs.offrir(i, revenus[i]);
+        }
+        meilleurs.trier();
+
+        // Assert
+        double[] tries = revenus.clone();
+        Arrays.sort(tries);
+        assertEquals(50, meilleurs.taille());
+        for (int rang = 0; rang < 50; rang++) {
+            assertEquals(tries[tries.length - 1 - rang], meilleurs.revenu(rang));
+            assertEquals(revenus[(int) meilleurs.id(rang)], meilleurs.revenu(rang));
+        }
+    }
+
+    @Test
+    void testTopProduits_RanksAndLabelsFromCatalogue() {
+        // Arrange
+        revenusProduits(10.0, 300.0, 20.0, 150.0);
+        when(catalogueProduit.produit(any())).thenAnswer(i -> new ProduitVue(i.getArgument(0),
+                "P" + i.getArgument(0), "Produit", 1f, null, null, null, null));
+
+        // Act
+        List<LigneClassement> top = classementRevenus.topProduits(debut, new Date(), 2);
+
+        // Assert
+        assertEquals(2, top.size());
+        assertEquals(1, top.get(0).getRang());
+        assertEquals(2L, top.get(0).getId());
+        assertEquals("P2", top.get(0).getCode());
+        assertEquals(150.0, top.get(1).getRevenu());
+    }
+
+    @Test
+    void testTopFournisseurs_ClosedPeriodServedFromCacheUntilInvalidated() {
+        // Arrange
+        doAnswer(invocation -> {
+            ((RecepteurRevenu) invocation.getArgument(2)).accepter(7L, 500.0);
+            return null;
+        }).when(factureRepository).parcourirRevenusFournisseurs(any(), any(), any());
+        Fournisseur fournisseur = new Fournisseur();
+        fournisseur.setIdFournisseur(7L);
+        fournisseur.setCode("F7");
+        when(fournisseurRepository.findAllById(Collections.singletonList(7L)))
+                .thenReturn(Collections.singletonList(fournisseur));
+
+        // Act
+        classementRevenus.topFournisseurs(debut, finClose, 50);
+        List<LigneClassement> top = classementRevenus.topFournisseurs(debut, finClose, 50);
+        classementRevenus.invalider();
+        classementRevenus.topFournisseurs(debut, finClose, 50);
+
+        // Assert
+        assertEquals("F7", top.get(0).getCode());
+        assertEquals(500.0, top.get(0).getRevenu());
+        verify(factureRepository, times(2)).parcourirRevenusFournisseurs(any(), any(), any());
+    }
+
+    @Test
+    void testTopProduits_InvalidatedDuringComputationNotCached() {
+        // Arrange - une facture antidatée invalide le cache pendant la lecture
+        doAnswer(invocation -> {
+            ((RecepteurRevenu) invocation.getArgument(2)).accepter(1L, 10.0);
+            classementRevenus.invalider();
+            return null;
+        }).when(revenuProduitJourRepository).parcourirRevenusProduits(any(), any(), any());
+
+        // Act
+        classementRevenus.topProduits(debut, finClose, 10);
+        classementRevenus.topProduits(debut, finClose, 10);
+
+        // Assert - le premier résultat n'a pas été gardé
+        verify(revenuProduitJourRepository, times(2)).parcourirRevenusProduits(any(), any(), any());
+    }
+
+    @Test
+    void testTopProduits_OpenPeriodNotCached() {
+        // Arrange
+        revenusProduits(10.0);
+
+        // Act
+        classementRevenus.topProduits(debut, new Date(), 10);
+        classementRevenus.topProduits(debut, new Date(), 10);
+
+        // Assert
+        verify(revenuProduitJourRepository, times(2)).parcourirRevenusProduits(any(), any(), any());
+    }
+
+}
@@ -3,6 +3,7 @@ package tn.esprit.rh.achat.services;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -13,7 +14,9 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +40,18 @@ class FactureServiceImplTest {
     @Mock
     private ReglementServiceImpl reglementService;
 
+    @Mock
+    private IStockService stockService;
+
+    @Mock
+    private RevenuProduitJourRepository revenuProduitJourRepository;
+
+    @Mock
+    private ClassementRevenus classementRevenus;
+
+    @Mock
+    private BilanFournisseurs bilanFournisseurs;
+
     @InjectMocks
     private FactureServiceImpl factureService;
 
@@ -267,5 +282,187 @@ class FactureServiceImplTest {
         // Assert
         assertEquals(expectedPercentage, result, 0.01);
     }
-}
 
+    private Facture factureAvecLignes(Stock stock) {
+        Produit produit1 = new Produit();
+        produit1.setIdProduit(1L);
+        produit1.setCodeProduit("P1");
+        produit1.setPrix(10.0f);
+        produit1.setStock(stock);
+
+        Produit produit2 = new Produit();
+        produit2.setIdProduit(2L);
+        produit2.setCodeProduit("P2");
+        produit2.setPrix(20.0f);
+        produit2.setStock(stock);
+
+        when(produitRepository.retrieveProduitsAvecStock(anyCollection())).thenReturn(Arrays.asList(produit1, produit2));
+
+        DetailFacture ligne1 = new DetailFacture();
+        ligne1.setQteCommandee(3);
+        ligne1.setPourcentageRemise(0);
+        ligne1.setProduit(produit1);
+
+        DetailFacture ligne2 = new DetailFacture();
+        ligne2.setQteCommandee(4);
+        ligne2.setPourcentageRemise(50);
+        ligne2.setProduit(produit2);
+
+        Facture nouvelle = new Facture();
+        nouvelle.setDetailsFacture(new HashSet<>(Arrays.asList(ligne1, ligne2)));
+        return nouvelle;
+    }
+
+    @Test
+    void testAddFacture_WithDetails_ComputesAmounts() {
+        // Arrange
+        Facture nouvelle = factureAvecLignes(null);
+        when(factureRepository.save(nouvelle)).thenReturn(nouvelle);
+
+        // Act
+        Facture result = factureService.addFacture(nouvelle);
+
+        // Assert - 3 x 10 + (4 x 20 - 50%)
+        assertEquals(70.0f, result.getMontantFacture(), 0.01);
+        assertEquals(40.0f, result.getMontantRemise(), 0.01);
+        verify(produitRepository, times(1)).retrieveProduitsAvecStock(anyCollection());
+        verify(detailFactureRepository, times(1)).saveAll(nouvelle.getDetailsFacture());
+        verifyNoInteractions(stockService);
+    }
+
+    @Test
+    void testAddFacture_LineWithoutProduct_Rejected() {
+        // Arrange
+        DetailFacture sansProduit = new DetailFacture();
+        sansProduit.setQteCommandee(1);
+        Facture nouvelle = new Facture();
+        nouvelle.setDetailsFacture(new HashSet<>(Collections.singletonList(sansProduit)));
+
+        // Act & Assert
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> factureService.addFacture(nouvelle));
+        assertTrue(e.getMessage().contains("sans produit"));
+        verify(factureRepository, never()).save(any());
+        verify(detailFactureRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testAddFacture_MissingOrNonPositiveQuantity_Rejected() {
+        for (Integer qte : Arrays.asList(null, 0, -3)) {
+            // Arrange
+            Produit produit = new Produit();
+            produit.setIdProduit(1L);
+            DetailFacture ligne = new DetailFacture();
+            ligne.setProduit(produit);
+            ligne.setQteCommandee(qte);
+            Facture nouvelle = new Facture();
+            nouvelle.setDetailsFacture(new HashSet<>(Collections.singletonList(ligne)));
+
+            // Act & Assert - rejetée avant toute lecture ou écriture
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> factureService.addFacture(nouvelle, true));
+            assertTrue(e.getMessage().contains("Quantité commandée invalide (" + qte + ")"), e.getMessage());
+        }
+        verifyNoInteractions(produitRepository, stockService, revenuProduitJourRepository);
+        verify(factureRepository, never()).save(any());
+    }
+
+    @Test
+    void testAddFacture_UnknownProduct_Rejected() {
+        // Arrange
+        Facture nouvelle = factureAvecLignes(null);
+        when(produitRepository.retrieveProduitsAvecStock(anyCollection()))
+                .thenReturn(Collections.singletonList(nouvelle.getDetailsFacture().stream()
+                        .filter(d -> d.getProduit().getIdProduit() == 1L).findFirst().get().getProduit()));
+
+        // Act & Assert
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> factureService.addFacture(nouvelle));
+        assertTrue(e.getMessage().contains("2"));
+        verify(factureRepository, never()).save(any());
+    }
+
+    @Test
+    void testAddFacture_DeduireStock_AggregatesPerStock() {
+        // Arrange
+        Stock stock = new Stock("Stock A", 100, 10);
+        stock.setIdStock(5L);
+        Facture nouvelle = factureAvecLignes(stock);
+        when(factureRepository.save(nouvelle)).thenReturn(nouvelle);
+        when(stockService.deduireQuantites(anyMap())).thenReturn(new ArrayList<>());
+
+        // Act
+        factureService.addFacture(nouvelle, true);
+
+        // Assert - one batched deduction with both lines summed on the same stock
+        verify(stockService, times(1)).deduireQuantites(Collections.singletonMap(5L, 7));
+        verify(detailFactureRepository, times(1)).saveAll(nouvelle.getDetailsFacture());
+    }
+
+    @Test
+    void testAddFacture_DeduireStock_Insufficient() {
+        // Arrange
+        Stock stock = new Stock("Stock A", 5, 1);
+        stock.setIdStock(5L);
+        Facture nouvelle = factureAvecLignes(stock);
+        when(factureRepository.save(nouvelle)).thenReturn(nouvelle);
+        when(stockService.deduireQuantites(anyMap())).thenReturn(Collections.singletonList(5L));
+
+        // Act & Assert
+        StockInsuffisantException e = assertThrows(StockInsuffisantException.class,
+                () -> factureService.addFacture(nouvelle, true));
+        assertEquals(2, e.getLignes().size());
+        assertTrue(e.getMessage().contains("P1"));
+        assertTrue(e.getMessage().contains("P2"));
+        verify(detailFactureRepository, never()).saveAll(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, RevenuProduitJour> revenusCumules() {
+        ArgumentCaptor<Collection<RevenuProduitJour>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(revenuProduitJourRepository, times(1)).cumuler(captor.capture());
+        Map<Long, RevenuProduitJour> revenus = new HashMap<>();
+        for (RevenuProduitJour revenu : captor.getValue()) {
+            revenus.put(revenu.getIdProduit(), revenu);
+        }
+        return revenus;
+    }
+
+    @Test
+    void testAddFacture_WithDetails_FeedsDailyRevenueRollup() {
+        // Arrange
+        Facture nouvelle = factureAvecLignes(null);
+        nouvelle.setDateCreationFacture(new Date());
+        when(factureRepository.save(nouvelle)).thenReturn(nouvelle);
+
+        // Act
+        factureService.addFacture(nouvelle);
+
+        // Assert - gross revenue is qte x unit price, before discount
+        Map<Long, RevenuProduitJour> revenus = revenusCumules();
+        assertEquals(30.0, revenus.get(1L).getRevenuBrut(), 0.01);
+        assertEquals(3L, revenus.get(1L).getQteVendue());
+        assertEquals(80.0, revenus.get(2L).getRevenuBrut(), 0.01);
+        assertEquals(nouvelle.getDateCreationFacture(), revenus.get(2L).getJour());
+    }
+
+    @Test
+    void testCancelFacture_RemovesLinesFromRollup() {
+        // Arrange
+        Facture existante = factureAvecLignes(null);
+        existante.setDateCreationFacture(new Date());
+        when(factureRepository.save(existante)).thenReturn(existante);
+        factureService.addFacture(existante);
+        reset(revenuProduitJourRepository);
+        when(factureRepository.findById(1L)).thenReturn(Optional.of(existante));
+
+        // Act
+        factureService.cancelFacture(1L);
+        factureService.cancelFacture(1L);
+
+        // Assert - subtracted once, the second cancel finds the invoice archived
+        Map<Long, RevenuProduitJour> revenus = revenusCumules();
+        assertEquals(-30.0, revenus.get(1L).getRevenuBrut(), 0.01);
+        assertEquals(-4L, revenus.get(2L).getQteVendue());
+    }
+}
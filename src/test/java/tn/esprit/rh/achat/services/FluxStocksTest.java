@@ -0,0 +1,160 @@
+package tn.esprit.rh.achat.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tn.esprit.rh.achat.entities.Stock;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FluxStocksTest {
+
+    private final CountDownLatch liberation = new CountDownLatch(1);
+    private FluxStocks fluxStocks;
+
+    @AfterEach
+    void tearDown() {
+        liberation.countDown();
+        if (fluxStocks != null) {
+            fluxStocks.destroy();
+        }
+    }
+
+    private StockModifieEvent event(long idStock, int qte) {
+        Stock stock = new Stock("Stock " + idStock, qte, 10);
+        stock.setIdStock(idStock);
+        return StockModifieEvent.modifie(stock);
+    }
+
+    @Test
+    void testAbonne_CoalescesUpdatesOfSameStock() {
+        // Arrange
+        FluxStocks.Abonne abonne = new FluxStocks.Abonne(null, 10);
+
+        // Act
+        abonne.ajouter(event(1L, 100));
+        abonne.ajouter(event(2L, 50));
+        abonne.ajouter(event(1L, 90));
+        abonne.ajouter(event(1L, 80));
+        List<StockModifieEvent> events = abonne.vider();
+
+        // Assert - stock 2 first, then the latest value of stock 1
+        assertEquals(2, events.size());
+        assertEquals(2L, events.get(0).getIdStock());
+        assertEquals(1L, events.get(1).getIdStock());
+        assertEquals(80, events.get(1).getQte());
+        assertTrue(abonne.vider().isEmpty());
+    }
+
+    @Test
+    void testAbonne_OverflowRequestsResynchronisation() {
+        // Arrange
+        FluxStocks.Abonne abonne = new FluxStocks.Abonne(null, 2);
+
+        // Act
+        abonne.ajouter(event(1L, 1));
+        abonne.ajouter(event(2L, 2));
+        abonne.ajouter(event(3L, 3));
+        abonne.ajouter(event(4L, 4));
+
+        // Assert
+        assertTrue(abonne.extraireResynchronisation());
+        assertFalse(abonne.extraireResynchronisation());
+        assertTrue(abonne.vider().isEmpty());
+    }
+
+    @Test
+    void testDiffuser_KeepsConnectedSubscriber() {
+        // Arrange
+        fluxStocks = new FluxStocks(1, 10);
+        fluxStocks.abonner();
+
+        // Act
+        fluxStocks.publier(event(1L, 5));
+        fluxStocks.diffuser();
+
+        // Assert
+        assertEquals(1, fluxStocks.nombreAbonnes());
+    }
+
+    @Test
+    void testDiffuser_RemovesSubscriberOnCompletion() throws Exception {
+        // Arrange
+        fluxStocks = new FluxStocks(1, 10);
+        SseEmitter emitter = new SseEmitter();
+        fluxStocks.abonner(emitter);
+        emitter.complete();
+
+        // Act
+        fluxStocks.publier(event(1L, 5));
+        fluxStocks.diffuser();
+
+        // Assert
+        attendre(() -> fluxStocks.nombreAbonnes() == 0);
+        assertEquals(0, fluxStocks.nombreAbonnes());
+    }
+
+    @Test
+    void testDiffuser_SlowSubscriberDoesNotDelayOthers() throws Exception {
+        // Arrange
+        fluxStocks = new FluxStocks(2, 10);
+        fluxStocks.delaiEnvoiMs = 100;
+        EmitterEnregistreur lent = new EmitterEnregistreur(liberation);
+        EmitterEnregistreur rapide = new EmitterEnregistreur(null);
+        fluxStocks.abonner(lent);
+        fluxStocks.abonner(rapide);
+        fluxStocks.publier(event(1L, 5));
+
+        // Act
+        long debut = System.nanoTime();
+        fluxStocks.diffuser();
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+        attendre(() -> rapide.envois.size() == 1);
+        Thread.sleep(150);
+        fluxStocks.publier(event(2L, 6));
+        fluxStocks.diffuser();
+
+        // Assert - envoi bloqué au-delà du délai : seul l'abonné lent est retiré
+        assertTrue(dureeMs < 1_000, dureeMs + " ms");
+        attendre(() -> rapide.envois.size() == 2);
+        assertEquals(2, rapide.envois.size());
+        assertEquals(1, fluxStocks.nombreAbonnes());
+    }
+
+    private static void attendre(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    // Emitter sans requête HTTP : enregistre les événements, bloque tant que le verrou n'est pas levé
+    private static class EmitterEnregistreur extends SseEmitter {
+
+        final List<SseEventBuilder> envois = new CopyOnWriteArrayList<>();
+        private final CountDownLatch verrou;
+
+        EmitterEnregistreur(CountDownLatch verrou) {
+            this.verrou = verrou;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (verrou != null) {
+                try {
+                    verrou.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            envois.add(builder);
+        }
+
+    }
+}
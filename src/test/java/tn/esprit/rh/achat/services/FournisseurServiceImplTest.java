@@ -0,0 +1,182 @@
+package tn.esprit.rh.achat.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tn.esprit.rh.achat.entities.CategorieFournisseur;
+import tn.esprit.rh.achat.entities.DetailFournisseur;
+import tn.esprit.rh.achat.entities.Fournisseur;
+import tn.esprit.rh.achat.entities.ResultatImportFournisseurs;
+import tn.esprit.rh.achat.repositories.FournisseurRepository;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FournisseurServiceImplTest {
+
+    @Mock
+    private FournisseurRepository fournisseurRepository;
+
+    @Mock
+    private IndexSecteursFournisseurs indexSecteursFournisseurs;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private FournisseurServiceImpl fournisseurService;
+
+    private Fournisseur fournisseur(Long id, String code, String libelle, String email) {
+        Fournisseur fournisseur = new Fournisseur();
+        fournisseur.setIdFournisseur(id);
+        fournisseur.setCode(code);
+        fournisseur.setLibelle(libelle);
+        if (email != null) {
+            DetailFournisseur detail = new DetailFournisseur();
+            detail.setEmail(email);
+            fournisseur.setDetailFournisseur(detail);
+        }
+        return fournisseur;
+    }
+
+    @Test
+    void testAddFournisseur_KeepsProvidedDetail() {
+        // Arrange
+        Fournisseur f = fournisseur(null, "F1", "Fournisseur 1", "f1@achat.tn");
+        f.getDetailFournisseur().setIdDetailFournisseur(9L);
+
+        // Act
+        Fournisseur result = fournisseurService.addFournisseur(f);
+
+        // Assert
+        assertEquals("f1@achat.tn", result.getDetailFournisseur().getEmail());
+        assertNull(result.getDetailFournisseur().getIdDetailFournisseur());
+        assertNotNull(result.getDetailFournisseur().getDateDebutCollaboration());
+        verify(fournisseurRepository, times(1)).save(f);
+    }
+
+    @Test
+    void testAddFournisseur_CreatesDetailWhenMissing() {
+        // Act
+        Fournisseur result = fournisseurService.addFournisseur(fournisseur(null, "F1", "Fournisseur 1", null));
+
+        // Assert
+        assertNotNull(result.getDetailFournisseur());
+        assertNotNull(result.getDetailFournisseur().getDateDebutCollaboration());
+    }
+
+    @Test
+    void testPatchFournisseur_CopiesOnlyNonNullFields() {
+        // Arrange
+        Fournisseur existant = fournisseur(1L, "F1", "Ancien", "f1@achat.tn");
+        existant.setCategorieFournisseur(CategorieFournisseur.ORDINAIRE);
+        when(fournisseurRepository.retrieveFournisseurAvecDetail(1L)).thenReturn(Optional.of(existant));
+        Fournisseur modifications = fournisseur(1L, null, "Nouveau", "contact@achat.tn");
+
+        // Act
+        Fournisseur result = fournisseurService.patchFournisseur(modifications);
+
+        // Assert - applied to the managed entity, written by dirty checking
+        assertSame(existant, result);
+        assertEquals("F1", result.getCode());
+        assertEquals("Nouveau", result.getLibelle());
+        assertEquals(CategorieFournisseur.ORDINAIRE, result.getCategorieFournisseur());
+        assertEquals("contact@achat.tn", result.getDetailFournisseur().getEmail());
+        verify(fournisseurRepository, never()).save(any());
+    }
+
+    @Test
+    void testUpdateFournisseur_ReplacesAllFields() {
+        // Arrange
+        Fournisseur existant = fournisseur(1L, "F1", "Ancien", "f1@achat.tn");
+        existant.setCategorieFournisseur(CategorieFournisseur.ORDINAIRE);
+        when(fournisseurRepository.retrieveFournisseurAvecDetail(1L)).thenReturn(Optional.of(existant));
+
+        // Act
+        Fournisseur result = fournisseurService.updateFournisseur(fournisseur(1L, "F1", "Nouveau", null));
+
+        // Assert - the detail is kept when absent from the body
+        assertEquals("Nouveau", result.getLibelle());
+        assertNull(result.getCategorieFournisseur());
+        assertEquals("f1@achat.tn", result.getDetailFournisseur().getEmail());
+    }
+
+    @Test
+    void testUpdateFournisseur_UnknownOrMissingId() {
+        // Arrange
+        when(fournisseurRepository.retrieveFournisseurAvecDetail(99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class,
+                () -> fournisseurService.updateFournisseur(fournisseur(99L, "F9", null, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> fournisseurService.patchFournisseur(fournisseur(null, "F9", null, null)));
+    }
+
+    @Test
+    void testUpsertFournisseurs_CreatesModifiesAndSkipsUnchanged() {
+        // Arrange
+        Fournisseur modifie = fournisseur(1L, "F1", "Ancien", null);
+        Fournisseur inchange = fournisseur(2L, "F2", "Même libellé", null);
+        when(fournisseurRepository.findByCodeIn(anyCollection())).thenReturn(Arrays.asList(modifie, inchange));
+
+        // Act
+        ResultatImportFournisseurs resultat = fournisseurService.upsertFournisseurs(Arrays.asList(
+                fournisseur(null, "F1", "Nouveau", null),
+                fournisseur(null, "F2", "Même libellé", null),
+                fournisseur(7L, "F3", "Créé", "f3@achat.tn")));
+
+        // Assert
+        assertEquals(1, resultat.getCrees());
+        assertEquals(1, resultat.getModifies());
+        assertEquals(1, resultat.getInchanges());
+        assertEquals("Nouveau", modifie.getLibelle());
+        verify(fournisseurRepository, times(1)).save(argThat(f -> "F3".equals(f.getCode()) && f.getIdFournisseur() == null));
+        verify(fournisseurRepository, times(1)).flush();
+        verify(entityManager, times(1)).clear();
+    }
+
+    @Test
+    void testUpsertFournisseurs_ClearsContextAfterEachBatch() {
+        // Arrange - 501 codes : deux lots
+        Fournisseur[] fournisseurs = new Fournisseur[501];
+        for (int i = 0; i < fournisseurs.length; i++) {
+            fournisseurs[i] = fournisseur(null, "F" + i, "Fournisseur " + i, null);
+        }
+        when(fournisseurRepository.findByCodeIn(anyCollection())).thenReturn(Collections.emptyList());
+
+        // Act
+        ResultatImportFournisseurs resultat = fournisseurService.upsertFournisseurs(Arrays.asList(fournisseurs));
+
+        // Assert
+        assertEquals(501, resultat.getCrees());
+        InOrder ordre = inOrder(fournisseurRepository, entityManager);
+        ordre.verify(fournisseurRepository).flush();
+        ordre.verify(entityManager).clear();
+        ordre.verify(fournisseurRepository).findByCodeIn(anyCollection());
+        ordre.verify(fournisseurRepository).flush();
+        ordre.verify(entityManager).clear();
+    }
+
+    @Test
+    void testUpsertFournisseurs_RejectsMissingOrDuplicateCodes() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> fournisseurService.upsertFournisseurs(
+                Collections.singletonList(fournisseur(null, " ", "Sans code", null))));
+        assertThrows(IllegalArgumentException.class, () -> fournisseurService.upsertFournisseurs(
+                Arrays.asList(fournisseur(null, "F1", "A", null), fournisseur(null, "F1", "B", null))));
+        verifyNoInteractions(fournisseurRepository);
+    }
+}
@@ -0,0 +1,172 @@
+package tn.esprit.rh.achat.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import tn.esprit.rh.achat.entities.GranulariteHistorique;
+import tn.esprit.rh.achat.entities.HistoriqueStock;
+import tn.esprit.rh.achat.entities.HistoriqueStockAgrege;
+import tn.esprit.rh.achat.repositories.HistoriqueStockAgregeRepository;
+import tn.esprit.rh.achat.repositories.HistoriqueStockRepository;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(HistoriqueStockServiceImpl.class)
+class HistoriqueStockServiceImplTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private HistoriqueStockServiceImpl historiqueStockService;
+
+    @Autowired
+    private HistoriqueStockRepository historiqueStockRepository;
+
+    @Autowired
+    private HistoriqueStockAgregeRepository historiqueStockAgregeRepository;
+
+    private Date ilYA(int jours, int heure, int minute) {
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, -jours);
+        cal.set(Calendar.HOUR_OF_DAY, heure);
+        cal.set(Calendar.MINUTE, minute);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        return cal.getTime();
+    }
+
+    private void mesure(Long idStock, Date date, int qte) {
+        entityManager.persist(new HistoriqueStock(idStock, date, qte));
+    }
+
+    @Test
+    void testCompacter_RawPointsToHourly() {
+        // Arrange - three points in the same hour ten days ago, one recent point
+        mesure(1L, ilYA(10, 8, 5), 50);
+        mesure(1L, ilYA(10, 8, 20), 30);
+        mesure(1L, ilYA(10, 8, 40), 40);
+        mesure(1L, ilYA(10, 9, 10), 45);
+        mesure(1L, ilYA(1, 9, 0), 60);
+        entityManager.flush();
+
+        // Act
+        historiqueStockService.compacter();
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, historiqueStockRepository.count());
+        List<HistoriqueStockAgrege> heures = historiqueStockAgregeRepository.findAll();
+        assertEquals(2, heures.size());
+        HistoriqueStockAgrege huitHeures = heures.stream()
+                .filter(h -> h.getDebutPeriode().getTime() == ilYA(10, 8, 0).getTime()).findFirst().get();
+        assertEquals(GranulariteHistorique.HEURE, huitHeures.getGranularite());
+        assertEquals(30, huitHeures.getQteMin());
+        assertEquals(50, huitHeures.getQteMax());
+        assertEquals(40, huitHeures.getQteDerniere());
+    }
+
+    @Test
+    void testCompacter_MoreAggregatesThanOneBatch() {
+        // Arrange - deux mesures par stock dans la même heure, au-delà d'un lot
+        int stocks = HistoriqueStockServiceImpl.LOT + 10;
+        for (long idStock = 1; idStock <= stocks; idStock++) {
+            mesure(idStock, ilYA(10, 8, 5), (int) idStock);
+            mesure(idStock, ilYA(10, 8, 50), (int) idStock + 1);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        historiqueStockService.compacter();
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        assertEquals(0, historiqueStockRepository.count());
+        List<HistoriqueStockAgrege> heures = historiqueStockAgregeRepository.findAll();
+        assertEquals(stocks, heures.size());
+        HistoriqueStockAgrege dernier = heures.stream().filter(h -> h.getIdStock() == stocks).findFirst().get();
+        assertEquals(stocks, dernier.getQteMin());
+        assertEquals(stocks + 1, dernier.getQteDerniere());
+    }
+
+    @Test
+    void testCompacter_PeriodSpanningSeveralPages() {
+        // Arrange - une seule heure d'un stock, plus de mesures qu'une page, toutes à la même date
+        int mesures = HistoriqueStockServiceImpl.LOT + 5;
+        for (int i = 1; i <= mesures; i++) {
+            mesure(1L, ilYA(10, 8, 5), i);
+        }
+        mesure(2L, ilYA(10, 8, 5), 7);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        historiqueStockService.compacter();
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert - un agrégat par stock, la dernière mesure suit l'ordre des identifiants
+        assertEquals(0, historiqueStockRepository.count());
+        List<HistoriqueStockAgrege> heures = historiqueStockAgregeRepository.findAll();
+        assertEquals(2, heures.size());
+        HistoriqueStockAgrege premier = heures.stream().filter(h -> h.getIdStock() == 1L).findFirst().get();
+        assertEquals(1, premier.getQteMin());
+        assertEquals(mesures, premier.getQteMax());
+        assertEquals(mesures, premier.getQteDerniere());
+    }
+
+    @Test
+    void testCompacter_HourlyToDaily() {
+        // Arrange - hourly aggregates older than the hourly retention
+        HistoriqueStockAgrege h1 = new HistoriqueStockAgrege(1L, GranulariteHistorique.HEURE, ilYA(100, 8, 0), 20);
+        h1.ajouter(10, 25, 20);
+        HistoriqueStockAgrege h2 = new HistoriqueStockAgrege(1L, GranulariteHistorique.HEURE, ilYA(100, 15, 0), 70);
+        entityManager.persist(h1);
+        entityManager.persist(h2);
+        entityManager.flush();
+
+        // Act
+        historiqueStockService.compacter();
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        List<HistoriqueStockAgrege> jours = historiqueStockAgregeRepository.findAll();
+        assertEquals(1, jours.size());
+        assertEquals(GranulariteHistorique.JOUR, jours.get(0).getGranularite());
+        assertEquals(ilYA(100, 0, 0).getTime(), jours.get(0).getDebutPeriode().getTime());
+        assertEquals(10, jours.get(0).getQteMin());
+        assertEquals(70, jours.get(0).getQteMax());
+        assertEquals(70, jours.get(0).getQteDerniere());
+    }
+
+    @Test
+    void testRetrieveHistorique_MergesTiers() {
+        // Arrange
+        entityManager.persist(new HistoriqueStockAgrege(1L, GranulariteHistorique.JOUR, ilYA(100, 0, 0), 10));
+        entityManager.persist(new HistoriqueStockAgrege(1L, GranulariteHistorique.HEURE, ilYA(10, 8, 0), 20));
+        mesure(1L, ilYA(1, 9, 0), 30);
+        mesure(2L, ilYA(1, 9, 0), 99);
+        entityManager.flush();
+
+        // Act
+        List<HistoriqueStockAgrege> points = historiqueStockService.retrieveHistorique(1L, ilYA(200, 0, 0), new Date());
+
+        // Assert
+        assertEquals(3, points.size());
+        assertEquals(GranulariteHistorique.JOUR, points.get(0).getGranularite());
+        assertEquals(GranulariteHistorique.HEURE, points.get(1).getGranularite());
+        assertEquals(GranulariteHistorique.BRUT, points.get(2).getGranularite());
+        assertEquals(30, points.get(2).getQteDerniere());
+    }
+}
@@ -0,0 +1,203 @@
+package tn.esprit.rh.achat.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import tn.esprit.rh.achat.entities.ProduitVue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@Slf4j(topic = "mesures")
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IndexRechercheProduitTest {
+
+    @Mock
+    private CatalogueProduit catalogueProduit;
+
+    @InjectMocks
+    private IndexRechercheProduit indexRechercheProduit;
+
+    private ProduitVue vue(long id, String code, String libelle) {
+        return new ProduitVue(id, code, libelle, 1f, null, null, null, null);
+    }
+
+    @BeforeEach
+    void setUp() {
+        List<ProduitVue> produits = Arrays.asList(
+                vue(1L, "VIS-M6", "Vis à métaux M6"),
+                vue(2L, "VIS-M8", "Vis à métaux M8"),
+                vue(3L, "ECR-10", "Écrou hexagonal 10"),
+                vue(4L, "PER-12", "Perceuse à percussion"));
+        when(catalogueProduit.produits()).thenReturn(produits);
+        when(catalogueProduit.produit(anyLong())).thenAnswer(i -> produits.stream()
+                .filter(p -> p.getIdProduit().equals(i.getArgument(0))).findFirst().orElse(null));
+    }
+
+    private List<Long> ids(List<ProduitVue> vues) {
+        return vues.stream().map(ProduitVue::getIdProduit).collect(Collectors.toList());
+    }
+
+    @Test
+    void testRechercher_ExactCodeFirstThenPrefix() {
+        // Act
+        List<ProduitVue> resultats = indexRechercheProduit.rechercher("vis-m8", 10);
+        List<ProduitVue> prefixe = indexRechercheProduit.rechercher("VIS", 10);
+
+        // Assert
+        assertEquals(2L, resultats.get(0).getIdProduit());
+        assertEquals(Arrays.asList(1L, 2L), ids(prefixe));
+        verify(catalogueProduit, times(1)).produits();
+    }
+
+    @Test
+    void testRechercher_IgnoresAccentsAndCaseOnLabelWords() {
+        // Act
+        List<ProduitVue> resultats = indexRechercheProduit.rechercher("ecrou", 10);
+        List<ProduitVue> mot = indexRechercheProduit.rechercher("MÉTA", 10);
+
+        // Assert
+        assertEquals(Arrays.asList(3L), ids(resultats));
+        assertEquals(Arrays.asList(1L, 2L), ids(mot));
+    }
+
+    @Test
+    void testRechercher_FuzzyMatchOnTypo() {
+        // Act
+        List<ProduitVue> resultats = indexRechercheProduit.rechercher("perceusse", 10);
+
+        // Assert
+        assertEquals(Arrays.asList(4L), ids(resultats));
+    }
+
+    @Test
+    void testRechercher_RespectsLimit() {
+        // Act
+        List<ProduitVue> resultats = indexRechercheProduit.rechercher("vis", 1);
+
+        // Assert
+        assertEquals(1, resultats.size());
+        assertTrue(indexRechercheProduit.rechercher("  ", 10).isEmpty());
+    }
+
+    @Test
+    void testIndexerEtRetirer_UpdateTermsOfProduct() {
+        // Arrange
+        indexRechercheProduit.rechercher("vis", 10);
+
+        // Act
+        indexRechercheProduit.indexer(1L, "BOU-M6", "Boulon M6");
+        indexRechercheProduit.retirer(2L);
+
+        // Assert
+        assertEquals(Arrays.asList(1L), ids(indexRechercheProduit.rechercher("boulon", 10)));
+        assertTrue(indexRechercheProduit.rechercher("vis", 10).isEmpty());
+    }
+
+    @Test
+    void testIndexer_LabelWordAlreadyIndexedAsCodeGetsTrigrams() {
+        // Arrange - "boulon" devient un terme comme code du produit 5
+        when(catalogueProduit.produit(6L)).thenReturn(vue(6L, "BOU-10", "Boulon M10"));
+        indexRechercheProduit.rechercher("vis", 10);
+        indexRechercheProduit.indexer(5L, "BOULON", "Lot de fixation");
+
+        // Act
+        indexRechercheProduit.indexer(6L, "BOU-10", "Boulon M10");
+
+        // Assert - recherche approchée sur le mot du libellé
+        assertTrue(ids(indexRechercheProduit.rechercher("boullon", 10)).contains(6L));
+    }
+
+    @Test
+    void testRetirer_CodeSharingLabelWordKeepsTrigrams() {
+        // Arrange
+        when(catalogueProduit.produit(6L)).thenReturn(vue(6L, "BOU-10", "Boulon M10"));
+        indexRechercheProduit.rechercher("vis", 10);
+        indexRechercheProduit.indexer(5L, "BOULON", "Lot de fixation");
+        indexRechercheProduit.indexer(6L, "BOU-10", "Boulon M10");
+
+        // Act
+        indexRechercheProduit.retirer(5L);
+
+        // Assert
+        assertEquals(Arrays.asList(6L), ids(indexRechercheProduit.rechercher("boullon", 10)));
+    }
+
+    @Test
+    void testRechercher_RebuiltAfterFullCatalogueReload() {
+        // Arrange
+        indexRechercheProduit.rechercher("vis", 10);
+        List<ProduitVue> recharges = Arrays.asList(vue(9L, "CLE-17", "Clé plate 17"));
+        when(catalogueProduit.produits()).thenReturn(recharges);
+        when(catalogueProduit.produit(9L)).thenReturn(recharges.get(0));
+        when(catalogueProduit.chargement()).thenReturn(1L);
+
+        // Act
+        List<ProduitVue> resultats = indexRechercheProduit.rechercher("cle", 10);
+
+        // Assert
+        assertEquals(Arrays.asList(9L), ids(resultats));
+        assertTrue(indexRechercheProduit.rechercher("vis", 10).isEmpty());
+    }
+
+    /*
+     * Mesure opt-in (-Dbenchmark=true) : recherche par préfixe sur un million
+     * de produits, médiane sous 100 µs
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkRecherchePrefixe_MillionProduits() {
+        // Arrange
+        List<ProduitVue> produits = new ArrayList<>();
+        for (long i = 1; i <= 1_000_000; i++) {
+            produits.add(vue(i, "P" + i, "Article " + (i % 5000) + " lot " + (i % 97)));
+        }
+        IndexRechercheProduit index = new IndexRechercheProduit();
+        index.catalogueProduit = new CatalogueProduit() {
+            @Override
+            public List<ProduitVue> produits() {
+                return produits;
+            }
+
+            @Override
+            public ProduitVue produit(Long idProduit) {
+                return produits.get(idProduit.intValue() - 1);
+            }
+
+            @Override
+            public long chargement() {
+                return 1;
+            }
+        };
+        index.rechercher("p1", 10);
+
+        // Act
+        long[] durees = new long[20_000];
+        for (int i = 0; i < durees.length; i++) {
+            long debut = System.nanoTime();
+            index.rechercher("p" + (1 + i % 999), 10);
+            durees[i] = System.nanoTime() - debut;
+        }
+
+        // Assert
+        Arrays.sort(durees);
+        long mediane = durees[durees.length / 2];
+        log.info("Recherche préfixe, médiane (µs) : {}", mediane / 1000.0);
+        assertTrue(mediane < 100_000L);
+    }
+
+}
@@ -0,0 +1,165 @@
+package tn.esprit.rh.achat.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tn.esprit.rh.achat.entities.AffectationSecteurFournisseur;
+import tn.esprit.rh.achat.repositories.FournisseurRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Slf4j(topic = "mesures")
+@ExtendWith(MockitoExtension.class)
+class IndexSecteursFournisseursTest {
+
+    @Mock
+    private FournisseurRepository fournisseurRepository;
+
+    @InjectMocks
+    private IndexSecteursFournisseurs index;
+
+    private static final List<Long> AUCUN = Collections.emptyList();
+
+    /*
+     * Fournisseurs 1..4 ; secteur 10 : {1, 2, 3}, secteur 20 : {2, 3}, secteur 30 : {3, 4}
+     */
+    private void donnees() {
+        when(fournisseurRepository.retrieveIdsFournisseurs()).thenReturn(Arrays.asList(1L, 2L, 3L, 4L));
+        when(fournisseurRepository.retrieveSecteursFournisseurs()).thenReturn(Arrays.asList(
+                new Object[]{10L, 1L}, new Object[]{10L, 2L}, new Object[]{10L, 3L},
+                new Object[]{20L, 2L}, new Object[]{20L, 3L},
+                new Object[]{30L, 3L}, new Object[]{30L, 4L}));
+    }
+
+    @Test
+    void testRechercher_CombinesAllAnyAndNone() {
+        // Arrange
+        donnees();
+
+        // Act
+        List<Long> tous = index.rechercher(Arrays.asList(10L, 20L), AUCUN, AUCUN);
+        List<Long> auMoinsUn = index.rechercher(AUCUN, Arrays.asList(20L, 30L), AUCUN);
+        List<Long> combine = index.rechercher(Collections.singletonList(10L), AUCUN, Collections.singletonList(30L));
+        List<Long> sansSecteur = index.rechercher(AUCUN, AUCUN, Arrays.asList(10L, 30L));
+
+        // Assert
+        assertEquals(Arrays.asList(2L, 3L), tous);
+        assertEquals(Arrays.asList(2L, 3L, 4L), auMoinsUn);
+        assertEquals(Arrays.asList(1L, 2L), combine);
+        assertTrue(sansSecteur.isEmpty());
+        verify(fournisseurRepository, times(1)).retrieveIdsFournisseurs();
+    }
+
+    @Test
+    void testRechercher_UnknownSectorMatchesNothing() {
+        // Arrange
+        donnees();
+
+        // Act
+        List<Long> resultat = index.rechercher(Collections.singletonList(99L), AUCUN, AUCUN);
+        List<Long> sansFiltre = index.rechercher(AUCUN, AUCUN, Collections.singletonList(99L));
+
+        // Assert
+        assertTrue(resultat.isEmpty());
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), sansFiltre);
+    }
+
+    @Test
+    void testRechercher_SparseSequenceIds() {
+        // Arrange - identifiants par blocs de 50 avec des blocs abandonnés
+        long grand = Integer.MAX_VALUE;
+        when(fournisseurRepository.retrieveIdsFournisseurs()).thenReturn(Arrays.asList(1L, 51L, 1_000_001L, grand));
+        when(fournisseurRepository.retrieveSecteursFournisseurs()).thenReturn(Arrays.asList(
+                new Object[]{10L, 51L}, new Object[]{10L, grand}));
+
+        // Act
+        List<Long> secteur = index.rechercher(Collections.singletonList(10L), AUCUN, AUCUN);
+        List<Long> horsSecteur = index.rechercher(AUCUN, AUCUN, Collections.singletonList(10L));
+
+        // Assert
+        assertEquals(Arrays.asList(51L, grand), secteur);
+        assertEquals(Arrays.asList(1L, 1_000_001L), horsSecteur);
+    }
+
+    @Test
+    void testAffecterEtRetirer_KeepIndexInSync() {
+        // Arrange
+        donnees();
+        index.rechercher(AUCUN, AUCUN, AUCUN);
+
+        // Act
+        index.ajouterFournisseur(5L);
+        index.affecter(20L, 1L);
+        index.affecter(Collections.singletonList(new AffectationSecteurFournisseur(30L, 5L)));
+        index.retirerFournisseur(3L);
+        index.retirerSecteur(10L);
+
+        // Assert
+        assertEquals(Arrays.asList(1L, 2L), index.rechercher(Collections.singletonList(20L), AUCUN, AUCUN));
+        assertEquals(Arrays.asList(4L, 5L), index.rechercher(Collections.singletonList(30L), AUCUN, AUCUN));
+        assertTrue(index.rechercher(Collections.singletonList(10L), AUCUN, AUCUN).isEmpty());
+        assertEquals(Arrays.asList(1L, 2L, 4L, 5L), index.rechercher(AUCUN, AUCUN, AUCUN));
+    }
+
+    @Test
+    void testModificationsAvantInitialisation_IgnoredThenLoadedFromDatabase() {
+        // Arrange
+        donnees();
+
+        // Act
+        index.affecter(20L, 1L);
+        List<Long> resultat = index.rechercher(Collections.singletonList(20L), AUCUN, AUCUN);
+
+        // Assert - only the database content counts
+        assertEquals(Arrays.asList(2L, 3L), resultat);
+    }
+
+    /*
+     * Mesure opt-in (-Dbenchmark=true) : 100 000 fournisseurs répartis sur 50
+     * secteurs, requête combinant les trois opérateurs, médiane sous 1 ms
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkRecherche_CentMilleFournisseurs() {
+        // Arrange
+        List<Long> ids = new ArrayList<>();
+        List<Object[]> couples = new ArrayList<>();
+        for (long id = 1; id <= 100_000; id++) {
+            ids.add(id);
+            for (long secteur = 1; secteur <= 50; secteur++) {
+                if ((id * 31 + secteur * 17) % 7 == 0) {
+                    couples.add(new Object[]{secteur, id});
+                }
+            }
+        }
+        when(fournisseurRepository.retrieveIdsFournisseurs()).thenReturn(ids);
+        when(fournisseurRepository.retrieveSecteursFournisseurs()).thenReturn(couples);
+        index.rechercher(AUCUN, AUCUN, AUCUN);
+
+        // Act
+        long[] durees = new long[5_000];
+        for (int i = 0; i < durees.length; i++) {
+            long s = 1 + i % 48;
+            long debut = System.nanoTime();
+            index.rechercher(Collections.singletonList(s), Arrays.asList(s + 1, s + 2), Collections.singletonList(s + 3));
+            durees[i] = System.nanoTime() - debut;
+        }
+
+        // Assert
+        Arrays.sort(durees);
+        long mediane = durees[durees.length / 2];
+        log.info("Recherche par secteurs, médiane (µs) : {}", mediane / 1000.0);
+        assertTrue(mediane < 1_000_000L);
+    }
+
+}
@@ -0,0 +1,108 @@
+package tn.esprit.rh.achat.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tn.esprit.rh.achat.entities.AffectationProduitStock;
+import tn.esprit.rh.achat.entities.MiseAJourPrix;
+import tn.esprit.rh.achat.entities.PrixProduit;
+import tn.esprit.rh.achat.entities.VariationPrixCategorie;
+import tn.esprit.rh.achat.repositories.ProduitRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProduitServiceImplTest {
+
+    @Mock
+    private ProduitRepository produitRepository;
+
+    @Mock
+    private CatalogueProduit catalogueProduit;
+
+    @InjectMocks
+    private ProduitServiceImpl produitService;
+
+    @Test
+    void testModifierPrix_PricesOnly_InvalidatesBatchOnce() {
+        // Arrange
+        MiseAJourPrix miseAJour = new MiseAJourPrix(Collections.emptyList(),
+                Arrays.asList(new PrixProduit(1L, 12f), new PrixProduit(2L, 25f)));
+        when(produitRepository.modifierPrix(anyList(), any())).thenReturn(Collections.emptyList());
+
+        // Act
+        int modifies = produitService.modifierPrix(miseAJour);
+
+        // Assert
+        assertEquals(2, modifies);
+        verify(catalogueProduit, times(1)).invalider(Arrays.asList(1L, 2L));
+        verify(catalogueProduit, never()).invaliderTout();
+        verify(produitRepository, never()).appliquerVariations(anyList(), any());
+    }
+
+    @Test
+    void testModifierPrix_CategoryRule_ReloadsCatalogueOnce() {
+        // Arrange
+        MiseAJourPrix miseAJour = new MiseAJourPrix(
+                Collections.singletonList(new VariationPrixCategorie(3L, -10)), null);
+        when(produitRepository.appliquerVariations(anyList(), any())).thenReturn(1500);
+
+        // Act
+        int modifies = produitService.modifierPrix(miseAJour);
+
+        // Assert
+        assertEquals(1500, modifies);
+        verify(catalogueProduit, times(1)).invaliderTout();
+    }
+
+    @Test
+    void testModifierPrix_UnknownProduct_Rejected() {
+        // Arrange
+        MiseAJourPrix miseAJour = new MiseAJourPrix(null, Collections.singletonList(new PrixProduit(9L, 1f)));
+        when(produitRepository.modifierPrix(anyList(), any())).thenReturn(Collections.singletonList(9L));
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> produitService.modifierPrix(miseAJour));
+        verifyNoInteractions(catalogueProduit);
+    }
+
+    @Test
+    void testModifierPrix_InvalidInput_Rejected() {
+        // Arrange
+        MiseAJourPrix variation = new MiseAJourPrix(
+                Collections.singletonList(new VariationPrixCategorie(3L, -100)), null);
+        MiseAJourPrix prixNegatif = new MiseAJourPrix(null, Collections.singletonList(new PrixProduit(1L, -5f)));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> produitService.modifierPrix(variation));
+        assertThrows(IllegalArgumentException.class, () -> produitService.modifierPrix(prixNegatif));
+        verifyNoInteractions(produitRepository);
+    }
+
+    @Test
+    void testAssignProduitsToStocks_InvalidatesAssignedProductsOnce() {
+        // Arrange
+        List<AffectationProduitStock> affectations = Arrays.asList(
+                new AffectationProduitStock(1L, 5L), new AffectationProduitStock(2L, 5L));
+        when(produitRepository.affecterStocks(affectations)).thenReturn(2);
+
+        // Act
+        int modifies = produitService.assignProduitsToStocks(affectations);
+
+        // Assert
+        assertEquals(2, modifies);
+        verify(catalogueProduit, times(1)).invalider(Arrays.asList(1L, 2L));
+        verify(produitRepository, never()).findById(any());
+    }
+
+}
@@ -34,6 +34,9 @@ class ReglementServiceImplTest {
     @Mock
     private FactureRepository factureRepository;
 
+    @Mock
+    private BilanFournisseurs bilanFournisseurs;
+
     @InjectMocks
     private ReglementServiceImpl reglementService;
 
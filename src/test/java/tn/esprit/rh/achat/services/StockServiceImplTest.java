@@ -6,12 +6,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import tn.esprit.rh.achat.entities.Stock;
 import tn.esprit.rh.achat.repositories.StockRepository;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,6 +29,12 @@ class StockServiceImplTest {
     @Mock
     private StockRepository stockRepository;
 
+    @Mock
+    private IHistoriqueStockService historiqueStockService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private StockServiceImpl stockService;
 
@@ -96,6 +106,7 @@ class StockServiceImplTest {
         assertEquals(100, result.getQte());
         assertEquals(20, result.getQteMin());
         verify(stockRepository, times(1)).save(stock1);
+        verify(historiqueStockService, times(1)).enregistrer(stock1);
     }
 
     @Test
@@ -108,6 +119,7 @@ class StockServiceImplTest {
 
         // Assert
         verify(stockRepository, times(1)).deleteById(1L);
+        verify(eventPublisher, times(1)).publishEvent(any(StockModifieEvent.class));
     }
 
     @Test
@@ -123,6 +135,7 @@ class StockServiceImplTest {
         assertNotNull(result);
         assertEquals(150, result.getQte());
         verify(stockRepository, times(1)).save(stock1);
+        verify(historiqueStockService, times(1)).enregistrer(stock1);
     }
 
     @Test
@@ -205,5 +218,22 @@ class StockServiceImplTest {
         assertTrue(result.contains("Stock D - Low"));
         verify(stockRepository, times(1)).retrieveStatusStock();
     }
-}
 
+    @Test
+    void testDeduireQuantites_RecordsHistoryOfDebitedStocks() {
+        // Arrange
+        Map<Long, Integer> quantites = new HashMap<>();
+        quantites.put(1L, 10);
+        quantites.put(3L, 20);
+        when(stockRepository.retrancherQuantites(quantites)).thenReturn(Collections.singletonList(3L));
+        when(stockRepository.lireStocks(Collections.singleton(1L))).thenReturn(Collections.singletonList(stock1));
+
+        // Act
+        List<Long> insuffisants = stockService.deduireQuantites(quantites);
+
+        // Assert
+        assertEquals(Collections.singletonList(3L), insuffisants);
+        verify(historiqueStockService, times(1)).enregistrer(Collections.singletonList(stock1));
+        verify(eventPublisher, times(1)).publishEvent(any(StockModifieEvent.class));
+    }
+}
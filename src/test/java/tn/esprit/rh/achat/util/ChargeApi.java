@@ -0,0 +1,338 @@
+package tn.esprit.rh.achat.util;
+
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/*
+ * Injecteur de charge en boucle fermée pour l'API REST : chaque utilisateur
+ * virtuel enchaîne des requêtes HTTP tirées selon le poids de chaque
+ * opération, sans temps de réflexion. Après la chauffe, la latence des
+ * réponses (corps compris) est enregistrée par opération dans un histogramme
+ * HdrHistogram en microsecondes ; les réponses hors des statuts attendus et
+ * les erreurs d'entrée-sortie sont comptées à part.
+ *
+ * En boucle fermée, un serveur qui ralentit réduit aussi le débit offert :
+ * les percentiles sont à lire avec le débit mesuré, pas seuls.
+ */
+public class ChargeApi {
+
+    static final String ENTETE = "operation;requetes;erreurs;debit;p50;p90;p99;p999;max";
+    private static final int DELAI_MS = 30_000;
+
+    private final String urlBase;
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+    private int utilisateurs = 8;
+    private Duration chauffe = Duration.ofSeconds(10);
+    private Duration duree = Duration.ofSeconds(30);
+    private long graine = 42;
+
+    public ChargeApi(String urlBase) {
+        this.urlBase = urlBase;
+    }
+
+    public ChargeApi utilisateurs(int utilisateurs) {
+        this.utilisateurs = utilisateurs;
+        return this;
+    }
+
+    public ChargeApi chauffe(Duration chauffe) {
+        this.chauffe = chauffe;
+        return this;
+    }
+
+    public ChargeApi duree(Duration duree) {
+        this.duree = duree;
+        return this;
+    }
+
+    public ChargeApi graine(long graine) {
+        this.graine = graine;
+        return this;
+    }
+
+    // Poids 0 : opération déclarée mais hors du mélange (activable par melange())
+    public ChargeApi operation(String nom, int poids, Function<SplittableRandom, Requete> requete) {
+        operations.put(nom, new Operation(nom, poids, requete));
+        return this;
+    }
+
+    /*
+     * Poids redéfinis sous la forme "produit.detail=20,facture.liste=1" ;
+     * les opérations non citées gardent le leur
+     */
+    public ChargeApi melange(String melange) {
+        if (melange == null || melange.trim().isEmpty()) {
+            return this;
+        }
+        for (String element : melange.split(",")) {
+            String[] nomPoids = element.trim().split("=");
+            Operation operation = operations.get(nomPoids[0].trim());
+            if (operation == null || nomPoids.length != 2) {
+                throw new IllegalArgumentException("Opération inconnue ou poids absent : " + element
+                        + " (opérations : " + operations.keySet() + ")");
+            }
+            operation.poids = Integer.parseInt(nomPoids[1].trim());
+        }
+        return this;
+    }
+
+    public List<Resultat> executer() throws InterruptedException {
+        Operation[] tirage = tirage();
+        ExecutorService executeur = Executors.newFixedThreadPool(utilisateurs);
+        long debutMesure = System.nanoTime() + chauffe.toNanos();
+        long fin = debutMesure + duree.toNanos();
+        SplittableRandom random = new SplittableRandom(graine);
+        try {
+            List<Future<?>> utilisateursVirtuels = new ArrayList<>();
+            for (int i = 0; i < utilisateurs; i++) {
+                SplittableRandom aleatoire = random.split();
+                utilisateursVirtuels.add(executeur.submit(() -> boucler(tirage, aleatoire, debutMesure, fin)));
+            }
+            for (Future<?> utilisateur : utilisateursVirtuels) {
+                utilisateur.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executeur.shutdownNow();
+        }
+        double secondes = duree.toNanos() / 1e9;
+        List<Resultat> resultats = new ArrayList<>();
+        for (Operation operation : operations.values()) {
+            if (operation.poids > 0) {
+                resultats.add(operation.resultat(secondes));
+            }
+        }
+        return resultats;
+    }
+
+    // Une entrée par unité de poids : le tirage d'une opération est un simple index
+    private Operation[] tirage() {
+        List<Operation> tirage = new ArrayList<>();
+        for (Operation operation : operations.values()) {
+            for (int i = 0; i < operation.poids; i++) {
+                tirage.add(operation);
+            }
+        }
+        if (tirage.isEmpty()) {
+            throw new IllegalStateException("Aucune opération dans le mélange");
+        }
+        return tirage.toArray(new Operation[0]);
+    }
+
+    private void boucler(Operation[] tirage, SplittableRandom aleatoire, long debutMesure, long fin) {
+        byte[] tampon = new byte[16 * 1024];
+        long debut;
+        while ((debut = System.nanoTime()) < fin) {
+            Operation operation = tirage[aleatoire.nextInt(tirage.length)];
+            Requete requete = operation.requete.apply(aleatoire);
+            boolean succes = envoyer(requete, tampon);
+            long microsecondes = (System.nanoTime() - debut) / 1_000;
+            if (debut < debutMesure) {
+                continue;
+            }
+            if (succes) {
+                operation.latences.recordValue(microsecondes);
+            } else {
+                operation.erreurs.increment();
+            }
+        }
+    }
+
+    // Corps de réponse lu en entier : la connexion reste réutilisable (keep-alive)
+    private boolean envoyer(Requete requete, byte[] tampon) {
+        HttpURLConnection connexion = null;
+        try {
+            connexion = (HttpURLConnection) new URL(urlBase + requete.getChemin()).openConnection();
+            connexion.setConnectTimeout(DELAI_MS);
+            connexion.setReadTimeout(DELAI_MS);
+            connexion.setRequestMethod(requete.getMethode());
+            if (requete.getCorps() != null) {
+                byte[] corps = requete.getCorps().getBytes(StandardCharsets.UTF_8);
+                connexion.setDoOutput(true);
+                connexion.setRequestProperty("Content-Type", "application/json");
+                connexion.setFixedLengthStreamingMode(corps.length);
+                try (OutputStream sortie = connexion.getOutputStream()) {
+                    sortie.write(corps);
+                }
+            }
+            int statut = connexion.getResponseCode();
+            try (InputStream entree = statut >= 400 ? connexion.getErrorStream() : connexion.getInputStream()) {
+                while (entree != null && entree.read(tampon) >= 0) {
+                    // lecture jusqu'à la fin du corps
+                }
+            }
+            return requete.getStatutsAttendus().contains(statut);
+        } catch (IOException e) {
+            if (connexion != null) {
+                connexion.disconnect();
+            }
+            return false;
+        }
+    }
+
+    /*
+     * Rapport lisible : une ligne par opération, débit en requêtes/s et
+     * percentiles en millisecondes
+     */
+    public static String rapport(List<Resultat> resultats) {
+        StringBuilder rapport = new StringBuilder(String.format(Locale.ROOT, "%-26s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "opération", "requêtes", "erreurs", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Resultat r : resultats) {
+            rapport.append(String.format(Locale.ROOT, "%-26s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    r.getOperation(), r.getRequetes(), r.getErreurs(), r.getDebit(), r.getP50(), r.getP90(),
+                    r.getP99(), r.getP999(), r.getMax()));
+        }
+        return rapport.toString();
+    }
+
+    public static void ecrire(Path fichier, List<Resultat> resultats) throws IOException {
+        List<String> lignes = new ArrayList<>();
+        lignes.add(ENTETE);
+        for (Resultat r : resultats) {
+            lignes.add(String.format(Locale.ROOT, "%s;%d;%d;%.3f;%.3f;%.3f;%.3f;%.3f;%.3f", r.getOperation(),
+                    r.getRequetes(), r.getErreurs(), r.getDebit(), r.getP50(), r.getP90(), r.getP99(), r.getP999(),
+                    r.getMax()));
+        }
+        if (fichier.getParent() != null) {
+            Files.createDirectories(fichier.getParent());
+        }
+        Files.write(fichier, lignes, StandardCharsets.UTF_8);
+    }
+
+    public static Map<String, Resultat> lire(Path fichier) throws IOException {
+        Map<String, Resultat> resultats = new LinkedHashMap<>();
+        for (String ligne : Files.readAllLines(fichier, StandardCharsets.UTF_8)) {
+            if (ligne.isEmpty() || ligne.equals(ENTETE)) {
+                continue;
+            }
+            String[] c = ligne.split(";");
+            resultats.put(c[0], new Resultat(c[0], Long.parseLong(c[1]), Long.parseLong(c[2]), Double.parseDouble(c[3]),
+                    Double.parseDouble(c[4]), Double.parseDouble(c[5]), Double.parseDouble(c[6]),
+                    Double.parseDouble(c[7]), Double.parseDouble(c[8])));
+        }
+        return resultats;
+    }
+
+    /*
+     * Régressions par rapport à la référence, au-delà de la tolérance
+     * relative (0.2 = 20 %) : débit en baisse, p99 en hausse, nouvelles
+     * erreurs. Les opérations absentes de la référence sont ignorées.
+     */
+    public static List<String> regressions(Map<String, Resultat> reference, List<Resultat> resultats, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        for (Resultat r : resultats) {
+            Resultat ref = reference.get(r.getOperation());
+            if (ref == null) {
+                continue;
+            }
+            if (r.getDebit() < ref.getDebit() * (1 - tolerance)) {
+                regressions.add(String.format(Locale.ROOT, "%s : débit %.1f req/s (référence %.1f)",
+                        r.getOperation(), r.getDebit(), ref.getDebit()));
+            }
+            if (r.getP99() > ref.getP99() * (1 + tolerance)) {
+                regressions.add(String.format(Locale.ROOT, "%s : p99 %.2f ms (référence %.2f)",
+                        r.getOperation(), r.getP99(), ref.getP99()));
+            }
+            if (r.getErreurs() > 0 && ref.getErreurs() == 0) {
+                regressions.add(r.getOperation() + " : " + r.getErreurs() + " erreurs (aucune en référence)");
+            }
+        }
+        return regressions;
+    }
+
+    public static Requete get(String chemin) {
+        return new Requete("GET", chemin, null, Requete.OK);
+    }
+
+    public static Requete post(String chemin, String json, Integer... autresStatuts) {
+        Set<Integer> statuts = new HashSet<>(Requete.OK);
+        statuts.addAll(Arrays.asList(autresStatuts));
+        return new Requete("POST", chemin, json, statuts);
+    }
+
+    /*
+     * Requête HTTP relative à l'URL de base (contexte compris) et statuts
+     * comptés comme des succès
+     */
+    @Value
+    public static class Requete {
+        static final Set<Integer> OK = new HashSet<>(Arrays.asList(200, 201, 204));
+
+        String methode;
+        String chemin;
+        String corps;
+        Set<Integer> statutsAttendus;
+    }
+
+    /*
+     * Mesures d'une opération sur la durée de mesure : débit en requêtes/s
+     * (succès et erreurs), percentiles des succès en millisecondes
+     */
+    @Value
+    public static class Resultat {
+        String operation;
+        long requetes;
+        long erreurs;
+        double debit;
+        double p50;
+        double p90;
+        double p99;
+        double p999;
+        double max;
+    }
+
+    private static final class Operation {
+        private final String nom;
+        private final Function<SplittableRandom, Requete> requete;
+        // Histogramme auto-dimensionné, 3 chiffres significatifs ; écrit par tous les utilisateurs virtuels
+        private final Recorder latences = new Recorder(3);
+        private final LongAdder erreurs = new LongAdder();
+        private int poids;
+
+        Operation(String nom, int poids, Function<SplittableRandom, Requete> requete) {
+            this.nom = nom;
+            this.poids = poids;
+            this.requete = requete;
+        }
+
+        Resultat resultat(double secondes) {
+            Histogram h = latences.getIntervalHistogram();
+            long requetes = h.getTotalCount() + erreurs.sum();
+            return new Resultat(nom, requetes, erreurs.sum(), requetes / secondes, ms(h.getValueAtPercentile(50)),
+                    ms(h.getValueAtPercentile(90)), ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)),
+                    ms(h.getMaxValue()));
+        }
+
+        private static double ms(long microsecondes) {
+            return microsecondes / 1_000d;
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+package tn.esprit.rh.achat.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.rh.achat.repositories.RevenuProduitJourRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Charge sur l'API REST démarrée sur H2 (configuration de test) avec un jeu
+ * de données généré, opt-in. Vérification rapide du scénario (3 s, petit jeu) :
+ *
+ * mvn test -Dbenchmark=true -Dtest=ChargeApiBenchmarkTest#testExecuter_MeasuresEveryEndpoint
+ *
+ * Campagne complète :
+ *
+ * mvn test -Dbenchmark=true -Dtest=ChargeApiBenchmarkTest#benchmarkCharge
+ *     -Dcharge.utilisateurs=16 -Dcharge.chauffe-s=15 -Dcharge.duree-s=60
+ *     -Dcharge.factures=100000 -Dcharge.melange=facture.liste=1
+ *     -Dcharge.reference=target/charge/reference.csv -Dcharge.tolerance=0.2
+ *
+ * Les résultats sont écrits dans target/charge/ ; la première campagne sans
+ * fichier de référence le crée, les suivantes s'y comparent (échec au-delà
+ * de charge.tolerance si elle est donnée, rapport seul sinon).
+ */
+@Slf4j(topic = "mesures")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:charge;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.show-sql=false", "spring.jpa.properties.hibernate.format_sql=false",
+        "logging.level.org.hibernate.SQL=WARN", "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ChargeApiBenchmarkTest {
+
+    private static final LocalDate PREMIER_JOUR = LocalDate.of(2022, 1, 1);
+    private static final int JOURS = 700;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RevenuProduitJourRepository revenuProduitJourRepository;
+
+    @Test
+    void testExecuter_MeasuresEveryEndpoint() throws Exception {
+        // Arrange
+        new GenerateurDonnees(42).fournisseurs(20).produits(200).factures(2_000).generer(jdbcTemplate);
+        revenuProduitJourRepository.reconstruire();
+        ChargeApi charge = scenario().utilisateurs(2).chauffe(Duration.ZERO).duree(Duration.ofSeconds(3));
+
+        // Act
+        List<ChargeApi.Resultat> resultats = charge.executer();
+
+        // Assert - chaque opération du mélange a répondu sans erreur
+        log.info("Charge API\n{}", ChargeApi.rapport(resultats));
+        assertEquals(12, resultats.size());
+        for (ChargeApi.Resultat r : resultats) {
+            assertTrue(r.getRequetes() > 0, r.getOperation());
+            assertEquals(0, r.getErreurs(), r.getOperation());
+            assertTrue(r.getP50() <= r.getP99() && r.getP99() <= r.getMax(), r.toString());
+        }
+    }
+
+    @Test
+    void benchmarkCharge() throws Exception {
+        GenerateurDonnees.Volumes volumes = new GenerateurDonnees(42).fournisseurs(1_000).produits(5_000)
+                .factures(Integer.getInteger("charge.factures", 100_000)).generer(jdbcTemplate);
+        revenuProduitJourRepository.reconstruire();
+        log.info("Volumes {}", volumes);
+        ChargeApi charge = scenario()
+                .utilisateurs(Integer.getInteger("charge.utilisateurs", 16))
+                .chauffe(Duration.ofSeconds(Integer.getInteger("charge.chauffe-s", 15)))
+                .duree(Duration.ofSeconds(Integer.getInteger("charge.duree-s", 60)))
+                .melange(System.getProperty("charge.melange"));
+
+        List<ChargeApi.Resultat> resultats = charge.executer();
+
+        log.info("Charge API\n{}", ChargeApi.rapport(resultats));
+        String horodatage = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        ChargeApi.ecrire(Paths.get("target", "charge", "charge-" + horodatage + ".csv"), resultats);
+        Path reference = Paths.get(System.getProperty("charge.reference", "target/charge/reference.csv"));
+        if (!Files.exists(reference)) {
+            ChargeApi.ecrire(reference, resultats);
+            log.info("Référence créée : {}", reference.toAbsolutePath());
+            return;
+        }
+        String tolerance = System.getProperty("charge.tolerance");
+        List<String> regressions = ChargeApi.regressions(ChargeApi.lire(reference), resultats,
+                tolerance == null ? 0.2 : Double.parseDouble(tolerance));
+        regressions.forEach(regression -> log.warn("Régression {}", regression));
+        if (tolerance != null) {
+            assertEquals(Collections.emptyList(), regressions);
+        }
+    }
+
+    /*
+     * Mélange par défaut : surtout des lectures unitaires, quelques agrégats
+     * sur un mois et des créations de facture ; les listes complètes de
+     * factures et de règlements sont déclarées mais hors du mélange (poids 0)
+     */
+    private ChargeApi scenario() {
+        long[] factures = bornes("facture", "id_facture");
+        long[] produits = bornes("produit", "id_produit");
+        long[] stocks = bornes("stock", "id_stock");
+        return new ChargeApi("http://localhost:" + port + "/SpringMVC")
+                .operation("facture.detail", 15, r -> ChargeApi.get("/facture/retrieve-facture/" + id(r, factures)))
+                .operation("facture.recouvrement", 3, r -> ChargeApi.get("/facture/pourcentageRecouvrement/" + mois(r)))
+                .operation("facture.ajout", 5, r -> ChargeApi.post("/facture/add-facture?deduireStock=true",
+                        "{\"dateCreationFacture\":\"2023-12-15\",\"archivee\":false,\"detailsFacture\":[{\"qteCommandee\":"
+                                + (1 + r.nextInt(3)) + ",\"pourcentageRemise\":0,\"produit\":{\"idProduit\":"
+                                + id(r, produits) + "}}]}", 409))
+                .operation("facture.liste", 0, r -> ChargeApi.get("/facture/retrieve-all-factures"))
+                .operation("stock.liste", 4, r -> ChargeApi.get("/stock/retrieve-all-stocks"))
+                .operation("stock.detail", 8, r -> ChargeApi.get("/stock/retrieve-stock/" + id(r, stocks)))
+                .operation("produit.liste", 4, r -> ChargeApi.get("/produit/retrieve-all-produits"))
+                .operation("produit.detail", 15, r -> ChargeApi.get("/produit/retrieve-produit/" + id(r, produits)))
+                .operation("produit.recherche", 10, r -> ChargeApi.get("/produit/search?q=P" + id(r, produits) / 10))
+                .operation("produit.top", 3, r -> ChargeApi.get("/produit/top-produits/" + mois(r)))
+                .operation("produit.revenu", 5, r -> ChargeApi.get("/produit/getRevenuBrutProduit/"
+                        + id(r, produits) + "/" + mois(r)))
+                .operation("reglement.parFacture", 10, r -> ChargeApi.get("/reglement/retrieveReglementByFacture/"
+                        + id(r, factures)))
+                .operation("reglement.chiffreAffaire", 3, r -> ChargeApi.get("/reglement/getChiffreAffaireEntreDeuxDate/"
+                        + mois(r)))
+                .operation("reglement.liste", 0, r -> ChargeApi.get("/reglement/retrieve-all-reglements"));
+    }
+
+    private long[] bornes(String table, String colonne) {
+        return jdbcTemplate.queryForObject("SELECT MIN(" + colonne + "), MAX(" + colonne + ") FROM " + table,
+                (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2)});
+    }
+
+    private static long id(SplittableRandom r, long[] bornes) {
+        return r.nextLong(bornes[0], bornes[1] + 1);
+    }
+
+    // "début/fin" sur 30 jours, au format ISO des contrôleurs
+    private static String mois(SplittableRandom r) {
+        LocalDate debut = PREMIER_JOUR.plusDays(r.nextInt(JOURS));
+        return debut + "/" + debut.plusDays(30);
+    }
+
+}
@@ -0,0 +1,81 @@
+package tn.esprit.rh.achat.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Résultats d'une campagne de charge : fichier CSV, rapport et comparaison à
+ * une référence. La charge elle-même est dans ChargeApiBenchmarkTest (opt-in).
+ */
+class ChargeApiTest {
+
+    private static final ChargeApi.Resultat REFERENCE =
+            new ChargeApi.Resultat("produit.detail", 1_000, 0, 100, 2, 4, 10, 20, 30);
+
+    @Test
+    void testEcrireLire_RoundTrip(@TempDir Path dossier) throws Exception {
+        // Arrange
+        ChargeApi.Resultat recherche = new ChargeApi.Resultat("produit.recherche", 250, 2, 25.5, 1.25, 2.5, 5.125, 7, 9.75);
+        Path fichier = dossier.resolve("charge").resolve("reference.csv");
+
+        // Act
+        ChargeApi.ecrire(fichier, Arrays.asList(REFERENCE, recherche));
+        Map<String, ChargeApi.Resultat> relus = ChargeApi.lire(fichier);
+
+        // Assert - ordre et valeurs conservés
+        assertEquals(Arrays.asList("produit.detail", "produit.recherche"), Arrays.asList(relus.keySet().toArray()));
+        assertEquals(REFERENCE, relus.get("produit.detail"));
+        assertEquals(recherche, relus.get("produit.recherche"));
+    }
+
+    @Test
+    void testRapport_OneLinePerOperation() {
+        // Act
+        String rapport = ChargeApi.rapport(Collections.singletonList(REFERENCE));
+
+        // Assert
+        String[] lignes = rapport.split("\n");
+        assertEquals(2, lignes.length);
+        assertTrue(lignes[0].startsWith("opération"));
+        assertTrue(lignes[1].startsWith("produit.detail"));
+        assertTrue(lignes[1].contains("1000") && lignes[1].contains("20.00"), lignes[1]);
+    }
+
+    @Test
+    void testRegressions_SlowerOrFailingOperations() {
+        // Arrange
+        ChargeApi.Resultat plusLent = new ChargeApi.Resultat("produit.detail", 700, 3, 70, 3, 6, 15, 30, 40);
+
+        // Act
+        List<String> regressions = ChargeApi.regressions(Collections.singletonMap("produit.detail", REFERENCE),
+                Collections.singletonList(plusLent), 0.2);
+
+        // Assert - débit, p99 et erreurs
+        assertEquals(3, regressions.size(), regressions.toString());
+        assertEquals(1, ChargeApi.regressions(Collections.singletonMap("produit.detail", REFERENCE),
+                Collections.singletonList(plusLent), 0.6).size());
+    }
+
+    @Test
+    void testRegressions_WithinToleranceOrUnknownOperation() {
+        // Arrange
+        ChargeApi.Resultat proche = new ChargeApi.Resultat("produit.detail", 950, 0, 95, 2, 4, 10, 21, 30);
+        ChargeApi.Resultat nouvelle = new ChargeApi.Resultat("produit.top", 10, 5, 1, 50, 60, 70, 80, 90);
+
+        // Act
+        List<String> regressions = ChargeApi.regressions(Collections.singletonMap("produit.detail", REFERENCE),
+                Arrays.asList(proche, nouvelle), 0.1);
+
+        // Assert - dans la tolérance ; opération absente de la référence ignorée
+        assertEquals(Collections.emptyList(), regressions);
+    }
+
+}
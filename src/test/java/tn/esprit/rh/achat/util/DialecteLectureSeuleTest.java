@@ -0,0 +1,110 @@
+package tn.esprit.rh.achat.util;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.rh.achat.entities.CategorieProduit;
+import tn.esprit.rh.achat.repositories.CategorieProduitRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Transactions readOnly (servies par la réplique) : le cache de second niveau
+ * est lu mais jamais rempli ; les transactions en écriture le remplissent
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DialecteLectureSeuleTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CategorieProduitRepository categorieProduitRepository;
+
+    private Cache cache;
+    private TransactionTemplate lecture;
+    private TransactionTemplate ecriture;
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        transactionManager.setJpaDialect(new DialecteLectureSeule());
+        lecture = new TransactionTemplate(transactionManager);
+        lecture.setReadOnly(true);
+        ecriture = new TransactionTemplate(transactionManager);
+
+        jdbcTemplate.update("insert into categorie_produit (code_categorie, libelle_categorie) values ('C1', 'Catégorie 1')");
+        id = jdbcTemplate.queryForObject("select max(id_categorie_produit) from categorie_produit", Long.class);
+        cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictAllRegions();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from categorie_produit");
+        cache.evictAllRegions();
+    }
+
+    @Test
+    void testLectureSeule_CacheNotFilled() {
+        // Act
+        String code = lecture.execute(statut -> categorieProduitRepository.findById(id).get().getCodeCategorie());
+
+        // Assert
+        assertEquals("C1", code);
+        assertFalse(cache.containsEntity(CategorieProduit.class, id));
+    }
+
+    @Test
+    void testEcriture_CacheFilledAndReadByLectureSeule() {
+        // Arrange
+        ecriture.executeWithoutResult(statut -> categorieProduitRepository.findById(id));
+        jdbcTemplate.update("update categorie_produit set code_categorie = 'C2' where id_categorie_produit = ?", id);
+
+        // Act - mise à jour hors Hibernate : la valeur en cache est toujours servie
+        String code = lecture.execute(statut -> categorieProduitRepository.findById(id).get().getCodeCategorie());
+
+        // Assert
+        assertTrue(cache.containsEntity(CategorieProduit.class, id));
+        assertEquals("C1", code);
+    }
+
+    @Test
+    void testEntityManagerPartage_StoreModeRestoredAfterLectureSeule() {
+        // Arrange - un même EntityManager pour toute la requête, comme avec open-in-view
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            // Act
+            lecture.executeWithoutResult(statut -> categorieProduitRepository.findById(id));
+            entityManager.clear();
+            ecriture.executeWithoutResult(statut -> categorieProduitRepository.findById(id));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+
+        // Assert
+        assertTrue(cache.containsEntity(CategorieProduit.class, id));
+    }
+
+}
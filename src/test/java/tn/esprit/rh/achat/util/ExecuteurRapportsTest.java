@@ -0,0 +1,218 @@
+package tn.esprit.rh.achat.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.EmbeddedValueResolver;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import tn.esprit.rh.achat.services.FactureServiceImpl;
+import tn.esprit.rh.achat.services.FournisseurServiceImpl;
+import tn.esprit.rh.achat.services.ProduitServiceImpl;
+import tn.esprit.rh.achat.services.ReglementServiceImpl;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+
+import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecuteurRapportsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch liberation = new CountDownLatch(1);
+    private ExecuteurRapports executeur;
+
+    @AfterEach
+    void tearDown() {
+        liberation.countDown();
+        executeur.destroy();
+    }
+
+    private String bloquer() {
+        try {
+            liberation.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "libéré";
+    }
+
+    private Object attendre(DeferredResult<?> resultat) throws InterruptedException {
+        for (int i = 0; i < 500 && !resultat.hasResult(); i++) {
+            Thread.sleep(10);
+        }
+        return resultat.getResult();
+    }
+
+    @Test
+    void testExecuter_ResultSetFromPool() throws Exception {
+        // Arrange
+        executeur = new ExecuteurRapports(registry, 2, 10, 30_000);
+
+        // Act
+        DeferredResult<String> resultat = executeur.executer("test", () -> Thread.currentThread().getName());
+
+        // Assert
+        assertTrue(((String) attendre(resultat)).startsWith("rapport-"));
+        assertNotNull(registry.find("executor.completed").tag("name", "achat.rapports").functionCounter());
+    }
+
+    @Test
+    void testExecuter_ExceptionSetAsErrorResult() throws Exception {
+        // Arrange
+        executeur = new ExecuteurRapports(registry, 1, 10, 30_000);
+        IllegalStateException erreur = new IllegalStateException("Base indisponible");
+
+        // Act
+        DeferredResult<String> resultat = executeur.executer("test", () -> {
+            throw erreur;
+        });
+
+        // Assert
+        assertSame(erreur, attendre(resultat));
+    }
+
+    @Test
+    void testExecuter_ErrorSetAsErrorResult() throws Exception {
+        // Arrange
+        executeur = new ExecuteurRapports(registry, 1, 10, 30_000);
+        StackOverflowError erreur = new StackOverflowError();
+
+        // Act
+        DeferredResult<String> resultat = executeur.executer("test", () -> {
+            throw erreur;
+        });
+
+        // Assert
+        assertSame(erreur, attendre(resultat));
+    }
+
+    @Test
+    void testExecuter_SqlTimeoutSetAsUnavailable() throws Exception {
+        // Arrange
+        executeur = new ExecuteurRapports(registry, 1, 10, 30_000);
+
+        // Act
+        DeferredResult<String> resultat = executeur.executer("lent", () -> {
+            throw new QueryTimeoutException("Statement cancelled due to timeout");
+        });
+
+        // Assert
+        assertTrue(attendre(resultat) instanceof RapportIndisponibleException);
+        assertEquals(1.0, registry.counter("achat.rapports.expirations", "rapport", "lent").count());
+    }
+
+    @Test
+    void testExecuter_QueueFullRejected() {
+        // Arrange - un calcul en cours, un en file
+        executeur = new ExecuteurRapports(registry, 1, 1, 30_000);
+        executeur.executer("test", this::bloquer);
+        executeur.executer("test", this::bloquer);
+
+        // Act & Assert
+        assertThrows(RapportIndisponibleException.class, () -> executeur.executer("test", this::bloquer));
+        assertEquals(1.0, registry.counter("achat.rapports.rejets", "rapport", "test").count());
+    }
+
+    @Test
+    void testExecuter_TimeoutCancelsQueuedReport() throws Exception {
+        // Arrange
+        executeur = new ExecuteurRapports(registry, 1, 1, 30_000);
+        executeur.executer("test", this::bloquer);
+        AtomicBoolean lance = new AtomicBoolean();
+        DeferredResult<Boolean> enFile = executeur.executer("lent", () -> lance.getAndSet(true));
+        MockHttpServletRequest requete = demarrer(enFile);
+
+        // Act - expiration signalée par le conteneur
+        for (AsyncListener ecouteur : ((MockAsyncContext) requete.getAsyncContext()).getListeners()) {
+            ecouteur.onTimeout(new AsyncEvent(requete.getAsyncContext()));
+        }
+        liberation.countDown();
+        Thread.sleep(100);
+
+        // Assert
+        assertTrue(enFile.getResult() instanceof RapportIndisponibleException);
+        assertFalse(lance.get());
+        assertEquals(1.0, registry.counter("achat.rapports.expirations", "rapport", "lent").count());
+    }
+
+    @Test
+    void testExecuter_TimeoutInterruptsRunningReport() throws Exception {
+        // Arrange
+        executeur = new ExecuteurRapports(registry, 1, 1, 30_000);
+        CountDownLatch demarre = new CountDownLatch(1);
+        CountDownLatch interrompu = new CountDownLatch(1);
+        DeferredResult<String> enCours = executeur.executer("lent", () -> {
+            demarre.countDown();
+            try {
+                liberation.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrompu.countDown();
+            }
+            return "terminé";
+        });
+        MockHttpServletRequest requete = demarrer(enCours);
+        assertTrue(demarre.await(5, TimeUnit.SECONDS));
+
+        // Act
+        for (AsyncListener ecouteur : ((MockAsyncContext) requete.getAsyncContext()).getListeners()) {
+            ecouteur.onTimeout(new AsyncEvent(requete.getAsyncContext()));
+        }
+
+        // Assert - thread du pool rendu sans attendre la fin du calcul
+        assertTrue(interrompu.await(5, TimeUnit.SECONDS));
+        assertTrue(enCours.getResult() instanceof RapportIndisponibleException);
+    }
+
+    @Test
+    void testDelaiSql_DerivedFromReportDelay() throws Exception {
+        // Arrange
+        AnnotationConfigApplicationContext contexte = new AnnotationConfigApplicationContext();
+        TestPropertyValues.of("achat.rapports.delai-ms=2500").applyTo(contexte);
+        contexte.refresh();
+        AnnotationTransactionAttributeSource source = new AnnotationTransactionAttributeSource();
+        source.setEmbeddedValueResolver(new EmbeddedValueResolver(contexte.getBeanFactory()));
+        Method[] rapports = {
+                FactureServiceImpl.class.getMethod("pourcentageRecouvrement", Date.class, Date.class),
+                ReglementServiceImpl.class.getMethod("getChiffreAffaireEntreDeuxDate", Date.class, Date.class),
+                ProduitServiceImpl.class.getMethod("getRevenuBrutProduit", Long.class, Date.class, Date.class),
+                ProduitServiceImpl.class.getMethod("getTopProduits", Date.class, Date.class, int.class),
+                FournisseurServiceImpl.class.getMethod("getTopFournisseurs", Date.class, Date.class, int.class)};
+        executeur = new ExecuteurRapports(registry, 1, 1, 2_500);
+
+        // Act & Assert - secondes arrondies au-dessus, en lecture seule
+        for (Method rapport : rapports) {
+            assertEquals(3, source.getTransactionAttribute(rapport, rapport.getDeclaringClass()).getTimeout(),
+                    rapport.getName());
+            assertTrue(source.getTransactionAttribute(rapport, rapport.getDeclaringClass()).isReadOnly());
+        }
+        contexte.close();
+    }
+
+    // Traitement asynchrone tel que le démarre Spring MVC pour un contrôleur rendant un DeferredResult
+    private static MockHttpServletRequest demarrer(DeferredResult<?> resultat) throws Exception {
+        MockHttpServletRequest requete = new MockHttpServletRequest();
+        requete.setAsyncSupported(true);
+        StandardServletAsyncWebRequest web = new StandardServletAsyncWebRequest(requete, new MockHttpServletResponse());
+        WebAsyncManager manager = WebAsyncUtils.getAsyncManager(requete);
+        manager.setAsyncWebRequest(web);
+        manager.startDeferredResultProcessing(resultat);
+        return requete;
+    }
+
+}
@@ -0,0 +1,460 @@
+package tn.esprit.rh.achat.util;
+
+import lombok.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/*
+ * Jeu de données synthétique reproductible (même graine, mêmes lignes) pour
+ * les tests d'intégration et les benchmarks : catégories, stocks, produits,
+ * fournisseurs et leurs détails, factures, lignes de facture et règlements,
+ * insérés en lots JDBC à la suite des identifiants existants. Les séquences
+ * d'identifiants (H2) sont ensuite avancées au-delà des lignes générées :
+ * les insertions JPA qui suivent ne rentrent pas en collision.
+ *
+ * Distributions : produits et fournisseurs tirés selon une loi de Zipf (le
+ * produit 1 et le fournisseur 1 sont les plus fréquents), dates de facture
+ * saisonnières (pic en fin d'année, creux l'été et le week-end), 3 % de
+ * factures archivées, 80 % des factures actives réglées, en partie en deux
+ * fois. Les agrégats (revenu_produit_jour) ne sont pas alimentés : appeler
+ * RevenuProduitJourRepository.reconstruire() si le test en dépend.
+ */
+public class GenerateurDonnees {
+
+    private static final int LOT = 5_000;
+
+    private final long graine;
+    private int categories = 20;
+    private int fournisseurs = 1_000;
+    private int produits = 5_000;
+    private int produitsParStock = 10;
+    private int factures = 100_000;
+    private int lignesParFacture = 4;
+    private double asymetrieProduits = 1.1;
+    private double asymetrieFournisseurs = 1.0;
+    private LocalDate premierJour = LocalDate.of(2022, 1, 1);
+    private LocalDate dernierJour = LocalDate.of(2023, 12, 31);
+
+    public GenerateurDonnees(long graine) {
+        this.graine = graine;
+    }
+
+    public GenerateurDonnees categories(int categories) {
+        this.categories = categories;
+        return this;
+    }
+
+    public GenerateurDonnees fournisseurs(int fournisseurs) {
+        this.fournisseurs = fournisseurs;
+        return this;
+    }
+
+    public GenerateurDonnees produits(int produits) {
+        this.produits = produits;
+        return this;
+    }
+
+    public GenerateurDonnees produitsParStock(int produitsParStock) {
+        this.produitsParStock = produitsParStock;
+        return this;
+    }
+
+    public GenerateurDonnees factures(int factures) {
+        this.factures = factures;
+        return this;
+    }
+
+    // Moyenne : chaque facture a entre 1 et 2 * moyenne - 1 lignes
+    public GenerateurDonnees lignesParFacture(int lignesParFacture) {
+        this.lignesParFacture = lignesParFacture;
+        return this;
+    }
+
+    // Exposants de Zipf : 0 = uniforme, au-delà de 1 quelques éléments concentrent l'essentiel
+    public GenerateurDonnees asymetrie(double produits, double fournisseurs) {
+        this.asymetrieProduits = produits;
+        this.asymetrieFournisseurs = fournisseurs;
+        return this;
+    }
+
+    public GenerateurDonnees periode(LocalDate premierJour, LocalDate dernierJour) {
+        this.premierJour = premierJour;
+        this.dernierJour = dernierJour;
+        return this;
+    }
+
+    /*
+     * Dans la transaction courante s'il y en a une (rollback du test), sinon
+     * sur une connexion dédiée validée à chaque lot
+     */
+    public Volumes generer(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.execute((ConnectionCallback<Volumes>) connexion -> {
+            boolean autoCommit = connexion.getAutoCommit();
+            connexion.setAutoCommit(false);
+            try {
+                return generer(new Lots(connexion, autoCommit));
+            } catch (SQLException | RuntimeException e) {
+                if (autoCommit) {
+                    connexion.rollback();
+                }
+                throw e;
+            } finally {
+                connexion.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    private Volumes generer(Lots lots) throws SQLException {
+        long debut = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(graine);
+
+        long idCategorie = lots.suivant("categorie_produit", "id_categorie_produit");
+        for (int i = 0; i < categories; i++) {
+            lots.categorie(idCategorie + i, "CAT" + (idCategorie + i), "Catégorie " + (idCategorie + i));
+        }
+        lots.vider();
+
+        // Stocks puis produits : prix log-normal autour de 50, un stock pour produitsParStock produits
+        int stocks = (produits + produitsParStock - 1) / produitsParStock;
+        long idStock = lots.suivant("stock", "id_stock");
+        for (int i = 0; i < stocks; i++) {
+            int qteMin = 10 + random.nextInt(90);
+            int qte = random.nextInt(20) == 0 ? random.nextInt(qteMin) : qteMin + random.nextInt(1_000);
+            lots.stock(idStock + i, "Stock " + (idStock + i), qte, qteMin);
+        }
+        lots.vider();
+        long idProduit = lots.suivant("produit", "id_produit");
+        float[] prix = new float[produits];
+        Date creation = Date.valueOf(premierJour);
+        for (int i = 0; i < produits; i++) {
+            prix[i] = arrondi((float) Math.exp(Math.log(50) + gauss(random)));
+            lots.produit(idProduit + i, "P" + (idProduit + i), "Produit " + (idProduit + i), prix[i], creation,
+                    idStock + i / produitsParStock, categories == 0 ? null : idCategorie + random.nextInt(categories));
+        }
+        lots.vider();
+
+        long idDetail = lots.suivant("detail_fournisseur", "id_detail_fournisseur");
+        long idFournisseur = lots.suivant("fournisseur", "id_fournisseur");
+        for (int i = 0; i < fournisseurs; i++) {
+            long id = idFournisseur + i;
+            lots.fournisseur(id, "F" + id, "Fournisseur " + id, random.nextInt(5) == 0 ? "CONVENTIONNE" : "ORDINAIRE",
+                    idDetail + i, "contact@f" + id + ".tn", Date.valueOf(premierJour.minusDays(random.nextInt(3_650))));
+        }
+        lots.vider();
+
+        Zipf zipfProduits = new Zipf(produits, asymetrieProduits);
+        Zipf zipfFournisseurs = new Zipf(fournisseurs, asymetrieFournisseurs);
+        Saisons saisons = new Saisons(premierJour, dernierJour);
+        long idFacture = lots.suivant("facture", "id_facture");
+        long idLigne = lots.suivant("detail_facture", "id_detail_facture");
+        long idReglement = lots.suivant("reglement", "id_reglement");
+        long lignes = 0;
+        long reglements = 0;
+        for (int i = 0; i < factures; i++) {
+            long id = idFacture + i;
+            LocalDate jour = saisons.tirer(random);
+            int nbLignes = 1 + random.nextInt(2 * lignesParFacture - 1);
+            float montant = 0;
+            float remise = 0;
+            for (int l = 0; l < nbLignes; l++) {
+                int p = zipfProduits.tirer(random);
+                int qte = 1 + (int) (-Math.log(1 - random.nextDouble()) * 4);
+                int pourcentage = random.nextInt(10) == 0 ? 5 * (1 + random.nextInt(4)) : 0;
+                float brut = prix[p] * qte;
+                float remiseLigne = arrondi(brut * pourcentage / 100);
+                lots.ligne(idLigne + lignes++, qte, arrondi(brut - remiseLigne), pourcentage, remiseLigne,
+                        idProduit + p, id);
+                montant += brut - remiseLigne;
+                remise += remiseLigne;
+            }
+            boolean archivee = random.nextInt(100) < 3;
+            lots.facture(id, arrondi(montant), arrondi(remise), Date.valueOf(jour), archivee,
+                    idFournisseur + zipfFournisseurs.tirer(random));
+            // Règlement à 30 jours en moyenne, une facture sur quatre en deux fois
+            if (!archivee && random.nextInt(5) != 0) {
+                float reste = arrondi(montant);
+                int versements = random.nextInt(4) == 0 ? 2 : 1;
+                LocalDate dateReglement = jour;
+                for (int v = 1; v <= versements; v++) {
+                    float paye = v == versements ? reste : arrondi(reste * (0.3f + 0.4f * (float) random.nextDouble()));
+                    reste = arrondi(reste - paye);
+                    dateReglement = dateReglement.plusDays((long) (-Math.log(1 - random.nextDouble()) * 30 / versements));
+                    lots.reglement(idReglement + reglements++, paye, reste, reste == 0, Date.valueOf(dateReglement), id);
+                }
+            }
+            if (lots.plein()) {
+                lots.vider();
+            }
+        }
+        lots.vider();
+        lots.recalerSequences();
+        return new Volumes(categories, stocks, produits, fournisseurs, factures, lignes, reglements,
+                (System.nanoTime() - debut) / 1_000_000);
+    }
+
+    // Écart de ln(prix) : deux tiers des produits entre 25 et 100
+    private static double gauss(SplittableRandom random) {
+        double u = 1 - random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble()) * 0.7;
+    }
+
+    private static float arrondi(float montant) {
+        return Math.round(montant * 100) / 100f;
+    }
+
+    /*
+     * Loi de Zipf sur n rangs : P(k) proportionnelle à 1 / k^s, tirage par
+     * recherche dichotomique dans la fonction de répartition
+     */
+    static final class Zipf {
+        private final double[] repartition;
+
+        Zipf(int n, double s) {
+            repartition = new double[n];
+            double cumul = 0;
+            for (int k = 0; k < n; k++) {
+                cumul += 1 / Math.pow(k + 1, s);
+                repartition[k] = cumul;
+            }
+            for (int k = 0; k < n; k++) {
+                repartition[k] /= cumul;
+            }
+        }
+
+        int tirer(SplittableRandom random) {
+            int i = Arrays.binarySearch(repartition, random.nextDouble());
+            return Math.min(i < 0 ? -i - 1 : i, repartition.length - 1);
+        }
+    }
+
+    /*
+     * Poids par jour : saison (pic mi-décembre, creux mi-juin), fin de mois
+     * chargée et activité réduite le week-end
+     */
+    static final class Saisons {
+        private final LocalDate premierJour;
+        private final double[] repartition;
+
+        Saisons(LocalDate premierJour, LocalDate dernierJour) {
+            this.premierJour = premierJour;
+            int jours = (int) (dernierJour.toEpochDay() - premierJour.toEpochDay()) + 1;
+            repartition = new double[jours];
+            double cumul = 0;
+            for (int j = 0; j < jours; j++) {
+                LocalDate jour = premierJour.plusDays(j);
+                double poids = 1 + 0.5 * Math.cos(2 * Math.PI * (jour.getDayOfYear() - 350) / 365.0);
+                if (jour.getDayOfMonth() > jour.lengthOfMonth() - 3) {
+                    poids *= 1.5;
+                }
+                if (jour.getDayOfWeek() == DayOfWeek.SATURDAY || jour.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                    poids *= 0.2;
+                }
+                cumul += poids;
+                repartition[j] = cumul;
+            }
+            for (int j = 0; j < jours; j++) {
+                repartition[j] /= cumul;
+            }
+        }
+
+        LocalDate tirer(SplittableRandom random) {
+            int i = Arrays.binarySearch(repartition, random.nextDouble());
+            return premierJour.plusDays(Math.min(i < 0 ? -i - 1 : i, repartition.length - 1));
+        }
+    }
+
+    /*
+     * Lots d'insertion par table, vidés dans l'ordre des clés étrangères
+     */
+    private static final class Lots {
+        private static final String CATEGORIE = "INSERT INTO categorie_produit (id_categorie_produit, code_categorie,"
+                + " libelle_categorie) VALUES (?, ?, ?)";
+        private static final String STOCK = "INSERT INTO stock (id_stock, libelle_stock, qte, qte_min, en_rouge)"
+                + " VALUES (?, ?, ?, ?, ?)";
+        private static final String PRODUIT = "INSERT INTO produit (id_produit, code_produit, libelle_produit, prix,"
+                + " date_creation, stock_id_stock, categorie_produit_id_categorie_produit) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        private static final String DETAIL_FOURNISSEUR = "INSERT INTO detail_fournisseur (id_detail_fournisseur,"
+                + " email, date_debut_collaboration) VALUES (?, ?, ?)";
+        private static final String FOURNISSEUR = "INSERT INTO fournisseur (id_fournisseur, code, libelle,"
+                + " categorie_fournisseur, detail_fournisseur_id_detail_fournisseur) VALUES (?, ?, ?, ?, ?)";
+        private static final String FACTURE = "INSERT INTO facture (id_facture, montant_facture, montant_remise,"
+                + " date_creation_facture, archivee, fournisseur_id_fournisseur) VALUES (?, ?, ?, ?, ?, ?)";
+        private static final String LIGNE = "INSERT INTO detail_facture (id_detail_facture, qte_commandee,"
+                + " prix_total_detail, pourcentage_remise, montant_remise, produit_id_produit, facture_id_facture)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+        private static final String REGLEMENT = "INSERT INTO reglement (id_reglement, montant_paye, montant_restant,"
+                + " payee, date_reglement, facture_id_facture) VALUES (?, ?, ?, ?, ?, ?)";
+
+        private final Connection connexion;
+        private final boolean valider;
+        private final List<Object[]> categories = new ArrayList<>();
+        private final List<Object[]> stocks = new ArrayList<>();
+        private final List<Object[]> produits = new ArrayList<>();
+        private final List<Object[]> details = new ArrayList<>();
+        private final List<Object[]> fournisseurs = new ArrayList<>();
+        private final List<Object[]> factures = new ArrayList<>();
+        private final List<Object[]> lignes = new ArrayList<>();
+        private final List<Object[]> reglements = new ArrayList<>();
+        // Table -> colonne identifiant et premier identifiant généré, pour les tables à séquence
+        private final Map<String, String> colonnesSequences = new LinkedHashMap<>();
+        private final Map<String, Long> debutsSequences = new LinkedHashMap<>();
+
+        Lots(Connection connexion, boolean valider) {
+            this.connexion = connexion;
+            this.valider = valider;
+        }
+
+        // Premier identifiant libre de la table, au-delà des blocs déjà distribués par sa séquence
+        long suivant(String table, String colonneId) throws SQLException {
+            long suivant = valeur("SELECT COALESCE(MAX(" + colonneId + "), 0) + 1 FROM " + table);
+            if (valeur("SELECT COUNT(*) FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = '"
+                    + sequence(table).toUpperCase() + "'") > 0) {
+                suivant = Math.max(suivant, valeur("SELECT NEXT VALUE FOR " + sequence(table)));
+                colonnesSequences.put(table, colonneId);
+                debutsSequences.put(table, suivant);
+            }
+            return suivant;
+        }
+
+        // Prochaine valeur de chaque séquence : après la dernière ligne générée
+        void recalerSequences() throws SQLException {
+            for (Map.Entry<String, String> table : colonnesSequences.entrySet()) {
+                long suivant = Math.max(debutsSequences.get(table.getKey()),
+                        valeur("SELECT COALESCE(MAX(" + table.getValue() + "), 0) + 1 FROM " + table.getKey()));
+                try (Statement statement = connexion.createStatement()) {
+                    statement.execute("ALTER SEQUENCE " + sequence(table.getKey()) + " RESTART WITH " + suivant);
+                }
+            }
+        }
+
+        // Convention des entités : @SequenceGenerator(sequenceName = "<table>_seq")
+        private static String sequence(String table) {
+            return table + "_seq";
+        }
+
+        private long valeur(String requete) throws SQLException {
+            try (Statement statement = connexion.createStatement();
+                 ResultSet rs = statement.executeQuery(requete)) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+
+        void categorie(long id, String code, String libelle) {
+            categories.add(new Object[]{id, code, libelle});
+        }
+
+        void stock(long id, String libelle, int qte, int qteMin) throws SQLException {
+            stocks.add(new Object[]{id, libelle, qte, qteMin, qte < qteMin});
+            viderSiPlein(stocks, STOCK, Types.BIGINT, Types.VARCHAR, Types.INTEGER, Types.INTEGER, Types.BOOLEAN);
+        }
+
+        void produit(long id, String code, String libelle, float prix, Date creation, long idStock, Long idCategorie) throws SQLException {
+            produits.add(new Object[]{id, code, libelle, prix, creation, idStock, idCategorie});
+            viderSiPlein(produits, PRODUIT, Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.FLOAT, Types.DATE,
+                    Types.BIGINT, Types.BIGINT);
+        }
+
+        void fournisseur(long id, String code, String libelle, String categorie, long idDetail, String email,
+                Date debutCollaboration) throws SQLException {
+            details.add(new Object[]{idDetail, email, debutCollaboration});
+            fournisseurs.add(new Object[]{id, code, libelle, categorie, idDetail});
+            if (fournisseurs.size() >= LOT) {
+                vider();
+            }
+        }
+
+        void facture(long id, float montant, float remise, Date date, boolean archivee, long idFournisseur) {
+            factures.add(new Object[]{id, montant, remise, date, archivee, idFournisseur});
+        }
+
+        void ligne(long id, int qte, float prixTotal, int pourcentage, float remise, long idProduit, long idFacture) {
+            lignes.add(new Object[]{id, qte, prixTotal, pourcentage, remise, idProduit, idFacture});
+        }
+
+        void reglement(long id, float paye, float reste, boolean payee, Date date, long idFacture) {
+            reglements.add(new Object[]{id, paye, reste, payee, date, idFacture});
+        }
+
+        boolean plein() {
+            return lignes.size() >= LOT;
+        }
+
+        void vider() throws SQLException {
+            inserer(categories, CATEGORIE, Types.BIGINT, Types.VARCHAR, Types.VARCHAR);
+            inserer(stocks, STOCK, Types.BIGINT, Types.VARCHAR, Types.INTEGER, Types.INTEGER, Types.BOOLEAN);
+            inserer(produits, PRODUIT, Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.FLOAT, Types.DATE,
+                    Types.BIGINT, Types.BIGINT);
+            inserer(details, DETAIL_FOURNISSEUR, Types.BIGINT, Types.VARCHAR, Types.DATE);
+            inserer(fournisseurs, FOURNISSEUR, Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BIGINT);
+            inserer(factures, FACTURE, Types.BIGINT, Types.FLOAT, Types.FLOAT, Types.DATE, Types.BOOLEAN, Types.BIGINT);
+            inserer(lignes, LIGNE, Types.BIGINT, Types.INTEGER, Types.FLOAT, Types.INTEGER, Types.FLOAT,
+                    Types.BIGINT, Types.BIGINT);
+            inserer(reglements, REGLEMENT, Types.BIGINT, Types.FLOAT, Types.FLOAT, Types.BOOLEAN, Types.DATE,
+                    Types.BIGINT);
+        }
+
+        private void viderSiPlein(List<Object[]> lot, String sql, int... types) throws SQLException {
+            if (lot.size() >= LOT) {
+                inserer(lot, sql, types);
+            }
+        }
+
+        private void inserer(List<Object[]> lot, String sql, int... types) throws SQLException {
+            if (lot.isEmpty()) {
+                return;
+            }
+            try (PreparedStatement statement = connexion.prepareStatement(sql)) {
+                for (Object[] ligne : lot) {
+                    for (int i = 0; i < ligne.length; i++) {
+                        statement.setObject(i + 1, ligne[i], types[i]);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            if (valider) {
+                connexion.commit();
+            }
+            lot.clear();
+        }
+    }
+
+    /*
+     * Nombre de lignes insérées par table et durée de la génération
+     */
+    @Value
+    public static class Volumes {
+        int categories;
+        int stocks;
+        int produits;
+        int fournisseurs;
+        int factures;
+        long lignes;
+        long reglements;
+        long dureeMs;
+
+        @Override
+        public String toString() {
+            return fournisseurs + " fournisseurs, " + produits + " produits, " + stocks + " stocks, " + factures
+                    + " factures, " + lignes + " lignes, " + reglements + " règlements en " + dureeMs + " ms";
+        }
+    }
+
+}
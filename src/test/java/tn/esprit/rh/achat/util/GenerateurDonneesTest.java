@@ -0,0 +1,151 @@
+package tn.esprit.rh.achat.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.rh.achat.repositories.FactureRepository;
+import tn.esprit.rh.achat.repositories.RevenuProduitJourRepository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j(topic = "mesures")
+@DataJpaTest(properties = {"spring.jpa.show-sql=false", "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"})
+class GenerateurDonneesTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FactureRepository factureRepository;
+
+    @Autowired
+    private RevenuProduitJourRepository revenuProduitJourRepository;
+
+    private GenerateurDonnees petitJeu(long graine) {
+        return new GenerateurDonnees(graine).fournisseurs(50).produits(200).factures(5_000);
+    }
+
+    private Long premierId(String table, String colonne) {
+        return jdbcTemplate.queryForObject("SELECT MIN(" + colonne + ") FROM " + table, Long.class);
+    }
+
+    @Test
+    void testGenerer_SameSeedSameRows() {
+        // Arrange
+        GenerateurDonnees.Volumes premier = petitJeu(7).generer(jdbcTemplate);
+        long debutSecond = jdbcTemplate.queryForObject("SELECT MAX(id_facture) FROM facture", Long.class) + 1;
+
+        // Act
+        GenerateurDonnees.Volumes second = petitJeu(7).generer(jdbcTemplate);
+
+        // Assert - mêmes montants, dates et lignes, à la suite des identifiants existants
+        String montants = "SELECT montant_facture, date_creation_facture FROM facture WHERE id_facture %s ? ORDER BY id_facture";
+        assertEquals(jdbcTemplate.queryForList(String.format(montants, "<"), debutSecond),
+                jdbcTemplate.queryForList(String.format(montants, ">="), debutSecond));
+        assertEquals(premier.getLignes(), second.getLignes());
+        assertEquals(premier.getReglements(), second.getReglements());
+        assertEquals(2 * premier.getLignes(),
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM detail_facture", Long.class));
+        assertNotEquals(premier.getLignes(), petitJeu(8).generer(jdbcTemplate).getLignes());
+    }
+
+    @Test
+    void testGenerer_HotProductsAndBigSuppliers() {
+        // Arrange
+        GenerateurDonnees.Volumes volumes = petitJeu(42).generer(jdbcTemplate);
+        long premierProduit = premierId("produit", "id_produit");
+        long premierFournisseur = premierId("fournisseur", "id_fournisseur");
+
+        // Act
+        List<Long> lignesParProduit = jdbcTemplate.queryForList("SELECT COUNT(*) FROM detail_facture"
+                + " GROUP BY produit_id_produit ORDER BY COUNT(*) DESC", Long.class);
+        Long produitLePlusVendu = jdbcTemplate.queryForObject("SELECT produit_id_produit FROM detail_facture"
+                + " GROUP BY produit_id_produit ORDER BY COUNT(*) DESC LIMIT 1", Long.class);
+        List<Long> facturesParFournisseur = jdbcTemplate.queryForList("SELECT COUNT(*) FROM facture"
+                + " GROUP BY fournisseur_id_fournisseur ORDER BY COUNT(*) DESC", Long.class);
+        Long plusGrosFournisseur = jdbcTemplate.queryForObject("SELECT fournisseur_id_fournisseur FROM facture"
+                + " GROUP BY fournisseur_id_fournisseur ORDER BY COUNT(*) DESC LIMIT 1", Long.class);
+
+        // Assert - 1 % des produits fait plus de 20 % des lignes, le premier fournisseur domine
+        assertEquals(premierProduit, produitLePlusVendu);
+        assertTrue(lignesParProduit.get(0) + lignesParProduit.get(1) > volumes.getLignes() / 5, lignesParProduit.toString());
+        assertEquals(premierFournisseur, plusGrosFournisseur);
+        assertTrue(facturesParFournisseur.get(0) > 5 * facturesParFournisseur.get(facturesParFournisseur.size() / 2));
+    }
+
+    @Test
+    void testGenerer_SeasonalDates() {
+        // Arrange
+        petitJeu(42).generer(jdbcTemplate);
+
+        // Act
+        long decembre = compterFactures("MONTH(date_creation_facture) = 12");
+        long juin = compterFactures("MONTH(date_creation_facture) = 6");
+        long weekEnd = compterFactures("ISO_DAY_OF_WEEK(date_creation_facture) >= 6");
+
+        // Assert
+        assertTrue(decembre > 2 * juin, decembre + " en décembre, " + juin + " en juin");
+        assertTrue(weekEnd < 5_000 / 10, weekEnd + " le week-end");
+        assertEquals(0, compterFactures("date_creation_facture NOT BETWEEN '2022-01-01' AND '2023-12-31'"));
+    }
+
+    @Test
+    void testGenerer_ConsistentAmountsUsableByRepositories() {
+        // Arrange
+        petitJeu(42).generer(jdbcTemplate);
+
+        // Act
+        Long ecarts = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM facture f WHERE ABS(f.montant_facture -"
+                + " (SELECT SUM(d.prix_total_detail) FROM detail_facture d WHERE d.facture_id_facture = f.id_facture)) > 0.1",
+                Long.class);
+        Long tropPayees = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM facture f WHERE f.montant_facture + 0.1 <"
+                + " (SELECT SUM(r.montant_paye) FROM reglement r WHERE r.facture_id_facture = f.id_facture)", Long.class);
+        float total2023 = factureRepository.getTotalFacturesEntreDeuxDates(Date.valueOf(LocalDate.of(2023, 1, 1)),
+                Date.valueOf(LocalDate.of(2023, 12, 31)));
+        int revenus = revenuProduitJourRepository.reconstruire();
+
+        // Assert
+        assertEquals(0, ecarts);
+        assertEquals(0, tropPayees);
+        assertTrue(total2023 > 0);
+        assertTrue(revenus > 0);
+    }
+
+    private long compterFactures(String condition) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM facture WHERE " + condition, Long.class);
+    }
+
+    /*
+     * Volume opt-in (mvn test -Dbenchmark=true -Dtest=GenerateurDonneesTest) :
+     * 10 millions de lignes de facture par défaut (-Dbenchmark.lignes), hors
+     * transaction de test ; prévoir -DargLine=-Xmx8g pour H2 en mémoire
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void benchmarkGenerer_DixMillionsDeLignes() {
+        int lignes = Integer.getInteger("benchmark.lignes", 10_000_000);
+        try {
+            GenerateurDonnees.Volumes volumes = new GenerateurDonnees(42).fournisseurs(10_000).produits(50_000)
+                    .factures(lignes / 4).generer(jdbcTemplate);
+            log.info("{} ({} lignes/s)", volumes, volumes.getLignes() * 1000 / Math.max(1, volumes.getDureeMs()));
+            assertEquals(volumes.getLignes(), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM detail_facture", Long.class));
+        } finally {
+            for (String table : new String[]{"reglement", "detail_facture", "facture", "fournisseur",
+                    "detail_fournisseur", "produit", "stock", "categorie_produit"}) {
+                jdbcTemplate.execute("DELETE FROM " + table);
+            }
+        }
+    }
+
+}
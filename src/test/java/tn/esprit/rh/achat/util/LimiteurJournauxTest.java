@@ -0,0 +1,90 @@
+package tn.esprit.rh.achat.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteurJournauxTest {
+
+    private final AtomicLong horloge = new AtomicLong();
+    private final LoggerContext contexte = new LoggerContext();
+    private final ListAppender<ILoggingEvent> evenements = new ListAppender<>();
+    private Logger service;
+
+    @BeforeEach
+    void setUp() {
+        LimiteurJournaux limiteur = new LimiteurJournaux(horloge::get);
+        limiteur.addCategorie("tn.esprit.rh.achat.services");
+        limiteur.setEvenementsParSeconde(5);
+        limiteur.setEchantillon(10);
+        limiteur.setContext(contexte);
+        limiteur.start();
+        contexte.addTurboFilter(limiteur);
+        evenements.setContext(contexte);
+        evenements.start();
+        Logger racine = contexte.getLogger(Logger.ROOT_LOGGER_NAME);
+        racine.setLevel(Level.INFO);
+        racine.addAppender(evenements);
+        service = contexte.getLogger("tn.esprit.rh.achat.services.StockServiceImpl");
+    }
+
+    @Test
+    void testDecide_LimitsThenSamplesWithinOneSecond() {
+        // Act
+        for (int i = 0; i < 105; i++) {
+            service.info("Stocks lus {}", i);
+        }
+
+        // Assert - 5 premiers, puis 1 sur 10 des 100 suivants
+        assertEquals("[0, 1, 2, 3, 4, 5, 15, 25, 35, 45, 55, 65, 75, 85, 95]", evenements.list.stream()
+                .map(e -> String.valueOf(e.getArgumentArray()[0])).collect(Collectors.toList()).toString());
+    }
+
+    @Test
+    void testDecide_ReportsDroppedEventsAndResetsNextSecond() {
+        // Arrange
+        for (int i = 0; i < 105; i++) {
+            service.info("Stocks lus {}", i);
+        }
+        evenements.list.clear();
+
+        // Act
+        horloge.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        service.info("Stocks lus {}", 105);
+
+        // Assert - compte rendu des 90 événements écartés, puis l'événement lui-même
+        assertEquals(2, evenements.list.size());
+        assertEquals("Journaux limités categorie=tn.esprit.rh.achat.services ecartes=90",
+                evenements.list.get(0).getFormattedMessage());
+        assertEquals("Stocks lus 105", evenements.list.get(1).getFormattedMessage());
+    }
+
+    @Test
+    void testDecide_WarningsDisabledLevelsAndOtherCategoriesUntouched() {
+        // Arrange
+        Logger autre = contexte.getLogger("tn.esprit.rh.achat.controllers.StockRestController");
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            service.warn("Stock {} en rouge", i);
+            service.debug("Stock {}", i);
+            autre.info("Requête {}", i);
+        }
+        service.info("Stocks lus");
+
+        // Assert - DEBUG désactivé non compté : le premier INFO du service passe
+        assertEquals(101, evenements.list.size());
+        assertEquals("Stocks lus", evenements.list.get(100).getFormattedMessage());
+    }
+
+}
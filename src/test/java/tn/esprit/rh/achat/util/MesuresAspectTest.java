@@ -0,0 +1,92 @@
+package tn.esprit.rh.achat.util;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import tn.esprit.rh.achat.entities.Stock;
+import tn.esprit.rh.achat.repositories.StockRepository;
+import tn.esprit.rh.achat.services.VersionsTables;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MesuresAspectTest {
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T instrumenter(Object cible, Class<?>... interfaces) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(cible);
+        if (interfaces.length == 0) {
+            factory.setProxyTargetClass(true);
+        } else {
+            factory.setInterfaces(interfaces);
+        }
+        factory.addAspect(new MesuresAspect(registry));
+        return (T) factory.getProxy();
+    }
+
+    @Test
+    void testService_RecordsCallsErrorsAndTags() {
+        // Arrange
+        VersionsTables versionsTables = instrumenter(new VersionsTables());
+
+        // Act
+        versionsTables.etag(VersionsTables.PRODUIT);
+        versionsTables.etag(VersionsTables.PRODUIT);
+        assertThrows(NullPointerException.class, () -> versionsTables.etag(null));
+
+        // Assert
+        Timer succes = registry.find(MesuresAspect.TIMER)
+                .tags("couche", "service", "classe", "VersionsTables", "methode", "etag", "exception", "none").timer();
+        Timer erreurs = registry.find(MesuresAspect.TIMER).tags("methode", "etag", "exception", "NullPointerException")
+                .timer();
+        assertEquals(2, succes.count());
+        assertEquals(1, erreurs.count());
+        assertNull(registry.find(MesuresAspect.TAILLE).summary());
+    }
+
+    @Test
+    void testRepository_InheritedMethodTaggedWithRepositoryAndResultSize() {
+        // Arrange
+        List<Stock> stocks = Arrays.asList(new Stock("A", 1, 5), new Stock("B", 2, 5), new Stock("C", 3, 5));
+        StockRepository cible = (StockRepository) Proxy.newProxyInstance(StockRepository.class.getClassLoader(),
+                new Class<?>[]{StockRepository.class}, (proxy, methode, args) -> {
+                    switch (methode.getName()) {
+                        case "findAll":
+                            return stocks;
+                        case "findById":
+                            return Optional.empty();
+                        default:
+                            throw new UnsupportedOperationException(methode.getName());
+                    }
+                });
+        StockRepository stockRepository = instrumenter(cible, StockRepository.class);
+
+        // Act
+        stockRepository.findAll();
+        stockRepository.findById(1L);
+
+        // Assert
+        Timer findAll = registry.find(MesuresAspect.TIMER)
+                .tags("couche", "repository", "classe", "StockRepository", "methode", "findAll").timer();
+        DistributionSummary taille = registry.find(MesuresAspect.TAILLE).tags("methode", "findAll").summary();
+        assertEquals(1, findAll.count());
+        assertEquals(3.0, taille.max());
+        assertEquals(1, registry.find(MesuresAspect.TIMER).tags("classe", "StockRepository", "methode", "findById")
+                .timer().count());
+        assertNull(registry.find(MesuresAspect.TAILLE).tags("methode", "findById").summary());
+    }
+}
@@ -0,0 +1,83 @@
+package tn.esprit.rh.achat.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfilSqlFilterTest {
+
+    private ProfilSqlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ProfilSqlProprietes proprietes = new ProfilSqlProprietes();
+        proprietes.getBudgets().put("/fournisseur/retrieve-fournisseur/*", 2);
+        proprietes.getBudgets().put("/fournisseur/**", 5);
+        filter = new ProfilSqlFilter();
+        filter.proprietes = proprietes;
+    }
+
+    @Test
+    void testBudget_FirstMatchingPatternThenDefault() {
+        // Act & Assert
+        assertEquals(2, filter.budget("/fournisseur/retrieve-fournisseur/8"));
+        assertEquals(5, filter.budget("/fournisseur/retrieve-all-fournisseurs"));
+        assertEquals(50, filter.budget("/produit/retrieve-all-produits"));
+    }
+
+    @Test
+    void testDoFilter_CountsStatementsDuringRequestOnly() throws Exception {
+        // Arrange
+        ProfilSql.Compteurs[] pendant = new ProfilSql.Compteurs[1];
+        ProfilSqlInspecteur inspecteur = new ProfilSqlInspecteur();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/SpringMVC/fournisseur/retrieve-fournisseur/8");
+        request.setContextPath("/SpringMVC");
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                for (int i = 0; i < 3; i++) {
+                    inspecteur.inspect("select * from detail_fournisseur where id_detail_fournisseur=?");
+                }
+                inspecteur.inspect("select * from fournisseur where id_fournisseur=?");
+                pendant[0] = ProfilSql.courant();
+            }
+        });
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        inspecteur.inspect("select 1");
+
+        // Assert
+        assertEquals(4, pendant[0].getRequetes());
+        assertEquals(3, pendant[0].plusRepetee().getValue());
+        assertNull(ProfilSql.courant());
+    }
+
+    @Test
+    void testDoFilter_SkipsServerSentEvents() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/stock/flux");
+        request.addHeader("Accept", "text/event-stream");
+        ProfilSql.Compteurs[] pendant = new ProfilSql.Compteurs[1];
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                pendant[0] = ProfilSql.courant();
+            }
+        });
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNull(pendant[0]);
+    }
+}
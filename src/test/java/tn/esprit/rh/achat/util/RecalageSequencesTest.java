@@ -0,0 +1,76 @@
+package tn.esprit.rh.achat.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.rh.achat.entities.Facture;
+import tn.esprit.rh.achat.repositories.FactureRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(RecalageSequences.class)
+class RecalageSequencesTest {
+
+    @Autowired
+    private RecalageSequences recalageSequences;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FactureRepository factureRepository;
+
+    private long suivante(String sequence) {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + sequence, Long.class);
+    }
+
+    private void insererFacture(long id) {
+        jdbcTemplate.update("INSERT INTO facture (id_facture, montant_facture, montant_remise) VALUES (?, 0, 0)", id);
+    }
+
+    @Test
+    void testRecaler_SequenceMovedPastExistingIds() {
+        // Arrange - ligne reprise d'une table IDENTITY, au-delà de la séquence
+        long existant = suivante("facture_seq") + 1_000;
+        insererFacture(existant);
+
+        // Act
+        recalageSequences.recaler();
+
+        // Assert
+        assertEquals(existant + 1, suivante("facture_seq"));
+    }
+
+    @Test
+    void testRecaler_SequenceAheadNeverMovedBack() {
+        // Arrange
+        long valeur = suivante("facture_seq");
+        insererFacture(valeur - 1);
+
+        // Act
+        recalageSequences.recaler();
+
+        // Assert - seule la lecture de la séquence a consommé un bloc de 50
+        assertEquals(valeur + 100, suivante("facture_seq"));
+    }
+
+    @Test
+    void testSave_IdsAllocatedByBlocksAfterExistingIds() {
+        // Arrange
+        long existant = suivante("facture_seq") + 1_000;
+        insererFacture(existant);
+        recalageSequences.recaler();
+
+        // Act
+        Facture premiere = factureRepository.save(new Facture());
+        Facture seconde = factureRepository.save(new Facture());
+
+        // Assert - pooled-lo : identifiants consécutifs sans nouvel appel à la séquence
+        assertTrue(premiere.getIdFacture() > existant, premiere.getIdFacture() + " <= " + existant);
+        assertEquals(premiere.getIdFacture() + 1, seconde.getIdFacture());
+    }
+
+}
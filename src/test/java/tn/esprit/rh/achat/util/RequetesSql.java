@@ -0,0 +1,30 @@
+package tn.esprit.rh.achat.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ * Comptage des instructions SQL Hibernate d'un bloc de test (@DataJpaTest) :
+ * penser à inclure le flush dans le bloc pour compter les écritures
+ */
+public final class RequetesSql {
+
+    private RequetesSql() {
+    }
+
+    public static ProfilSql.Compteurs mesurer(Runnable action) {
+        ProfilSql.Compteurs compteurs = ProfilSql.demarrer();
+        try {
+            action.run();
+            return compteurs;
+        } finally {
+            ProfilSql.terminer();
+        }
+    }
+
+    public static void assertNombreRequetes(int attendu, Runnable action) {
+        ProfilSql.Compteurs compteurs = mesurer(action);
+        assertEquals(attendu, compteurs.getRequetes(), () -> "requêtes SQL exécutées : " + compteurs.getRequetes()
+                + (compteurs.plusRepetee() == null ? "" : ", la plus répétée : " + compteurs.plusRepetee()));
+    }
+
+}
@@ -0,0 +1,150 @@
+package tn.esprit.rh.achat.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routage primaire / réplique sur deux bases H2 distinctes : chacune contient
+ * une ligne "origine" qui dit d'où vient la lecture, la réplique une table
+ * etat_replication qui simule son retard
+ */
+class RoutageDataSourceTest {
+
+    private DriverManagerDataSource primaire;
+    private DriverManagerDataSource replica;
+    private ReplicaProprietes proprietes;
+    private SurveillanceReplica surveillance;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate lecture;
+    private TransactionTemplate ecriture;
+
+    @BeforeEach
+    void setUp() {
+        primaire = base("routage_primaire");
+        replica = base("routage_replica");
+        new JdbcTemplate(primaire).execute("insert into origine values ('primaire')");
+        new JdbcTemplate(replica).execute("insert into origine values ('replica')");
+        new JdbcTemplate(replica).execute("create table etat_replication (retard bigint)");
+        new JdbcTemplate(replica).execute("insert into etat_replication values (0)");
+
+        proprietes = new ReplicaProprietes();
+        proprietes.setRequeteRetard("select retard from etat_replication");
+        proprietes.setColonneRetard("retard");
+        proprietes.setRetardMaxSecondes(5);
+        surveillance = new SurveillanceReplica(replica, proprietes);
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new RoutageDataSource(primaire, replica, surveillance::isUtilisable));
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        lecture = new TransactionTemplate(transactionManager);
+        lecture.setReadOnly(true);
+        ecriture = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(primaire).execute("drop all objects");
+        new JdbcTemplate(replica).execute("drop all objects");
+    }
+
+    private static DriverManagerDataSource base(String nom) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + nom + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(dataSource).execute("create table origine (nom varchar(20))");
+        return dataSource;
+    }
+
+    private String origine(TransactionTemplate transaction) {
+        return transaction.execute(statut -> jdbcTemplate.queryForObject("select nom from origine", String.class));
+    }
+
+    @Test
+    void testLectureSeule_RouteeVersReplica() {
+        // Arrange
+        surveillance.verifier();
+
+        // Act & Assert
+        assertTrue(surveillance.isUtilisable());
+        assertEquals("replica", origine(lecture));
+        assertEquals("primaire", origine(ecriture));
+        assertEquals("primaire", jdbcTemplate.queryForObject("select nom from origine", String.class));
+    }
+
+    @Test
+    void testAvantPremiereVerification_ToutSurPrimaire() {
+        // Act & Assert
+        assertFalse(surveillance.isUtilisable());
+        assertEquals("primaire", origine(lecture));
+    }
+
+    @Test
+    void testRetardExcessif_RepliSurPrimaireJusquARattrapage() {
+        // Arrange
+        surveillance.verifier();
+        new JdbcTemplate(replica).update("update etat_replication set retard = 30");
+
+        // Act
+        surveillance.verifier();
+        String pendantRetard = origine(lecture);
+        new JdbcTemplate(replica).update("update etat_replication set retard = 1");
+        surveillance.verifier();
+
+        // Assert
+        assertEquals("primaire", pendantRetard);
+        assertEquals("replica", origine(lecture));
+    }
+
+    @Test
+    void testReplicationArreteeOuInjoignable_RepliSurPrimaire() {
+        // Arrange
+        surveillance.verifier();
+        new JdbcTemplate(replica).update("update etat_replication set retard = null");
+
+        // Act
+        surveillance.verifier();
+        boolean apresArret = surveillance.isUtilisable();
+        new JdbcTemplate(replica).execute("drop table etat_replication");
+        surveillance.verifier();
+
+        // Assert
+        assertFalse(apresArret);
+        assertFalse(surveillance.isUtilisable());
+        assertEquals("primaire", origine(lecture));
+    }
+
+    @Test
+    void testSansRequeteRetard_SimpleTestDeConnexion() {
+        // Arrange
+        proprietes.setRequeteRetard("");
+
+        // Act
+        surveillance.verifier();
+
+        // Assert
+        assertTrue(surveillance.isUtilisable());
+        assertEquals("replica", origine(lecture));
+    }
+
+    @Test
+    void testEcritureDansTransaction_ToujoursSurPrimaire() {
+        // Arrange
+        surveillance.verifier();
+
+        // Act
+        ecriture.executeWithoutResult(statut -> jdbcTemplate.update("insert into origine values ('ecrite')"));
+
+        // Assert
+        assertEquals(2, new JdbcTemplate(primaire).queryForObject("select count(*) from origine", Integer.class));
+        assertEquals(1, new JdbcTemplate(replica).queryForObject("select count(*) from origine", Integer.class));
+    }
+
+}